@@ -2,31 +2,63 @@ package auctions.agents;
 
 import java.awt.EventQueue;
 import java.awt.GraphicsEnvironment;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 import auctions.gui.AuctionFrame;
+import auctions.gui.FrameUpdates;
+import auctions.launcher.Readiness;
+import auctions.metrics.AgentMetrics;
+import auctions.models.Bid;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import auctions.utils.ShardRouter;
 import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
 
 public class AuctionGUIAgent extends Agent {
     private AuctionFrame frame;
-    private static final String SELLER = "seller1";
+    // Requests go to the seller owning the auction; seller until the DF has answered
+    private AID seller;
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private ShardRouter router;
+    // Every seller's feed, since any of them may host the auction shown
+    private final Set<AID> subscribed = new LinkedHashSet<>();
+    // The frame shows one auction at a time: the most recently started one
+    private volatile String currentAuctionId;
+    private final AuctionCodec codec = new AuctionCodec();
+    // Posted from the agent thread, drained by the frame at its frame rate
+    private final FrameUpdates updates = new FrameUpdates();
+    private AgentMetrics metrics;
 
     @Override
     protected void setup() {
         if (GraphicsEnvironment.isHeadless()) {
             System.err.println("[GUI AGENT] Headless mode – exiting.");
+            Readiness.ready(this);   // nothing to show, but nothing to wait for either
             doDelete();
             return;
         }
 
+        AgentConfig config = new AgentConfig(getArguments());
+        int fps = config.getInt("guiFps", 30);
+        seller = new AID(config.get("seller", "seller1"), AID.ISLOCALNAME);
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+        metrics = new AgentMetrics(this, config.get("metricsHost", "localhost"),
+            config.getInt("metricsPort", AgentMetrics.DEFAULT_PORT));
+
         // Build the GUI
         EventQueue.invokeLater(() -> {
-            frame = new AuctionFrame();
+            frame = new AuctionFrame(updates, fps);
             frame.setTitle("Auction GUI - " + getLocalName());
             frame.setLocationRelativeTo(null);
             frame.setVisible(true);
@@ -36,18 +68,44 @@ public class AuctionGUIAgent extends Agent {
             frame.setBidListener(this::sendBid);
         });
 
-        // Listen for incoming ACL messages
-        addBehaviour(new CyclicBehaviour(this) {
+        // Subscribe to the auction feed of every seller, including ones joining later
+        sellers.setOnChange(this::subscribeToSellers);
+        addBehaviour(sellers.subscribe(this));
+        metrics.directory(sellers);
+
+        // Listen for incoming ACL messages; DF notifications belong to the directory
+        MessageTemplate notFromDF = MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF()));
+        addBehaviour(metrics.timed("updates", new CyclicBehaviour(this) {
             @Override
             public void action() {
-                ACLMessage msg = receive();
+                ACLMessage msg = receive(notFromDF);
                 if (msg != null) {
+                    metrics.received(msg);
                     processMessage(msg);        // <— call renamed method
                 } else {
                     block();
                 }
             }
-        });
+        }));
+
+        Readiness.ready(this);
+    }
+
+    private void subscribeToSellers() {
+        for (AID s : sellers.members()) {
+            if (subscribed.add(s)) {
+                ACLMessage sub = new ACLMessage(ACLMessage.SUBSCRIBE);
+                sub.addReceiver(s);
+                sub.setLanguage(AuctionCodec.BINARY_LANGUAGE);
+                metrics.send(sub);
+            }
+        }
+    }
+
+    /** Owner of an auction on the shard ring. */
+    private AID sellerOf(String auctionId) {
+        AID owner = router.route(auctionId);
+        return owner != null ? owner : seller;
     }
 
     /** Called when user clicks “Start New Auction”. */
@@ -58,11 +116,13 @@ public class AuctionGUIAgent extends Agent {
         String p = JOptionPane.showInputDialog(frame, "Starting price:");
         try {
             double price = Double.parseDouble(p);
+            // We pick the id, so we know which seller to ask
+            String auctionId = UUID.randomUUID().toString();
             ACLMessage req = new ACLMessage(ACLMessage.REQUEST);
-            req.addReceiver(new AID(SELLER, AID.ISLOCALNAME));
-            req.setContent("NEW_AUCTION|" + price + "|" + item);
-            send(req);
-            System.out.println("[GUI AGENT] Sent NEW_AUCTION|" + price + "|" + item);
+            req.addReceiver(sellerOf(auctionId));
+            req.setContent(AuctionProtocol.newAuctionRequest(auctionId, price, item));
+            metrics.send(req);
+            System.out.println("[GUI AGENT] Sent " + req.getContent());
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(frame, "Invalid price.", "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -70,39 +130,59 @@ public class AuctionGUIAgent extends Agent {
 
     /** Called when user places a bid in the GUI. */
     private void sendBid(String bidder, double amount) {
+        String auctionId = currentAuctionId;
+        if (auctionId == null) return;
+
         ACLMessage bid = new ACLMessage(ACLMessage.PROPOSE);
-        bid.addReceiver(new AID(SELLER, AID.ISLOCALNAME));
-        bid.setContent("BID|" + bidder + "|" + amount);
-        send(bid);
-        System.out.println("[GUI AGENT] Sent BID|" + bidder + "|" + amount);
+        bid.addReceiver(sellerOf(auctionId));
+        bid.setContent(AuctionProtocol.bid(auctionId, bidder, amount));
+        metrics.send(bid);
+        System.out.println("[GUI AGENT] Sent " + bid.getContent());
     }
 
     /** Process any incoming ACLMessage from the seller/auctioneer. */
     private void processMessage(ACLMessage msg) {
-        String[] parts = msg.getContent().split("\\|", 3);
-        SwingUtilities.invokeLater(() -> {
-            switch (parts[0]) {
-                case "NEW_AUCTION":
-                    double startPrice = Double.parseDouble(parts[1]);
-                    frame.startNewAuction(parts[2], startPrice);
-                    JOptionPane.showMessageDialog(
-                        frame,
-                        "Auction started: " + parts[2] + "\nStarting at $" + startPrice,
-                        "New Auction",
-                        JOptionPane.INFORMATION_MESSAGE
-                    );
-                    break;
-                case "BID":
-                    frame.updateBid(parts[1], Double.parseDouble(parts[2]));
-                    break;
-                default:
-                    System.err.println("[GUI AGENT] Unknown message: " + msg.getContent());
-            }
-        });
+        int type = codec.decode(msg);
+        // The codec reuses its Bid; the frame gets copies of the fields
+        Bid update = codec.bid();
+        String auctionId = update.getAuctionId();
+
+        if (type == AuctionCodec.TYPE_NEW_AUCTION) {
+            currentAuctionId = auctionId;
+        } else if (type != AuctionCodec.TYPE_UNKNOWN && !auctionId.equals(currentAuctionId)) {
+            return;   // update for an auction this frame is not showing
+        }
+        // No EDT task per message: the frame applies these on its next render tick
+        switch (type) {
+            case AuctionCodec.TYPE_NEW_AUCTION:
+                updates.newAuction(codec.item(), update.getAmount(), codec.endTime());
+                break;
+            case AuctionCodec.TYPE_BID:
+                updates.bid(update.getBidder(), update.getAmount());
+                break;
+            case AuctionCodec.TYPE_EXTENDED:
+                updates.extended(codec.endTime());
+                break;
+            case AuctionCodec.TYPE_CLOSE:
+                // The seller decides the winner; the frame only shows it
+                updates.closed(update.getBidder(), update.getAmount());
+                break;
+            default:
+                System.err.println("[GUI AGENT] Unknown message: " + msg.getContent());
+        }
     }
 
     @Override
     protected void takeDown() {
+        if (!subscribed.isEmpty()) {
+            ACLMessage cancel = new ACLMessage(ACLMessage.CANCEL);
+            for (AID s : subscribed) {
+                cancel.addReceiver(s);
+            }
+            metrics.send(cancel);
+        }
+        if (metrics != null) metrics.close();
+
         SwingUtilities.invokeLater(() -> {
             if (frame != null) frame.dispose();
         });
@@ -0,0 +1,430 @@
+package auctions.agents;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import auctions.launcher.Readiness;
+import auctions.log.EventLog;
+import auctions.log.LogEvent;
+import auctions.metrics.AgentMetrics;
+import auctions.models.Auction;
+import auctions.models.Bid;
+import auctions.models.Money;
+import auctions.strategy.BidderState;
+import auctions.strategy.BiddingStrategy;
+import auctions.strategy.Strategies;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import auctions.utils.ShardRouter;
+import auctions.utils.TimerWheel;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+/**
+ * Many simulated bidders inside one agent, for crowds a JADE agent per
+ * buyer cannot reach.
+ *
+ * The host registers once as a buyer, so sellers send it each price update
+ * once, and keeps its bidders in primitive arrays: budget, last bid, bids
+ * placed and strategy, a few dozen bytes each. A price change arms one
+ * reaction per auction after the reaction delay; it then lets a few
+ * bidders who can still afford the next bid (picked at random among
+ * them, budgets being kept sorted) ask their {@link BiddingStrategy}
+ * what to do, and sends their bids under their own names, so the seller
+ * sees distinct bidders. Time-based strategies (snipe, paced) get a
+ * wake-up per auction rather than per bidder.
+ *
+ * Arguments (key=value): bidders, budgetMin, budgetMax (dollars), seed,
+ * strategies (comma-separated mix, e.g. fixed,snipe,paced,proxy, with
+ * their usual knobs), reactionMs, fanout (bidders asked per reaction),
+ * maxBackoffMs, seller, shardVnodes, metricsPort.
+ */
+public class BidderHostAgent extends Agent {
+    /** Conversation id of the reaction wake-ups the timer wheel posts to us. */
+    private static final String REACT = "host-react";
+    /** The budget sort packs a bidder's index in 24 bits and its budget above them. */
+    static final int MAX_BIDDERS = 1 << 24;
+    static final long MAX_BUDGET_CENTS = (1L << 39) - 1;
+
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private ShardRouter router;
+    private AID sellerAID;
+    private final AuctionCodec codec = new AuctionCodec();
+    private boolean sellerSpeaksBinary;
+    private AgentMetrics metrics;
+    private final EventLog events = EventLog.global();
+    private final Random rng = new Random();
+
+    // One slot per bidder; bidder i is named prefix + i
+    private String prefix;
+    private int count;
+    private long[] budgetCents;
+    private long[] lastBidCents;
+    private int[] bidsPlaced;
+    private byte[] strategyOf;
+    // Bidder indexes by budget, highest first: those who can pay a price are a prefix
+    private int[] byBudget;
+    private long[] sortedBudgets;
+
+    private BiddingStrategy[] strategies;
+    private long reactionMs;
+    private int fanout;
+    private final Map<String, HostedAuction> auctions = new HashMap<>();
+    // Scratch state handed to the strategies, refilled for every decision
+    private final BidderState scratch = new BidderState();
+
+    // No bids before this time after a seller's RETRY_AFTER, as in BuyerAgent
+    private long backoffUntilMs;
+    private int retries;
+    private long maxBackoffMs;
+
+    private long updates, reactions, bidsSent, proxiesSent, wins, retryAfters;
+
+    /** What the host knows about one auction, shared by all its bidders. */
+    private static final class HostedAuction {
+        final String id;
+        final long startCents;
+        final long openedAtMs;
+        long endsAtMs;
+        long priceCents;
+        int leader = -1;              // our bidder leading, -1 if none of ours
+        long[] proxied;               // bidders that registered a proxy, as a bit set
+        TimerWheel.Timeout wake;
+        long wakeAtMs;
+
+        HostedAuction(String id, long startCents, long openedAtMs, long endsAtMs) {
+            this.id = id;
+            this.startCents = startCents;
+            this.priceCents = startCents;
+            this.openedAtMs = openedAtMs;
+            this.endsAtMs = endsAtMs;
+        }
+    }
+
+    @Override
+    protected void setup() {
+        AgentConfig config = new AgentConfig(getArguments());
+        count = Math.max(1, config.getInt("bidders", 1000));
+        if (count > MAX_BIDDERS) {
+            System.err.println("[HOST] " + getLocalName() + ": " + count + " bidders, keeping " + MAX_BIDDERS);
+            count = MAX_BIDDERS;
+        }
+        prefix = config.get("prefix", getLocalName() + "-");
+        reactionMs = Math.max(0, config.getLong("reactionMs", 250));
+        fanout = Math.max(1, config.getInt("fanout", 2));
+        maxBackoffMs = Math.max(1, config.getLong("maxBackoffMs", 10000));
+        rng.setSeed(config.getLong("seed", getLocalName().hashCode()));
+        sellerAID = new AID(config.get("seller", "seller1"), AID.ISLOCALNAME);
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+        metrics = new AgentMetrics(this, config.get("metricsHost", "localhost"),
+            config.getInt("metricsPort", AgentMetrics.DEFAULT_PORT));
+
+        String[] names = config.get("strategies", config.get("strategy", "fixed")).split(",");
+        strategies = new BiddingStrategy[names.length];
+        for (int k = 0; k < names.length; k++) {
+            strategies[k] = Strategies.byName(names[k], config);
+        }
+        createBidders(Money.toCents(config.getDouble("budgetMin", 800)),
+            Money.toCents(config.getDouble("budgetMax", 1500)));
+
+        System.out.printf("[HOST] %s: %d bidders (%s), %d bytes each, %.1f MB; reaction %d ms, fanout %d%n",
+            getLocalName(), count, String.join(",", names), bytesPerBidder(),
+            (double) bytesPerBidder() * count / (1 << 20), reactionMs, fanout);
+        metrics.gauge("bidder_host_bidders", "Simulated bidders in this host.", () -> count);
+        metrics.gauge("bidder_host_bytes_per_bidder", "Bytes of per-bidder state.", this::bytesPerBidder);
+
+        // One registration for all the bidders: sellers send us each update once
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType("buyer");
+        sd.setName(getLocalName() + "-service");
+        sd.addLanguages(AuctionCodec.BINARY_LANGUAGE);
+        dfd.addServices(sd);
+        try {
+            long t0 = System.nanoTime();
+            DFService.register(this, dfd);
+            metrics.dfRequest("register").recordSince(t0);
+        } catch (FIPAException fe) {
+            System.err.println("[HOST] " + getLocalName() + " cannot register: " + fe.getMessage());
+        }
+        addBehaviour(sellers.subscribe(this));
+        metrics.directory(sellers);
+
+        MessageTemplate notFromDF = MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF()));
+        addBehaviour(metrics.timed("updates", new CyclicBehaviour(this) {
+            @Override
+            public void action() {
+                ACLMessage msg = receive(notFromDF);
+                if (msg == null) {
+                    block();
+                    return;
+                }
+                metrics.received(msg);
+                if (REACT.equals(msg.getConversationId()) && getAID().equals(msg.getSender())) {
+                    react(auctions.get(msg.getContent()));
+                } else if (msg.getPerformative() == ACLMessage.REJECT_PROPOSAL) {
+                    onRetryAfter(msg);
+                } else {
+                    onUpdate(msg);
+                }
+            }
+        }));
+
+        addBehaviour(new TickerBehaviour(this, 30000) {
+            @Override
+            protected void onTick() {
+                System.out.println("[HOST] " + BidderHostAgent.this);
+            }
+        });
+
+        Readiness.ready(this);
+    }
+
+    /** Random budgets in [min, max], a strategy each, and the budget order. */
+    private void createBidders(long minCents, long maxCents) {
+        long min = Math.max(0, Math.min(MAX_BUDGET_CENTS, minCents));
+        long max = Math.max(0, Math.min(MAX_BUDGET_CENTS, maxCents));
+        if (min != minCents || max != maxCents) {
+            System.err.printf("[HOST] %s: budgets kept within 0..%d cents%n", getLocalName(), MAX_BUDGET_CENTS);
+            minCents = min;
+            maxCents = max;
+        }
+        budgetCents  = new long[count];
+        lastBidCents = new long[count];
+        bidsPlaced   = new int[count];
+        strategyOf   = new byte[count];
+        long span = Math.max(0, maxCents - minCents);
+        for (int i = 0; i < count; i++) {
+            budgetCents[i] = minCents + (span == 0 ? 0 : (long) (rng.nextDouble() * span));
+            strategyOf[i]  = (byte) rng.nextInt(strategies.length);
+        }
+        // Sort indexes by budget, highest first, through a packed key to stay on primitives
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (budgetCents[i] << 24) | i;   // fits: see MAX_BIDDERS and MAX_BUDGET_CENTS
+        }
+        Arrays.sort(keys);
+        byBudget = new int[count];
+        sortedBudgets = new long[count];
+        for (int k = 0; k < count; k++) {
+            long key = keys[count - 1 - k];
+            byBudget[k] = (int) (key & 0xFFFFFF);
+            sortedBudgets[k] = key >>> 24;
+        }
+    }
+
+    /** Per-bidder arrays: budget, last bid, bids placed, strategy, and the two budget-order arrays. */
+    private long bytesPerBidder() {
+        return 8 + 8 + 4 + 1 + 4 + 8;
+    }
+
+    private void onUpdate(ACLMessage msg) {
+        int type = codec.decode(msg);
+        if (type == AuctionCodec.TYPE_UNKNOWN) return;
+        sellerSpeaksBinary = AuctionCodec.isBinary(msg);
+        Bid update = codec.bid();
+        String id = update.getAuctionId();
+        updates++;
+        switch (type) {
+            case AuctionCodec.TYPE_NEW_AUCTION: {
+                long now = System.currentTimeMillis();
+                long endsAt = codec.endTime() > 0 ? codec.endTime() : now + Auction.DURATION_MS;
+                HostedAuction a = new HostedAuction(id, update.getAmountCents(), now, endsAt);
+                auctions.put(id, a);
+                schedule(a, reactionMs);
+                break;
+            }
+            case AuctionCodec.TYPE_BID: {
+                HostedAuction a = auctions.get(id);
+                if (a == null || update.getAmountCents() < a.priceCents) break;
+                a.priceCents = update.getAmountCents();
+                a.leader = indexOf(update.getBidder());
+                if (a.leader >= 0) retries = 0;   // the seller took one of our bids again
+                schedule(a, reactionMs);
+                break;
+            }
+            case AuctionCodec.TYPE_EXTENDED: {
+                HostedAuction a = auctions.get(id);
+                if (a != null) {
+                    a.endsAtMs = codec.endTime();
+                    schedule(a, reactionMs);
+                }
+                break;
+            }
+            case AuctionCodec.TYPE_CLOSE: {
+                HostedAuction a = auctions.remove(id);
+                if (a != null && a.wake != null) a.wake.cancel();
+                int winner = indexOf(update.getBidder());
+                if (winner >= 0) {
+                    wins++;
+                    events.log(LogEvent.AUCTION_WON, prefix + winner, null, update.getAmountCents());
+                }
+                break;
+            }
+            default:
+                // nothing else concerns bidders
+        }
+    }
+
+    /** Our bidder's index from its name, or -1 for someone else's. */
+    private int indexOf(String bidder) {
+        if (bidder == null || !bidder.startsWith(prefix)) return -1;
+        int i = 0;
+        for (int k = prefix.length(); k < bidder.length(); k++) {
+            char c = bidder.charAt(k);
+            if (c < '0' || c > '9' || i > count) return -1;
+            i = i * 10 + (c - '0');
+        }
+        return bidder.length() > prefix.length() && i < count ? i : -1;
+    }
+
+    /** React to an auction in {@code delayMs}, unless a reaction is already due sooner. */
+    private void schedule(HostedAuction a, long delayMs) {
+        long at = System.currentTimeMillis() + delayMs;
+        if (a.wake != null && !a.wake.isExpired()) {
+            if (a.wakeAtMs <= at) return;
+            a.wake.cancel();
+        }
+        a.wakeAtMs = at;
+        String id = a.id;
+        a.wake = TimerWheel.shared().schedule(TimerWheel.jittered(Math.max(1, delayMs), 0.2), () -> {
+            ACLMessage wake = new ACLMessage(ACLMessage.INFORM);
+            wake.setSender(getAID());
+            wake.setConversationId(REACT);
+            wake.setContent(id);
+            postMessage(wake);
+        });
+    }
+
+    /**
+     * Let up to {@code fanout} bidders who can afford the next bid decide,
+     * and arm the next wake-up a time-based strategy asked for.
+     */
+    private void react(HostedAuction a) {
+        if (a == null) return;
+        a.wake = null;
+        long now = System.currentTimeMillis();
+        if (now >= a.endsAtMs) return;
+        if (now < backoffUntilMs) {
+            schedule(a, backoffUntilMs - now);
+            return;
+        }
+        reactions++;
+
+        int eligible = affordable(a.priceCents + 1);
+        long recheckAt = Long.MAX_VALUE;
+        for (int n = 0; n < fanout && eligible > 0; n++) {
+            int i = byBudget[rng.nextInt(eligible)];
+            if (i == a.leader) continue;
+            BiddingStrategy strategy = strategies[strategyOf[i]];
+            fill(a, i);
+            if (strategy.isProxy()) {
+                if (a.proxied == null) a.proxied = new long[(count + 63) >>> 6];
+                if ((a.proxied[i >>> 6] & (1L << i)) == 0) {
+                    a.proxied[i >>> 6] |= 1L << i;
+                    send(a, i, budgetCents[i], true);
+                }
+                continue;
+            }
+            long bid = strategy.decide(scratch, now);
+            if (bid != BiddingStrategy.NONE) send(a, i, bid, false);
+            long at = strategy.recheckAtMs(scratch, now);
+            if (at != BiddingStrategy.NONE) recheckAt = Math.min(recheckAt, at);
+        }
+        if (recheckAt != Long.MAX_VALUE) schedule(a, Math.max(0, recheckAt - now));
+    }
+
+    /**
+     * A seller is shedding bids: all bidders hold off for the time it
+     * asked, doubled on each refusal in a row, then every auction is
+     * looked at again. A shed proxy is not known, so it may go unrecorded
+     * until another bidder of ours registers one.
+     */
+    private void onRetryAfter(ACLMessage msg) {
+        long retryMs = AuctionProtocol.retryAfterMs(msg.getContent());
+        if (retryMs < 0) return;
+        retryAfters++;
+        long now = System.currentTimeMillis();
+        backoffUntilMs = Math.max(backoffUntilMs, now + TimerWheel.backoff(retryMs, retries++, maxBackoffMs));
+        for (HostedAuction a : auctions.values()) {
+            schedule(a, backoffUntilMs - now);
+        }
+    }
+
+    /** Number of bidders whose budget reaches {@code cents}: a prefix of the budget order. */
+    private int affordable(long cents) {
+        int lo = 0, hi = count;   // sortedBudgets is descending
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedBudgets[mid] >= cents) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Load bidder {@code i}'s view of auction {@code a} into the scratch state. */
+    private void fill(HostedAuction a, int i) {
+        scratch.startCents   = a.startCents;
+        scratch.priceCents   = a.priceCents;
+        scratch.leading      = false;
+        scratch.budgetCents  = budgetCents[i];
+        scratch.openedAtMs   = a.openedAtMs;
+        scratch.endsAtMs     = a.endsAtMs;
+        scratch.lastBidCents = lastBidCents[i];
+        scratch.bidsPlaced   = bidsPlaced[i];
+        scratch.wakeAtMs     = 0;
+    }
+
+    private void send(HostedAuction a, int i, long cents, boolean proxy) {
+        String name = prefix + i;
+        AID owner = router.route(a.id);
+        ACLMessage msg = new ACLMessage(ACLMessage.PROPOSE);
+        msg.addReceiver(owner != null ? owner : sellerAID);
+        if (proxy) {
+            AuctionCodec.setContent(msg,
+                sellerSpeaksBinary ? AuctionCodec.encodeProxy(a.id, name, cents) : null,
+                AuctionProtocol.proxy(a.id, name, Money.toAmount(cents)));
+            proxiesSent++;
+        } else {
+            AuctionCodec.setContent(msg,
+                sellerSpeaksBinary ? AuctionCodec.encodeBid(a.id, name, cents) : null,
+                AuctionProtocol.bid(a.id, name, Money.toAmount(cents)));
+            bidsSent++;
+        }
+        metrics.send(msg);
+        lastBidCents[i] = cents;
+        bidsPlaced[i]++;
+    }
+
+    @Override
+    protected void takeDown() {
+        for (HostedAuction a : auctions.values()) {
+            if (a.wake != null) a.wake.cancel();
+        }
+        try {
+            DFService.deregister(this);
+        } catch (FIPAException fe) {}
+        System.out.println("[HOST] " + this);
+        metrics.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d bidders, %d auctions followed, %d updates, %d reactions, "
+                + "%d bids and %d proxies sent, %d won, %d retry-after",
+            getLocalName(), count, auctions.size(), updates, reactions, bidsSent, proxiesSent, wins, retryAfters);
+    }
+}
@@ -1,24 +1,60 @@
 package auctions.agents;
 
-import java.util.Random;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import auctions.launcher.Readiness;
+import auctions.log.EventLog;
+import auctions.log.LogEvent;
+import auctions.metrics.AgentMetrics;
+import auctions.models.Auction;
+import auctions.models.Bid;
+import auctions.models.Money;
+import auctions.strategy.BidderState;
+import auctions.strategy.BiddingStrategy;
+import auctions.strategy.Strategies;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import auctions.utils.ShardRouter;
+import auctions.utils.TimerWheel;
 
 import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
-import jade.core.behaviours.TickerBehaviour;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
 
 public class BuyerAgent extends Agent {
+    /** Conversation id of the wake-up messages the timer wheel posts to us. */
+    private static final String BID_TIMER = "bid-timer";
+
+    // Bids go to the seller that owns the auction; sellerAID until the DF has answered
     private AID sellerAID;
-    private double lastPrice     = 0.0;
-    private String lastBidder    = null;
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private ShardRouter router;
+    private final Map<String, BidderState> auctions = new LinkedHashMap<>();
     private double maxBudget     = Double.MAX_VALUE;
-    private TickerBehaviour biddingBehaviour;
-    private final Random rng     = new Random();
+    private BiddingStrategy strategy;
+    // Delay between seeing a price and acting on it; 0 reacts inline
+    private long reactionMs      = 250;
+    // Pending wake-ups on the shared wheel, by auction id
+    private final Map<String, TimerWheel.Timeout> wakeups = new HashMap<>();
+    private final AuctionCodec codec = new AuctionCodec();
+    // Answer in binary once the seller has shown it speaks it
+    private boolean sellerSpeaksBinary;
+    // No bids before this time after a seller's RETRY_AFTER; the wait doubles while it keeps refusing
+    private long backoffUntilMs;
+    private int retries;
+    private long maxBackoffMs = 10000;
+    private AgentMetrics metrics;
+    private final EventLog events = EventLog.global();
 
     @Override
     @SuppressWarnings("CallToPrintStackTrace")
@@ -32,6 +68,13 @@ public class BuyerAgent extends Agent {
                 System.err.println("[BUYER] Invalid budget; using no limit.");
             }
         }
+        AgentConfig config = new AgentConfig(args);
+        strategy   = Strategies.fromConfig(config);
+        reactionMs = Math.max(0, config.getLong("reactionMs", reactionMs));
+        maxBackoffMs = Math.max(1, config.getLong("maxBackoffMs", maxBackoffMs));
+        System.out.printf("[%s] Bidding with %s, reaction %d ms%n", getLocalName(), strategy.name(), reactionMs);
+        metrics = new AgentMetrics(this, config.get("metricsHost", "localhost"),
+            config.getInt("metricsPort", AgentMetrics.DEFAULT_PORT));
 
         // 2) Register with DF as a "buyer"
         DFAgentDescription dfd = new DFAgentDescription();
@@ -39,39 +82,80 @@ public class BuyerAgent extends Agent {
         ServiceDescription sd = new ServiceDescription();
         sd.setType("buyer");
         sd.setName(getLocalName() + "-service");
+        sd.addLanguages(AuctionCodec.BINARY_LANGUAGE);
         dfd.addServices(sd);
         try {
+            long t0 = System.nanoTime();
             DFService.register(this, dfd);
+            metrics.dfRequest("register").recordSince(t0);
         } catch (FIPAException fe) {
             fe.printStackTrace();
         }
 
-        // 3) Identify the seller
-        sellerAID = new AID("seller1", AID.ISLOCALNAME);
+        // 3) Identify the sellers and which auctions each one owns
+        sellerAID = new AID(config.get("seller", "seller1"), AID.ISLOCALNAME);
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+        addBehaviour(sellers.subscribe(this));
+        metrics.directory(sellers);
 
-        // 4) Listen for NEW_AUCTION and BID messages
-        addBehaviour(new CyclicBehaviour(this) {
+        // 4) Listen for NEW_AUCTION and BID messages, and for our own timer wake-ups
+        //    (DF notifications belong to the directory's behaviour)
+        MessageTemplate notFromDF = MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF()));
+        addBehaviour(metrics.timed("updates", new CyclicBehaviour(this) {
             @Override
             public void action() {
-                ACLMessage msg = receive();
+                ACLMessage msg = receive(notFromDF);
                 if (msg != null) {
-                    String[] parts = msg.getContent().split("\\|", 3);
-                    switch (parts[0]) {
-                        case "NEW_AUCTION":
-                            // Reset price & bidder, start bidding
-                            lastPrice  = Double.parseDouble(parts[1]);
-                            lastBidder = null;
-                            restartBidding();
+                    metrics.received(msg);
+                    if (BID_TIMER.equals(msg.getConversationId()) && getAID().equals(msg.getSender())) {
+                        evaluate(msg.getContent());
+                        return;
+                    }
+                    if (msg.getPerformative() == ACLMessage.REJECT_PROPOSAL) {
+                        onRetryAfter(msg);
+                        return;
+                    }
+                    int type = codec.decode(msg);
+                    Bid update = codec.bid();
+                    if (type != AuctionCodec.TYPE_UNKNOWN) {
+                        sellerSpeaksBinary = AuctionCodec.isBinary(msg);
+                    }
+                    switch (type) {
+                        case AuctionCodec.TYPE_NEW_AUCTION: {
+                            // Track the new auction & decide whether to open the bidding; time
+                            // strategies aim at the seller's end time, not a guess from now
+                            long now = System.currentTimeMillis();
+                            long endsAt = codec.endTime() > 0 ? codec.endTime() : now + Auction.DURATION_MS;
+                            auctions.put(update.getAuctionId(), new BidderState(update.getAmountCents(),
+                                Money.toCents(maxBudget), now, endsAt));
+                            react(update.getAuctionId());
                             break;
-                        case "BID":
-                            // Update lastPrice & lastBidder
-                            String bidder = parts[1];
-                            double amt    = Double.parseDouble(parts[2]);
-                            if (amt > lastPrice) {
-                                lastPrice  = amt;
-                                lastBidder = bidder;
+                        }
+                        case AuctionCodec.TYPE_BID: {
+                            // Update that auction's price & leader, and answer an outbid
+                            BidderState state = auctions.get(update.getAuctionId());
+                            if (state != null
+                                && state.onPrice(update.getAmountCents(), getLocalName().equals(update.getBidder()))) {
+                                if (!state.leading) {
+                                    react(update.getAuctionId());
+                                } else {
+                                    retries = 0;   // the seller took our bid again
+                                }
                             }
                             break;
+                        }
+                        case AuctionCodec.TYPE_EXTENDED: {
+                            // Soft close moved the deadline; time-based strategies re-aim
+                            BidderState state = auctions.get(update.getAuctionId());
+                            if (state != null) {
+                                state.endsAtMs = codec.endTime();
+                                if (!state.leading) react(update.getAuctionId());
+                            }
+                            break;
+                        }
+                        case AuctionCodec.TYPE_CLOSE:
+                            onClose(update);
+                            break;
                         default:
                             // ignore unknown
                     }
@@ -79,56 +163,152 @@ public class BuyerAgent extends Agent {
                     block();
                 }
             }
-        });
+        }));
+
+        Readiness.ready(this);
     }
 
-    /** (Re)start the periodic bidding behaviour with improved logic. */
-    private void restartBidding() {
-        // Remove any existing bidding behaviour
-        if (biddingBehaviour != null) {
-            removeBehaviour(biddingBehaviour);
+    /** Evaluate the strategy for one auction, now or after the reaction delay. */
+    private void react(String auctionId) {
+        if (reactionMs == 0) {
+            evaluate(auctionId);
+        } else {
+            wakeUp(auctionId, TimerWheel.jittered(reactionMs, 0.2));
         }
+    }
 
-        // Every 2 seconds, consider placing a new bid
-        biddingBehaviour = new TickerBehaviour(this, 2000) {
-            @Override
-            protected void onTick() {
-                double nextBid = Math.round(lastPrice * 1.05 * 100.0) / 100.0;
-
-                // Logic: 
-                //  - Must be under or equal to budget
-                //  - Must not already be the highest bidder
-                //  - 50% random chance to skip this tick
-                if (nextBid <= maxBudget
-                    && !getLocalName().equals(lastBidder)
-                    && rng.nextDouble() < 0.5) {
-
-                    ACLMessage bidMsg = new ACLMessage(ACLMessage.PROPOSE);
-                    bidMsg.addReceiver(sellerAID);
-                    bidMsg.setContent("BID|" + getLocalName() + "|" + nextBid);
-                    send(bidMsg);
-                    System.out.printf("[%s] Placed bid: $%.2f%n", getLocalName(), nextBid);
-                }
-                // If over budget, stop bidding
-                else if (nextBid > maxBudget) {
-                    stop();
-                    System.out.printf("[%s] Budget exhausted. Halting bids.%n", getLocalName());
-                }
+    /**
+     * Arm a wake-up for one auction on the shared timer wheel. An earlier
+     * pending wake-up is kept (it will see the latest price anyway); a later
+     * one is cancelled and replaced. The wheel thread only posts a message;
+     * the decision runs on this agent's thread.
+     */
+    private void wakeUp(String auctionId, long delayMs) {
+        BidderState state = auctions.get(auctionId);
+        long at = System.currentTimeMillis() + delayMs;
+        TimerWheel.Timeout pending = wakeups.get(auctionId);
+        if (pending != null) {
+            if (state.wakeAtMs <= at) return;
+            pending.cancel();
+        }
+        state.wakeAtMs = at;
+        wakeups.put(auctionId, TimerWheel.shared().schedule(delayMs, () -> {
+            ACLMessage wake = new ACLMessage(ACLMessage.INFORM);
+            wake.setSender(getAID());
+            wake.setConversationId(BID_TIMER);
+            wake.setContent(auctionId);
+            postMessage(wake);
+        }));
+    }
+
+    /** Ask the strategy what to do about one auction and act on it. */
+    private void evaluate(String auctionId) {
+        TimerWheel.Timeout pending = wakeups.remove(auctionId);
+        if (pending != null) pending.cancel();   // no-op when this is its wake-up
+        BidderState state = auctions.get(auctionId);
+        if (state == null) {
+            return;
+        }
+        state.wakeAtMs = 0;
+        long now = System.currentTimeMillis();
+
+        // Stop following auctions we can no longer win
+        if (state.isPricedOut()) {
+            auctions.remove(auctionId);
+            System.out.printf("[%s] Budget exhausted. Halting bids.%n", getLocalName());
+            return;
+        }
+        if (now >= state.endsAtMs) {
+            auctions.remove(auctionId);
+            return;
+        }
+
+        // The seller asked us to hold off: look again when the wait is over
+        if (now < backoffUntilMs) {
+            wakeUp(auctionId, backoffUntilMs - now);
+            return;
+        }
+
+        // Proxy mode: hand the seller our maximum once and let it bid for us
+        if (strategy.isProxy()) {
+            if (state.lastBidCents == 0) {
+                sendProxy(auctionId, state);
             }
-        };
+            return;
+        }
+
+        long bidCents = strategy.decide(state, now);
+        if (bidCents != BiddingStrategy.NONE) {
+            ACLMessage bidMsg = new ACLMessage(ACLMessage.PROPOSE);
+            bidMsg.addReceiver(sellerOf(auctionId));
+            AuctionCodec.setContent(bidMsg,
+                sellerSpeaksBinary ? AuctionCodec.encodeBid(auctionId, getLocalName(), bidCents) : null,
+                AuctionProtocol.bid(auctionId, getLocalName(), Money.toAmount(bidCents)));
+            metrics.send(bidMsg);
+            state.onBidSent(bidCents);
+            events.log(LogEvent.BID_PLACED, getLocalName(), null, bidCents);
+        }
+
+        long recheckAt = strategy.recheckAtMs(state, now);
+        if (recheckAt != BiddingStrategy.NONE) {
+            wakeUp(auctionId, Math.max(0, recheckAt - now));
+        }
+    }
+
+    /**
+     * The seller is shedding bids: wait what it asked, doubled on each
+     * refusal in a row, then look again at every auction we are not
+     * leading. It only tells us once per interval, so any proxy not yet
+     * confirmed by a price is sent again; the seller keeps the highest.
+     */
+    private void onRetryAfter(ACLMessage msg) {
+        long retryMs = AuctionProtocol.retryAfterMs(msg.getContent());
+        if (retryMs < 0) return;
+        long now = System.currentTimeMillis();
+        backoffUntilMs = Math.max(backoffUntilMs, now + TimerWheel.backoff(retryMs, retries++, maxBackoffMs));
+        for (Map.Entry<String, BidderState> e : auctions.entrySet()) {
+            BidderState state = e.getValue();
+            if (state.leading) continue;
+            if (strategy.isProxy()) state.lastBidCents = 0;
+            wakeUp(e.getKey(), backoffUntilMs - now);
+        }
+    }
+
+    /** The seller's final word: stop following the auction. */
+    private void onClose(Bid result) {
+        TimerWheel.Timeout pending = wakeups.remove(result.getAuctionId());
+        if (pending != null) pending.cancel();
+        if (auctions.remove(result.getAuctionId()) != null && getLocalName().equals(result.getBidder())) {
+            events.log(LogEvent.AUCTION_WON, getLocalName(), null, result.getAmountCents());
+        }
+    }
+
+    private AID sellerOf(String auctionId) {
+        AID owner = router.route(auctionId);
+        return owner != null ? owner : sellerAID;
+    }
 
-        addBehaviour(biddingBehaviour);
+    private void sendProxy(String auctionId, BidderState state) {
+        ACLMessage proxyMsg = new ACLMessage(ACLMessage.PROPOSE);
+        proxyMsg.addReceiver(sellerOf(auctionId));
+        AuctionCodec.setContent(proxyMsg,
+            sellerSpeaksBinary ? AuctionCodec.encodeProxy(auctionId, getLocalName(), state.budgetCents) : null,
+            AuctionProtocol.proxy(auctionId, getLocalName(), Money.toAmount(state.budgetCents)));
+        metrics.send(proxyMsg);
+        state.onBidSent(state.budgetCents);
+        events.log(LogEvent.PROXY_REGISTERED, getLocalName(), null, state.budgetCents);
     }
 
     @Override
     protected void takeDown() {
         // Deregister from DF and clean up
-        if (biddingBehaviour != null) {
-            removeBehaviour(biddingBehaviour);
+        for (TimerWheel.Timeout t : wakeups.values()) {
+            t.cancel();
         }
         try {
             DFService.deregister(this);
         } catch (FIPAException fe) {}
+        metrics.close();
         System.out.println("[BUYER] " + getLocalName() + " terminating.");
     }
 }
@@ -0,0 +1,133 @@
+package auctions.agents;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import auctions.feed.FeedFrames;
+import auctions.feed.FeedHub;
+import auctions.feed.FeedServer;
+import auctions.launcher.Readiness;
+import auctions.models.Bid;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import jakarta.websocket.DeploymentException;
+
+/**
+ * Streams the seller's auction feed to WebSocket clients (browsers, the
+ * {@code FeedConsole} CLI). The gateway subscribes like the GUI does, turns
+ * each event into one JSON frame and hands that same frame to every client.
+ * With auctions sharded over several sellers it follows all of them.
+ *
+ * Arguments (key=value): feedHost, feedPort, feedQueue (frames each
+ * client may have waiting), feedSenders (threads writing to sockets).
+ */
+public class FeedGatewayAgent extends Agent {
+    private final AuctionCodec codec = new AuctionCodec();
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private final Set<AID> subscribed = new LinkedHashSet<>();
+    private FeedHub hub;
+    private FeedServer server;
+
+    @Override
+    protected void setup() {
+        AgentConfig config = new AgentConfig(getArguments());
+        hub = new FeedHub(config.getInt("feedQueue", 256), config.getInt("feedSenders", 2));
+        server = new FeedServer(config.get("feedHost", "localhost"), config.getInt("feedPort", 8025), hub);
+        try {
+            server.start();
+        } catch (DeploymentException e) {
+            System.err.println("[FEED] Cannot start the WebSocket server: " + e);
+            server = null;
+            doDelete();
+            return;
+        }
+        System.out.println("[FEED] Serving " + server.getUri());
+
+        // Subscribe to every seller's auction feed, binary encoded, as sellers appear
+        sellers.setOnChange(this::subscribeToSellers);
+        addBehaviour(sellers.subscribe(this));
+
+        MessageTemplate fromSeller = MessageTemplate.and(
+            MessageTemplate.MatchPerformative(ACLMessage.INFORM),
+            MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF())));
+        addBehaviour(new CyclicBehaviour(this) {
+            @Override
+            public void action() {
+                ACLMessage msg = receive(fromSeller);
+                if (msg != null) {
+                    publish(msg);
+                } else {
+                    block();
+                }
+            }
+        });
+
+        addBehaviour(new TickerBehaviour(this, 30000) {
+            @Override
+            protected void onTick() {
+                System.out.println("[FEED] " + hub);
+            }
+        });
+
+        Readiness.ready(this);
+    }
+
+    private void subscribeToSellers() {
+        for (AID s : sellers.members()) {
+            if (subscribed.add(s)) {
+                ACLMessage sub = new ACLMessage(ACLMessage.SUBSCRIBE);
+                sub.addReceiver(s);
+                sub.setLanguage(AuctionCodec.BINARY_LANGUAGE);
+                send(sub);
+            }
+        }
+    }
+
+    /** One frame per event, serialized once whatever the number of clients. */
+    private void publish(ACLMessage msg) {
+        int type = codec.decode(msg);
+        Bid update = codec.bid();
+        String id = update.getAuctionId();
+        long now = System.currentTimeMillis();
+        switch (type) {
+            case AuctionCodec.TYPE_NEW_AUCTION:
+                hub.publish(id, FeedFrames.newAuction(id, codec.item(), update.getAmount(), now), false);
+                break;
+            case AuctionCodec.TYPE_BID:
+                // Only the latest price matters to a client that is behind
+                hub.publish(id, FeedFrames.bid(id, update.getBidder(), update.getAmount(), now), true);
+                break;
+            case AuctionCodec.TYPE_EXTENDED:
+                hub.publish(id, FeedFrames.extended(id, codec.endTime(), now), false);
+                break;
+            case AuctionCodec.TYPE_CLOSE:
+                hub.publish(id, FeedFrames.close(id, update.getBidder(), update.getAmount(), now), false);
+                break;
+            default:
+                // not an auction event
+        }
+    }
+
+    @Override
+    protected void takeDown() {
+        if (!subscribed.isEmpty()) {
+            ACLMessage cancel = new ACLMessage(ACLMessage.CANCEL);
+            for (AID s : subscribed) {
+                cancel.addReceiver(s);
+            }
+            send(cancel);
+        }
+        if (server != null) {
+            server.close();
+            System.out.println("[FEED] " + hub);
+        }
+        System.out.println("[FEED] Terminated.");
+    }
+}
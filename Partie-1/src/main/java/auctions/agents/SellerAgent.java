@@ -1,26 +1,159 @@
 package auctions.agents;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import auctions.http.AuctionSnapshotServer;
+import auctions.journal.BidJournal;
+import auctions.journal.JournalRecord;
+import auctions.journal.Snapshotter;
+import auctions.journal.SyncPolicy;
+import auctions.launcher.Readiness;
+import auctions.log.EventLog;
+import auctions.log.LogEvent;
+import auctions.metrics.AgentMetrics;
+import auctions.metrics.Counter;
+import auctions.models.Auction;
+import auctions.models.Bid;
+import auctions.models.Money;
+import auctions.models.PriceLadder;
+import auctions.utils.AdmissionControl;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionBroadcaster;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import auctions.utils.IngestStats;
+import auctions.utils.PriceConflator;
+import auctions.utils.ShardRouter;
+import auctions.utils.TimerWheel;
 import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
 import jade.domain.DFService;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
-import jade.domain.FIPAAgentManagement.SearchConstraints;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
 import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
 
 public class SellerAgent extends Agent {
-    private double currentHighest;
-    private AID guiAID;
+    // All live auctions hosted by this seller, keyed by Auction.getId()
+    // Concurrent: the HTTP snapshot threads read it too
+    private final Map<String, Auction> auctions = new ConcurrentHashMap<>();
+    private String latestAuctionId;
+    private final AgentDirectory buyers = new AgentDirectory("buyer");
+    private AuctionBroadcaster broadcaster;
+    // Sees every bidder, so interns more names per generation than a buyer
+    private final AuctionCodec codec = new AuctionCodec(1 << 16);
+
+    // Batched ingest: messages drained per activation, and auctions whose
+    // price changed during the current batch (broadcast once at its end)
+    private int batchSize;
+    private final Map<String, Auction> dirty = new LinkedHashMap<>();
+    // Auctions whose proxies must be re-resolved at the end of the batch
+    private final Map<String, Auction> proxied = new LinkedHashMap<>();
+    private final IngestStats stats = new IngestStats();
+    // At most one price update per auction per interval reaches subscribers
+    private PriceConflator conflator;
+    // Bids this close to the end push it back by the same amount
+    private long softCloseMs;
+    // Event log the auctions are rebuilt from after a restart; null if disabled
+    private BidJournal journal;
+    // Periodic copy of the live auctions, so recovery replays only the journal tail
+    private Snapshotter snapshotter;
+    // JSON view of the live auctions for dashboards; null if disabled
+    private AuctionSnapshotServer http;
+    // Prometheus counters, gauges and latencies, scraped from /metrics
+    private AgentMetrics metrics;
+    private Counter bidsAccepted, bidsRejected;
+    // Bids and proxies turned away while the mailbox is too deep, or dropped as stale from their header
+    private AdmissionControl admission;
+    private Counter admitted, admittedStale, admittedShed;
+    // Per-bid lines go through the async log, not printf on this thread
+    private final EventLog events = EventLog.global();
+
+    // The seller pool; each auction lives on the seller the ring gives it to
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private ShardRouter router;
+    // Auctions handed to another seller, so bids routed on a stale ring follow them
+    private final Map<String, Moved> moved = new HashMap<>();
+    // Bids for auctions that may still be on their way to us after a ring change
+    private final Map<String, List<ACLMessage>> parked = new HashMap<>();
+    private int parkedCount;
+    private long parkUntilMs;
+    private long handoffGraceMs;
+    private long handedOff, takenOver, forwarded, parkedTotal, droppedParked;
+
+    /** Conversation id of the expiry wake-ups the timer wheel posts to us. */
+    private static final String EXPIRY = "auction-expiry";
+    /** Conversation id of an auction moving to the seller that now owns it. */
+    private static final String HANDOFF = "auction-handoff";
+    private static final int MAX_PARKED = 10000;
+    // Sellers briefly disagreeing about the ring must not pass a message around forever
+    private static final String HOPS = "X-hops";
+    private static final int MAX_HOPS = 3;
+
+    // DF subscription notifications must not be consumed by the main behaviour
+    private static final MessageTemplate AUCTION_MESSAGES = MessageTemplate.or(
+        MessageTemplate.or(
+            MessageTemplate.or(
+                MessageTemplate.MatchPerformative(ACLMessage.REQUEST),
+                MessageTemplate.MatchPerformative(ACLMessage.PROPOSE)),
+            MessageTemplate.or(
+                MessageTemplate.MatchPerformative(ACLMessage.SUBSCRIBE),
+                MessageTemplate.MatchPerformative(ACLMessage.CANCEL))),
+        MessageTemplate.or(
+            MessageTemplate.MatchConversationId(EXPIRY),
+            MessageTemplate.MatchConversationId(HANDOFF)));
 
     @Override
     protected void setup() {
-        // Initialize state
-        currentHighest = 0.0;
+        AgentConfig config = new AgentConfig(getArguments());
+        batchSize = Math.max(1, config.getInt("batchSize", 256));
+        conflator = new PriceConflator(config.getLong("conflationMs", 50));
+        softCloseMs = Math.max(0, config.getLong("softCloseMs", 10000));
+        handoffGraceMs = Math.max(0, config.getLong("handoffGraceMs", 2000));
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+        metrics = new AgentMetrics(this, config.get("metricsHost", "localhost"),
+            config.getInt("metricsPort", AgentMetrics.DEFAULT_PORT));
+        bidsAccepted = metrics.counter("auction_bids_total", "Bids received, by outcome.", "result", "accepted");
+        bidsRejected = metrics.counter("auction_bids_total", "Bids received, by outcome.", "result", "rejected");
+        metrics.gauge("auction_live_auctions", "Auctions open on this seller.", auctions::size);
+        metrics.gauge("auction_parked_bids", "Bids held for auctions still being handed to us.", () -> parkedCount);
+        metrics.counter("auction_malformed_messages_total", "Text bids and proxies whose numbers did not parse.",
+            codec::getMalformed);
+
+        // Admission: shed bids above the high-water mark, until the mailbox is back to the low one.
+        // This is what bounds bid and proxy ingress. JADE's own mailbox stays unbounded on purpose:
+        // setQueueSize() drops the oldest message of any kind, auction requests, expiries and
+        // hand-offs included, while shedding only ever drops bids and proxies
+        int highWater = config.getInt("highWater", 20000);
+        admission = new AdmissionControl(highWater, config.getInt("lowWater", highWater / 2),
+            config.getLong("retryAfterMs", 500));
+        admitted      = metrics.counter("auction_admission_total", "Bids and proxies at admission, by outcome.",
+            "result", "admitted");
+        admittedStale = metrics.counter("auction_admission_total", "Bids and proxies at admission, by outcome.",
+            "result", "stale");
+        admittedShed  = metrics.counter("auction_admission_total", "Bids and proxies at admission, by outcome.",
+            "result", "shed");
+        metrics.gauge("auction_admission_shedding", "1 while bids are being shed.",
+            () -> admission.isShedding() ? 1 : 0);
+
+        // Rebuild the auctions of a previous run before taking new messages
+        if (config.getBoolean("journal", true)) {
+            openJournal(config);
+        }
+
         // Register as "seller" service
         try {
             DFAgentDescription dfd = new DFAgentDescription();
@@ -28,109 +161,597 @@ public class SellerAgent extends Agent {
             ServiceDescription sd = new ServiceDescription();
             sd.setType("seller");
             sd.setName(getLocalName() + "-service");
+            sd.addLanguages(AuctionCodec.BINARY_LANGUAGE);
             dfd.addServices(sd);
+            long t0 = System.nanoTime();
             DFService.register(this, dfd);
+            metrics.dfRequest("register").recordSince(t0);
         } catch (FIPAException fe) {}
 
-        // Main behavior: listen for NEW_AUCTION or BID
-        addBehaviour(new CyclicBehaviour(this) {
+        // Keep the buyer list up to date from DF notifications
+        addBehaviour(buyers.subscribe(this));
+        broadcaster = new AuctionBroadcaster(this, buyers, metrics);
+        metrics.directory(buyers);
+
+        // Follow the seller pool; auctions move when it changes
+        sellers.setOnChange(this::rebalance);
+        addBehaviour(sellers.subscribe(this));
+        metrics.directory(sellers);
+
+        // Dashboards poll JSON snapshots instead of subscribing. Port 0 (the default)
+        // picks a free one, so several sellers share a JVM; a negative port turns it off
+        int httpPort = config.getInt("httpPort", 0);
+        if (httpPort >= 0) {
+            String httpHost = config.get("httpHost", "localhost");
+            try {
+                http = new AuctionSnapshotServer(auctions, httpHost, httpPort, config.getInt("httpThreads", 2));
+                if (journal != null) http.setJournal(journal.getDirectory());
+                http.start();
+                System.out.println("[Seller] Auction snapshots on http://" + httpHost + ":" + http.getPort() + "/auctions");
+            } catch (IOException e) {
+                System.err.println("[Seller] HTTP snapshots unavailable: " + e);
+                http = null;
+            }
+        }
+
+        // Periodically report directory, broadcast and ingest counters
+        addBehaviour(new TickerBehaviour(this, 30000) {
+            @Override
+            protected void onTick() {
+                System.out.println("[Seller] " + buyers);
+                System.out.println("[Seller] " + broadcaster);
+                System.out.println("[Seller] " + stats);
+                System.out.println("[Seller] " + codec);
+                System.out.println("[Seller] " + admission);
+                System.out.println("[Seller] " + conflator);
+                System.out.println("[Seller] " + shardStats());
+                purgeMoved();
+                if (journal != null) System.out.println("[Seller] " + journal);
+                if (snapshotter != null) System.out.println("[Seller] " + snapshotter);
+                if (http != null) System.out.println("[Seller] " + http);
+                System.out.println("[Seller] " + events);
+            }
+        });
+
+        // Snapshot between batches; the file is written in the background
+        long snapshotMs = config.getLong("snapshotMs", 60000);
+        if (snapshotter != null && snapshotMs > 0) {
+            addBehaviour(new TickerBehaviour(this, snapshotMs) {
+                @Override
+                protected void onTick() {
+                    // Everything the snapshot covers must already be durable in the journal
+                    journal.sync();
+                    snapshotter.snapshot(auctions.values(), journal.getNextSeq() - 1, journal);
+                }
+            });
+        }
+
+        // Publish the latest price of every auction that changed this interval
+        if (conflator.isEnabled()) {
+            addBehaviour(metrics.timed("conflation", new TickerBehaviour(this, conflator.getIntervalMs()) {
+                @Override
+                protected void onTick() {
+                    conflator.drain(id -> publishPrice(auctions.get(id)));
+                }
+            }));
+        }
+
+        // Main behavior: drain up to batchSize NEW_AUCTION, BID and watcher
+        // (un)subscription messages, then broadcast each changed auction once
+        addBehaviour(metrics.timed("ingest", new CyclicBehaviour(this) {
             @Override
             public void action() {
-                ACLMessage msg = receive();
-                if (msg == null) {
-                    block();
+                int drained = 0;
+                boolean shedding = admission.update(getCurQueueSize(), System.currentTimeMillis());
+                // Shedding costs next to nothing per message: empty the backlog in one go, since
+                // JADE's other receivers rescan the whole mailbox at every arrival while it is deep
+                int limit = shedding ? Integer.MAX_VALUE : batchSize;
+                ACLMessage msg;
+                while (drained < limit && (msg = receive(AUCTION_MESSAGES)) != null) {
+                    drained++;
+                    metrics.received(msg);
+                    if (admit(msg, shedding)) {
+                        handleMessage(msg);
+                    }
+                    if (shedding && drained % batchSize == 0
+                            && !admission.update(getCurQueueSize(), System.currentTimeMillis())) {
+                        shedding = false;
+                        limit = drained + batchSize;
+                    }
+                }
+                if (parkedCount > 0 && System.currentTimeMillis() > parkUntilMs) {
+                    dropParked();
+                }
+                if (drained == 0) {
+                    if (parkedCount > 0) {
+                        block(Math.max(1, parkUntilMs - System.currentTimeMillis()));
+                    } else {
+                        block();
+                    }
                     return;
                 }
+                flushDirty();
+                // Group commit: one sync (per policy) for everything this batch wrote
+                if (journal != null) journal.commit();
+                stats.recordBatch(drained, getCurQueueSize());
+            }
+        }));
+
+        // Tell the launcher we can take auctions
+        Readiness.ready(this);
+    }
+
+    private void openJournal(AgentConfig config) {
+        Path dir = Paths.get(config.get("journalDir",
+            Paths.get(System.getProperty("java.io.tmpdir"), "auction-journal", getLocalName()).toString()));
+        try {
+            // A segment is one mapped buffer, so at most 2047 MB; BidJournal rejects more
+            long segmentMb = Math.min(config.getLong("journalSegmentMb", 64), Long.MAX_VALUE >> 20);
+            journal = new BidJournal(dir, segmentMb << 20,
+                SyncPolicy.parse(config.get("journalSync", null), SyncPolicy.BATCH),
+                config.getLong("journalSyncMs", 100));
+            long t0 = System.nanoTime();
+            // 1) Latest snapshot, if any
+            long fromSeq = 0;
+            if (config.getLong("snapshotMs", 60000) > 0) {
+                // Covered segments are the bid history: only dropped when asked to
+                snapshotter = new Snapshotter(dir, config.getBoolean("journalPrune", false));
+                fromSeq = snapshotter.restore(auctions) + 1;
+            }
+            // 2) Journal records written after it
+            long t1 = System.nanoTime();
+            long records = journal.recover(fromSeq, this::replay);
+            long t2 = System.nanoTime();
+            for (Auction auction : auctions.values()) {
+                scheduleExpiry(auction);   // ones that ended while we were down close right away
+            }
+            if (snapshotter != null) {
+                System.out.printf("[Seller] Loaded snapshot at seq %d (%d auctions) in %d ms%n",
+                    snapshotter.getRestoredSeq(), snapshotter.getRestoredAuctions(), (t1 - t0) / 1_000_000);
+            }
+            System.out.printf("[Seller] Replayed %d journal records from %s in %d ms, %d live auctions, "
+                    + "recovered in %d ms%n",
+                records, dir, (t2 - t1) / 1_000_000, auctions.size(), (t2 - t0) / 1_000_000);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[Seller] Journal unavailable, running without it: " + e);
+            journal = null;
+            snapshotter = null;
+        }
+    }
 
-                String[] parts = msg.getContent().split("\\|", 3);
-                String type = parts[0];
+    /** Apply one journal record to the in-memory auctions. */
+    private void replay(JournalRecord r) {
+        Auction auction = auctions.get(r.getAuctionId());
+        switch (r.getType()) {
+            case JournalRecord.NEW_AUCTION: {
+                double start = Money.toAmount(r.getCents());
+                Auction created = new Auction(r.getAuctionId(), r.getName(), start, start, r.getAux());
+                created.setFirstJournalSeq(r.getSeq());
+                auctions.put(r.getAuctionId(), created);
+                latestAuctionId = r.getAuctionId();
+                break;
+            }
+            case JournalRecord.BID:
+                if (auction != null) auction.getLadder().raiseIfHigher(r.getName(), r.getCents());
+                break;
+            case JournalRecord.PROXY:
+                if (auction != null) auction.getProxies().register(r.getName(), r.getCents());
+                break;
+            case JournalRecord.EXTENDED:
+                if (auction != null) auction.setEndTime(r.getAux());
+                break;
+            case JournalRecord.CLOSE:
+            case JournalRecord.HANDED_OFF:
+                auctions.remove(r.getAuctionId());
+                break;
+            default:
+                // unknown record type from a newer version
+        }
+    }
+
+    /**
+     * Append to the journal if there is one; a failed write is reported, not fatal.
+     *
+     * @return the record's sequence number, or 0 if nothing was written
+     */
+    private long journal(byte type, String auctionId, long cents, long aux, String name) {
+        if (journal == null) return 0;
+        try {
+            return journal.append(type, auctionId, cents, aux, name);
+        } catch (IOException e) {
+            System.err.println("[Seller] Journal write failed: " + e);
+            return 0;
+        }
+    }
+
+    /**
+     * Admission of one drained message. While shedding, bids and proxies
+     * are dropped undecoded, their senders told RETRY_AFTER (with the
+     * auction id for binary ones, whose header has it, without for text);
+     * otherwise binary bids below the
+     * auction's next minimum are dropped on their header alone, as
+     * {@link Auction#applyBid} would reject them anyway. Everything else
+     * passes.
+     */
+    private boolean admit(ACLMessage msg, boolean shedding) {
+        if (msg.getPerformative() != ACLMessage.PROPOSE) return true;
+        int type = AuctionCodec.peekType(msg);
+        if (shedding) {
+            admittedShed.inc();
+            if (!admission.shed(msg.getSender(), System.currentTimeMillis())) return false;
+            // Parsing a text bid for its id would cost what shedding is meant to save
+            String auctionId = type != AuctionCodec.TYPE_UNKNOWN ? codec.peekAuctionId(msg) : null;
+            ACLMessage reply = msg.createReply();
+            reply.setPerformative(ACLMessage.REJECT_PROPOSAL);
+            reply.setContent(AuctionProtocol.retryAfter(auctionId, admission.getRetryAfterMs()));
+            metrics.send(reply);
+            return false;
+        }
+        if (type == AuctionCodec.TYPE_BID) {
+            Auction auction = auctions.get(codec.peekAuctionId(msg));
+            if (auction != null && AuctionCodec.peekCents(msg) < auction.getLadder().minimumNextBid()) {
+                admission.recordStale();
+                admittedStale.inc();
+                stats.recordBid(false);
+                bidsRejected.inc();
+                return false;
+            }
+        }
+        admission.recordAdmitted();
+        admitted.inc();
+        return true;
+    }
 
-                switch (type) {
-                    case "NEW_AUCTION":
-                        handleNewAuction(msg.getSender(), parts[1], parts[2]);
-                        break;
+    private void handleMessage(ACLMessage msg) {
+        // Our own expiry wake-ups
+        if (EXPIRY.equals(msg.getConversationId())) {
+            if (getAID().equals(msg.getSender())) {
+                handleExpiry(msg.getContent());
+            }
+            return;
+        }
+        if (HANDOFF.equals(msg.getConversationId())) {
+            takeOver(msg);
+            return;
+        }
 
-                    case "BID":
-                        handleBid(parts[1], parts[2]);
-                        break;
+        // Watchers (GUIs) subscribe to the auction feed, naming their codec
+        if (msg.getPerformative() == ACLMessage.SUBSCRIBE) {
+            broadcaster.subscribe(msg.getSender(),
+                AuctionCodec.BINARY_LANGUAGE.equals(msg.getLanguage()));
+            return;
+        }
+        if (msg.getPerformative() == ACLMessage.CANCEL) {
+            broadcaster.unsubscribe(msg.getSender());
+            return;
+        }
 
-                    default:
-                        // ignore unknown
+        if (msg.getPerformative() == ACLMessage.REQUEST) {
+            // NEW_AUCTION|auctionId|price|item, or NEW_AUCTION|price|item
+            String[] req = AuctionProtocol.split(msg.getContent(), 4);
+            if (!AuctionProtocol.NEW_AUCTION.equals(req[0])) return;
+            if (req.length == 4 && AuctionCodec.isUuid(req[1])) {
+                // Started on a stale ring: pass it on to the owner
+                AID owner = router.route(req[1]);
+                if (owner != null && !owner.equals(getAID()) && hops(msg) < MAX_HOPS) {
+                    forward(msg, owner);
+                } else if (!auctions.containsKey(req[1])) {
+                    handleNewAuction(msg.getSender(), req[1], req[2], req[3]);
+                }
+            } else {
+                req = AuctionProtocol.split(msg.getContent(), 3);
+                if (req.length == 3) {
+                    handleNewAuction(msg.getSender(), null, req[1], req[2]);
                 }
             }
-        });
+            return;
+        }
+
+        // PROPOSE: bids and proxies in either encoding, decoded into a reused Bid
+        int type = codec.decode(msg);
+        String auctionId = codec.bid().getAuctionId();
+        if (auctionId != null && !auctions.containsKey(auctionId)
+                && (type == AuctionCodec.TYPE_BID || type == AuctionCodec.TYPE_PROXY)) {
+            notHere(msg, auctionId);
+            return;
+        }
+        switch (type) {
+            case AuctionCodec.TYPE_BID:
+                handleBid(codec.bid());
+                break;
+            case AuctionCodec.TYPE_PROXY:
+                handleProxy(codec.bid());
+                break;
+            default:
+                // ignore unknown
+        }
     }
 
-    private void handleNewAuction(AID sender, String priceStr, String itemName) {
-        // Reset state
-        currentHighest = Double.parseDouble(priceStr);
-        guiAID         = sender;
+    /**
+     * A bid for an auction we do not hold: follow it if we handed it off,
+     * hold it briefly if the ring just changed (the auction may be on its
+     * way to us), else drop it as before.
+     */
+    private void notHere(ACLMessage msg, String auctionId) {
+        Moved m = moved.get(auctionId);
+        if (m != null && hops(msg) < MAX_HOPS) {
+            forward(msg, m.owner);
+        } else if (System.currentTimeMillis() <= parkUntilMs && parkedCount < MAX_PARKED) {
+            parked.computeIfAbsent(auctionId, k -> new ArrayList<>()).add(msg);
+            parkedCount++;
+            parkedTotal++;
+        }
+    }
 
-        // Build broadcast message
-        String content = String.format("NEW_AUCTION|%s|%s", priceStr, itemName);
+    private static int hops(ACLMessage msg) {
+        String h = msg.getUserDefinedParameter(HOPS);
+        return h != null ? Integer.parseInt(h) : 0;
+    }
+
+    private void forward(ACLMessage msg, AID owner) {
+        ACLMessage copy = (ACLMessage) msg.clone();
+        copy.clearAllReceiver();
+        copy.addReceiver(owner);
+        copy.addUserDefinedParameter(HOPS, Integer.toString(hops(msg) + 1));
+        metrics.send(copy);   // keeps the original sender
+        forwarded++;
+    }
 
-        // Send to GUI (only sender) AND to all buyers
-        // 1) GUI
-        ACLMessage guiMsg = new ACLMessage(ACLMessage.INFORM);
-        guiMsg.addReceiver(guiAID);
-        guiMsg.setContent(content);
-        send(guiMsg);
+    private void dropParked() {
+        droppedParked += parkedCount;
+        parked.clear();
+        parkedCount = 0;
+    }
 
-        // 2) All buyers
-        for (AID buyer : findAll("buyer")) {
-            ACLMessage buyerMsg = new ACLMessage(ACLMessage.INFORM);
-            buyerMsg.addReceiver(buyer);
-            buyerMsg.setContent(content);
-            send(buyerMsg);
+    /**
+     * The seller pool changed: hand every auction the ring now gives to
+     * another seller over to it, and start the window in which bids for
+     * auctions coming our way are held.
+     */
+    private void rebalance() {
+        ShardRouter.Ring ring = router.current();
+        parkUntilMs = System.currentTimeMillis() + handoffGraceMs;
+        if (!ring.contains(getAID())) return;   // our own registration not seen yet
+        int count = 0;
+        for (Auction auction : new ArrayList<>(auctions.values())) {
+            AID owner = ring.owner(auction.getId());
+            if (!owner.equals(getAID())) {
+                handOff(auction, owner);
+                count++;
+            }
         }
+        System.out.printf("[Seller] Seller pool now %d, handed off %d auctions, %d live%n",
+            ring.size(), count, auctions.size());
+    }
 
-        System.out.printf("[Seller] Started auction \"%s\" at $%s%n", itemName, priceStr);
+    /** Move one auction, with its ladder, proxies and end time, to {@code owner}. */
+    private void handOff(Auction auction, AID owner) {
+        String auctionId = auction.getId();
+        // A price still held back by conflation goes out before we let go
+        if (conflator.discard(auctionId)) publishPrice(auction);
+        auctions.remove(auctionId);
+        dirty.remove(auctionId);
+        proxied.remove(auctionId);
+        long lastSeq = journal(JournalRecord.HANDED_OFF, auctionId, 0, 0, owner.getLocalName());
+        if (http != null) http.forget(auction, lastSeq);
+        moved.put(auctionId, new Moved(owner, auction.getEndTime() + handoffGraceMs));
+
+        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+        msg.addReceiver(owner);
+        msg.setConversationId(HANDOFF);
+        msg.setByteSequenceContent(Snapshotter.encode(auction));
+        metrics.send(msg);
+        handedOff++;
     }
 
-    private void handleBid(String bidder, String amountStr) {
-        double amount = Double.parseDouble(amountStr);
-        if (amount > currentHighest) {
-            currentHighest = amount;
-            // Broadcast new high bid to GUI + all buyers
-            String content = String.format("BID|%s|%s", bidder, amountStr);
+    /** Install an auction handed to us, then apply the bids that waited for it. */
+    private void takeOver(ACLMessage msg) {
+        Auction auction;
+        try {
+            auction = Snapshotter.decode(msg.getByteSequenceContent());
+        } catch (IOException e) {
+            System.err.println("[Seller] Bad handoff from " + msg.getSender().getLocalName() + ": " + e);
+            return;
+        }
+        String auctionId = auction.getId();
+        if (auctions.containsKey(auctionId)) return;
+        auctions.put(auctionId, auction);
+        moved.remove(auctionId);
+        takenOver++;
 
-            // GUI
-            ACLMessage guiMsg = new ACLMessage(ACLMessage.INFORM);
-            guiMsg.addReceiver(guiAID);
-            guiMsg.setContent(content);
-            send(guiMsg);
+        // Journal it as if it had started here, so a restart rebuilds the same ladder
+        PriceLadder.State s = auction.getLadder().snapshot();
+        auction.setFirstJournalSeq(journal(JournalRecord.NEW_AUCTION, auctionId,
+            auction.getLadder().getStartCents(), auction.getEndTime(), auction.getItem()));
+        for (int k = s.ladderSize() - 1; k >= 0; k--) {
+            journal(JournalRecord.BID, auctionId, s.amountAt(k), 0, s.bidderAt(k));
+        }
+        if (auction.getProxies().getLeader() != null) {
+            journal(JournalRecord.PROXY, auctionId, auction.getProxies().getLeaderMax(), 0,
+                auction.getProxies().getLeader());
+        }
+        if (auction.getProxies().getRunnerUp() != null) {
+            journal(JournalRecord.PROXY, auctionId, auction.getProxies().getRunnerUpMax(), 0,
+                auction.getProxies().getRunnerUp());
+        }
+        scheduleExpiry(auction);
 
-            // Buyers
-            for (AID buyer : findAll("buyer")) {
-                ACLMessage buyerMsg = new ACLMessage(ACLMessage.INFORM);
-                buyerMsg.addReceiver(buyer);
-                buyerMsg.setContent(content);
-                send(buyerMsg);
+        List<ACLMessage> waiting = parked.remove(auctionId);
+        if (waiting != null) {
+            parkedCount -= waiting.size();
+            for (ACLMessage bid : waiting) {
+                handleMessage(bid);
             }
+        }
+    }
 
-            System.out.printf("[Seller] New high bid by %s: $%.2f%n", bidder, amount);
+    /** Forget forwarding entries of auctions that are over anyway. */
+    private void purgeMoved() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Moved> it = moved.values().iterator(); it.hasNext(); ) {
+            if (it.next().untilMs < now) it.remove();
         }
     }
 
-    /** Utility: query DF for all agents offering the given service type. */
-    private List<AID> findAll(String serviceType) {
-        List<AID> result = new ArrayList<>();
+    private String shardStats() {
+        return String.format("%s; %d auctions handed off, %d taken over, %d messages forwarded, "
+                + "%d parked (%d dropped)",
+            router, handedOff, takenOver, forwarded, parkedTotal, droppedParked);
+    }
+
+    private void handleNewAuction(AID sender, String auctionId, String priceStr, String itemName) {
+        double startPrice;
         try {
-            DFAgentDescription template = new DFAgentDescription();
-            ServiceDescription sd = new ServiceDescription();
-            sd.setType(serviceType);
-            template.addServices(sd);
+            startPrice = Double.parseDouble(priceStr);
+        } catch (NumberFormatException e) {
+            System.err.println("[Seller] Ignoring NEW_AUCTION with a malformed price: " + priceStr);
+            return;
+        }
+        Auction auction = auctionId != null
+            ? new Auction(auctionId, itemName, startPrice, startPrice, System.currentTimeMillis() + Auction.DURATION_MS)
+            : new Auction(itemName, startPrice, startPrice);
+        auctions.put(auction.getId(), auction);
+        latestAuctionId = auction.getId();
+        auction.setFirstJournalSeq(journal(JournalRecord.NEW_AUCTION, auction.getId(),
+            Money.toCents(startPrice), auction.getEndTime(), itemName));
+
+        // The requesting GUI always watches the auction it started
+        broadcaster.subscribe(sender);
 
-            // No limit on results
-            SearchConstraints sc = new SearchConstraints();
-            sc.setMaxResults(Long.MAX_VALUE);
+        // One message to the GUI(s) and all buyers
+        broadcaster.publishNewAuction(auction.getId(), Money.toCents(startPrice), auction.getEndTime(), itemName);
+        scheduleExpiry(auction);
+
+        events.log(LogEvent.AUCTION_STARTED, getLocalName(), itemName, auction.getId(),
+            Money.toCents(startPrice), auctions.size());
+    }
+
+    private void handleBid(Bid bid) {
+        if (bid.getAuctionId() == null) {
+            bid.setAuctionId(latestAuctionId);   // legacy bid without auction id
+        }
+        Auction auction = bid.getAuctionId() != null ? auctions.get(bid.getAuctionId()) : null;
+        if (auction == null || auction.hasEnded()) return;   // unknown, not started or over
+
+        // Every bid is applied in arrival order; only the broadcast is deferred
+        boolean accepted = auction.applyBid(bid);
+        stats.recordBid(accepted);
+        (accepted ? bidsAccepted : bidsRejected).inc();
+        if (accepted) {
+            journal(JournalRecord.BID, auction.getId(), bid.getAmountCents(), 0, bid.getBidder());
+            dirty.put(auction.getId(), auction);
+            events.log(LogEvent.BID_ACCEPTED, getLocalName(), auction.getItem(), bid.getBidder(),
+                bid.getAmountCents(), 0);
+        }
+    }
+
+    private void handleProxy(Bid proxy) {
+        Auction auction = proxy.getAuctionId() != null ? auctions.get(proxy.getAuctionId()) : null;
+        if (auction == null || auction.hasEnded()) return;
+
+        // Only record the maximum here; all proxies are resolved once per batch
+        stats.recordProxy();
+        if (auction.registerProxy(proxy)) {
+            journal(JournalRecord.PROXY, auction.getId(), proxy.getAmountCents(), 0, proxy.getBidder());
+            proxied.put(auction.getId(), auction);
+        }
+    }
 
-            DFAgentDescription[] matches = DFService.search(this, template, sc);
-            for (DFAgentDescription d : matches) {
-                result.add(d.getName());
+    /**
+     * Let proxies answer this batch's bids, then hand every auction that
+     * changed to the conflation stage, which either publishes it now or at
+     * the next tick.
+     */
+    private void flushDirty() {
+        // A manual raise may be answered by a proxy
+        for (Auction auction : dirty.values()) {
+            if (!auction.getProxies().isEmpty()) {
+                proxied.put(auction.getId(), auction);
             }
-        } catch (FIPAException e) {}
-        return result;
+        }
+        for (Auction auction : proxied.values()) {
+            if (auction.resolveProxies()) {
+                stats.recordProxyRaise();
+                journal(JournalRecord.BID, auction.getId(), auction.getCurrentPriceCents(), 0,
+                    auction.getLadder().getLeader());
+                dirty.put(auction.getId(), auction);
+                events.log(LogEvent.PROXY_LEADS, getLocalName(), auction.getItem(), auction.getWinningBidder(),
+                    auction.getCurrentPriceCents(), 0);
+            }
+        }
+        proxied.clear();
+
+        long now = System.currentTimeMillis();
+        for (Auction auction : dirty.values()) {
+            if (conflator.offer(auction.getId())) {
+                publishPrice(auction);
+            }
+            // Anti-sniping: a raise in the closing window extends the auction
+            if (auction.extendIfClosing(now, softCloseMs)) {
+                journal(JournalRecord.EXTENDED, auction.getId(), 0, auction.getEndTime(), null);
+                broadcaster.publishExtended(auction.getId(), auction.getEndTime());
+                events.log(LogEvent.AUCTION_EXTENDED, getLocalName(), auction.getItem(), softCloseMs / 1000);
+            }
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Wake up when the auction is due to end. Soft-close extensions do not
+     * move the timer: when it fires early we just schedule the remainder.
+     */
+    private void scheduleExpiry(Auction auction) {
+        String auctionId = auction.getId();
+        long delay = Math.max(0, auction.getEndTime() - System.currentTimeMillis());
+        TimerWheel.shared().schedule(delay, () -> {
+            ACLMessage wake = new ACLMessage(ACLMessage.INFORM);
+            wake.setSender(getAID());
+            wake.setConversationId(EXPIRY);
+            wake.setContent(auctionId);
+            postMessage(wake);
+        });
+    }
+
+    private void handleExpiry(String auctionId) {
+        Auction auction = auctions.get(auctionId);
+        if (auction == null) return;
+        if (!auction.hasEnded()) {
+            scheduleExpiry(auction);   // extended since the timer was set
+            return;
+        }
+        closeAuction(auction);
+    }
+
+    /**
+     * Settle and remove an auction, then send the one authoritative CLOSE.
+     * It supersedes any price update still waiting in this batch or in the
+     * conflation stage.
+     */
+    private void closeAuction(Auction auction) {
+        String auctionId = auction.getId();
+        if (auction.resolveProxies()) {
+            journal(JournalRecord.BID, auctionId, auction.getCurrentPriceCents(), 0,
+                auction.getLadder().getLeader());
+        }
+        auctions.remove(auctionId);
+        dirty.remove(auctionId);
+        proxied.remove(auctionId);
+        conflator.discard(auctionId);
+
+        PriceLadder.State s = auction.getLadder().snapshot();
+        long lastSeq = journal(JournalRecord.CLOSE, auctionId, s.priceCents, 0, s.leader);
+        if (http != null) http.forget(auction, lastSeq);
+        broadcaster.publishClose(auctionId, s.leader, s.priceCents);
+        events.log(LogEvent.AUCTION_CLOSED, getLocalName(), auction.getItem(), s.leader,
+            s.priceCents, auctions.size());
+    }
+
+    /** Broadcast the current high bid of one auction. */
+    private void publishPrice(Auction auction) {
+        if (auction == null) return;
+        PriceLadder.State s = auction.getLadder().snapshot();
+        broadcaster.publishBid(auction.getId(), s.leader, s.priceCents);
+        stats.recordBroadcast();
     }
 
     @Override
@@ -138,6 +759,48 @@ public class SellerAgent extends Agent {
         try {
             DFService.deregister(this);
         } catch (FIPAException fe) {}
+        // Leaving the pool: the remaining sellers take our live auctions
+        ShardRouter.Ring rest = router.without(getAID());
+        if (rest.size() > 0) {
+            for (Auction auction : new ArrayList<>(auctions.values())) {
+                handOff(auction, rest.owner(auction.getId()));
+            }
+        }
+        System.out.println("[Seller] " + buyers);
+        System.out.println("[Seller] " + broadcaster);
+        System.out.println("[Seller] " + stats);
+        System.out.println("[Seller] " + admission);
+        System.out.println("[Seller] " + conflator);
+        System.out.println("[Seller] " + shardStats());
+        System.out.println("[Seller] " + events);
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("[Seller] Journal close failed: " + e);
+            }
+            System.out.println("[Seller] " + journal);
+        }
+        if (snapshotter != null) {
+            snapshotter.close();   // let a snapshot in progress finish
+            System.out.println("[Seller] " + snapshotter);
+        }
+        if (http != null) {
+            http.close();
+            System.out.println("[Seller] " + http);
+        }
+        metrics.close();
         System.out.println("[Seller] Shutting down.");
     }
+
+    /** Where a handed-off auction went, and until when to forward to it. */
+    private static final class Moved {
+        final AID owner;
+        final long untilMs;
+
+        Moved(AID owner, long untilMs) {
+            this.owner   = owner;
+            this.untilMs = untilMs;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package auctions.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import auctions.utils.PriceConflator;
+
+/**
+ * Message reduction vs. update staleness of {@link PriceConflator} under a
+ * synthetic bidding storm, on a simulated clock (deterministic, runs in
+ * milliseconds of real time).
+ *
+ * Every bid is accepted (a storm of raises), spread randomly over the
+ * auctions. Staleness is the time from a bid's acceptance until a broadcast
+ * carrying that price or a newer one leaves the seller.
+ *
+ * Usage: java -cp target/classes auctions.bench.ConflationBenchmark [auctions] [bidsPerSec] [seconds]
+ */
+public class ConflationBenchmark {
+    private static final long[] INTERVALS_MS = {0, 10, 25, 50, 100, 250};
+
+    public static void main(String[] args) {
+        int auctions    = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int bidsPerSec  = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int seconds     = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        System.out.printf("Storm: %d auctions, %d bids/s, %d s simulated%n%n",
+            auctions, bidsPerSec, seconds);
+        System.out.printf("%-10s %12s %12s %10s %14s %14s%n",
+            "interval", "bids", "broadcasts", "saved", "staleness avg", "staleness p99");
+
+        for (long interval : INTERVALS_MS) {
+            run(interval, auctions, bidsPerSec, seconds);
+        }
+    }
+
+    private static void run(long intervalMs, int auctions, int bidsPerSec, int seconds) {
+        Random rng = new Random(42);   // same storm for every interval
+        PriceConflator conflator = new PriceConflator(intervalMs);
+
+        // Acceptance times (in microseconds) not yet covered by a broadcast, per auction
+        List<List<Long>> waiting = new ArrayList<>();
+        for (int a = 0; a < auctions; a++) {
+            waiting.add(new ArrayList<>());
+        }
+        long[] staleness = new long[(int) Math.min(Integer.MAX_VALUE - 8, (long) bidsPerSec * seconds)];
+        int[] recorded = {0};
+        long[] broadcasts = {0};
+
+        long endUs = seconds * 1_000_000L;
+        long intervalUs = intervalMs * 1000;
+        long nextTickUs = intervalUs;
+        double meanGapUs = 1_000_000.0 / bidsPerSec;
+        long nowUs = 0;
+        long bids = 0;
+
+        while (true) {
+            nowUs += (long) (-Math.log(1 - rng.nextDouble()) * meanGapUs);
+            // Conflation ticks that fall before this bid
+            while (intervalUs > 0 && nextTickUs <= Math.min(nowUs, endUs)) {
+                long tick = nextTickUs;
+                conflator.drain(id -> {
+                    List<Long> w = waiting.get(Integer.parseInt(id));
+                    for (long acceptedAt : w) {
+                        staleness[recorded[0]++] = tick - acceptedAt;
+                    }
+                    w.clear();
+                    broadcasts[0]++;
+                });
+                nextTickUs += intervalUs;
+            }
+            if (nowUs >= endUs || bids == staleness.length) break;
+
+            int auction = rng.nextInt(auctions);
+            bids++;
+            waiting.get(auction).add(nowUs);
+            if (conflator.offer(Integer.toString(auction))) {
+                // Published immediately: zero staleness
+                waiting.get(auction).clear();
+                staleness[recorded[0]++] = 0;
+                broadcasts[0]++;
+            }
+        }
+
+        long[] sorted = Arrays.copyOf(staleness, recorded[0]);
+        Arrays.sort(sorted);
+        double avgMs = 0;
+        for (long s : sorted) avgMs += s;
+        avgMs = sorted.length == 0 ? 0 : avgMs / sorted.length / 1000.0;
+        double p99Ms = sorted.length == 0 ? 0 : sorted[(int) (sorted.length * 0.99)] / 1000.0;
+
+        System.out.printf("%-10s %12d %12d %9.1f%% %11.2f ms %11.2f ms%n",
+            intervalMs == 0 ? "off" : intervalMs + " ms", bids, broadcasts[0],
+            100.0 * (bids - broadcasts[0]) / bids, avgMs, p99Ms);
+    }
+}
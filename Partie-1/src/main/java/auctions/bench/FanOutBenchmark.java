@@ -0,0 +1,84 @@
+package auctions.bench;
+
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.LEAPACLCodec;
+
+/**
+ * Compares the serialization cost of broadcasting one BID update:
+ *  - per-receiver: one ACLMessage built and encoded for every buyer (old behaviour)
+ *  - multi-receiver: one ACLMessage addressed to every buyer (AuctionBroadcaster)
+ *
+ * Encoding uses the LEAP codec JADE applies to inter-container traffic.
+ * This measures serialization only: no message is sent, so neither the
+ * platform's dispatch nor the per-receiver delivery it still does for a
+ * multi-receiver message is included, and the figures are not the cost
+ * of getting the update to every buyer.
+ * Runs outside the JADE runtime: java -cp target/classes:lib/jade.jar auctions.bench.FanOutBenchmark
+ */
+public class FanOutBenchmark {
+    private static final int[] BUYER_COUNTS = {10, 1_000, 10_000};
+    private static final String CONTENT = "BID|buyer42|1234.56";
+
+    private static final LEAPACLCodec codec = new LEAPACLCodec();
+    private static long sink;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-16s %16s %14s%n",
+            "buyers", "mode", "encode ns/bid", "bytes/bid");
+
+        for (int n : BUYER_COUNTS) {
+            AID[] buyers = new AID[n];
+            for (int i = 0; i < n; i++) {
+                buyers[i] = new AID("buyer" + i + "@localhost:1099/JADE", AID.ISGUID);
+            }
+            int iterations = Math.max(20, 2_000_000 / n);
+
+            // Warm up both paths before measuring
+            for (int i = 0; i < iterations; i++) {
+                perReceiver(buyers);
+                multiReceiver(buyers);
+            }
+
+            report(n, "per-receiver", iterations, () -> perReceiver(buyers));
+            report(n, "multi-receiver", iterations, () -> multiReceiver(buyers));
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /** Old SellerAgent behaviour: one message per buyer. */
+    private static long perReceiver(AID[] buyers) {
+        long bytes = 0;
+        for (AID b : buyers) {
+            ACLMessage m = new ACLMessage(ACLMessage.INFORM);
+            m.addReceiver(b);
+            m.setContent(CONTENT);
+            bytes += codec.encode(m, null).length;
+        }
+        return bytes;
+    }
+
+    /** AuctionBroadcaster behaviour: one message for all buyers. */
+    private static long multiReceiver(AID[] buyers) {
+        ACLMessage m = new ACLMessage(ACLMessage.INFORM);
+        for (AID b : buyers) {
+            m.addReceiver(b);
+        }
+        m.setContent(CONTENT);
+        return codec.encode(m, null).length;
+    }
+
+    private interface Op { long run(); }
+
+    private static void report(int n, String mode, int iterations, Op op) {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += bytes;
+        System.out.printf("%-8d %-16s %16.0f %14d%n",
+            n, mode, (double) elapsed / iterations, bytes / iterations);
+    }
+}
@@ -0,0 +1,163 @@
+package auctions.bench;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+
+import auctions.feed.FeedFrames;
+import auctions.feed.FeedHub;
+import auctions.feed.FeedServer;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+
+/**
+ * Load test of the WebSocket feed on localhost: a {@link FeedServer} with
+ * 5k connected clients by default, fed a stream of auction events at a
+ * fixed rate, as the gateway agent would publish them.
+ *
+ * Reports connect time, the publisher's fan-out cost per event, frames
+ * delivered against frames published x clients (the gap being conflated
+ * or dropped prices), and delivery latency from publish to client.
+ *
+ * Each socket is one file descriptor on either side, so raise ulimit -n
+ * above twice the client count.
+ *
+ * Usage: java -cp target/classes:... auctions.bench.FeedLoadTest [clients] [events] [eventsPerSec] [auctions] [queue] [senders]
+ */
+public class FeedLoadTest {
+    public static void main(String[] args) throws Exception {
+        int clients  = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int events   = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int rate     = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int auctions = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int queue    = args.length > 4 ? Integer.parseInt(args[4]) : 256;
+        int senders  = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+
+        FeedHub hub = new FeedHub(queue, senders);
+        FeedServer server = new FeedServer("localhost", 8025, hub);
+        server.start();
+        URI uri = URI.create(server.getUri());
+        System.out.printf("%d clients, %d events at %d/s over %d auctions, queue %d, on %s%n%n",
+            clients, events, rate, auctions, queue, uri);
+
+        // 1) Connect every client through one shared client container
+        ClientManager manager = ClientManager.createClient();
+        manager.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+        LongAdder received = new LongAdder();
+        AtomicInteger closesSeen = new AtomicInteger();
+        AtomicLongArray latencyMs = new AtomicLongArray(10_001);   // 1 ms buckets, the last one 10 s or more
+        List<Session> sessions = new ArrayList<>(clients);
+        long t0 = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            sessions.add(manager.connectToServer(new Counter(received, closesSeen, latencyMs),
+                ClientEndpointConfig.Builder.create().build(), uri));
+        }
+        long connectMs = (System.nanoTime() - t0) / 1_000_000;
+        while (hub.getClients() < clients) {
+            Thread.sleep(10);
+        }
+        System.out.printf("Connected %d clients in %d ms%n", clients, connectMs);
+
+        // 2) Publish: open every auction, bids round-robin, then close them all
+        String[] ids = new String[auctions];
+        for (int a = 0; a < auctions; a++) {
+            ids[a] = UUID.randomUUID().toString();
+            hub.publish(ids[a], FeedFrames.newAuction(ids[a], "item " + a, 100.0, System.currentTimeMillis()), false);
+        }
+        long intervalNs = 1_000_000_000L / Math.max(1, rate);
+        long publishNs = 0;
+        long next = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);   // no spinning: clients share the CPU
+            next += intervalNs;
+            String id = ids[i % auctions];
+            long p0 = System.nanoTime();
+            hub.publish(id, FeedFrames.bid(id, "buyer" + (i % 64), 100.0 + i, System.currentTimeMillis()), true);
+            publishNs += System.nanoTime() - p0;
+        }
+        for (String id : ids) {
+            hub.publish(id, FeedFrames.close(id, "buyer1", 100.0 + events, System.currentTimeMillis()), false);
+        }
+
+        // 3) Wait for the close frames to arrive everywhere
+        long deadline = System.currentTimeMillis() + 30_000;
+        int expectedCloses = (clients - (int) hub.getSlowClosed()) * auctions;
+        while (closesSeen.get() < expectedCloses && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        long wallMs = (System.nanoTime() - t0) / 1_000_000 - connectMs;
+
+        long published = (long) (events + 2 * auctions) * clients;
+        System.out.printf("Publish: %.1f us per event fanned out to %d clients%n",
+            publishNs / 1000.0 / events, clients);
+        System.out.printf("Frames: %d received of %d published x clients (%.1f%%), %d conflated, "
+                + "%d dropped, %d slow clients closed, in %d ms%n",
+            received.sum(), published, received.sum() * 100.0 / published, hub.getConflated(),
+            hub.getDropped(), hub.getSlowClosed(), wallMs);
+        System.out.printf("Latency: p50 %s, p99 %s, p99.9 %s, max %s%n",
+            percentile(latencyMs, 0.50), percentile(latencyMs, 0.99), percentile(latencyMs, 0.999),
+            percentile(latencyMs, 1.0));
+
+        for (Session s : sessions) {
+            if (s.isOpen()) s.close();
+        }
+        server.close();
+        manager.shutdown();
+    }
+
+    private static String percentile(AtomicLongArray histogram, double p) {
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) total += histogram.get(i);
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && histogram.get(i) > 0) {
+                return i == histogram.length() - 1 ? ">= 10000 ms" : i + " ms";
+            }
+        }
+        return "-";
+    }
+
+    /** Counts frames and records how long each took since it was published. */
+    private static final class Counter extends Endpoint {
+        private final LongAdder received;
+        private final AtomicInteger closesSeen;
+        private final AtomicLongArray latencyMs;
+
+        Counter(LongAdder received, AtomicInteger closesSeen, AtomicLongArray latencyMs) {
+            this.received = received;
+            this.closesSeen = closesSeen;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+            session.addMessageHandler(String.class, (MessageHandler.Whole<String>) frame -> {
+                received.increment();
+                int at = frame.lastIndexOf("\"ts\":");
+                if (at >= 0) {
+                    int end = frame.indexOf('}', at);
+                    long ts = Long.parseLong(frame.substring(at + 5, end));
+                    long ms = Math.max(0, System.currentTimeMillis() - ts);
+                    latencyMs.incrementAndGet((int) Math.min(ms, latencyMs.length() - 1));
+                }
+                if (frame.startsWith("{\"type\":\"close\"")) {
+                    closesSeen.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package auctions.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import auctions.journal.BidJournal;
+import auctions.journal.JournalRecord;
+import auctions.journal.Snapshotter;
+import auctions.journal.SyncPolicy;
+import auctions.models.Auction;
+
+/**
+ * Write throughput of {@link BidJournal} under each sync policy, and the time
+ * to rebuild the auctions from it, at 10M bids by default: from the whole
+ * journal, and from a {@link Snapshotter} snapshot plus the journal tail.
+ *
+ * Bids are spread over a fixed set of auctions with rising amounts, and the
+ * journal is committed every {@code batch} records like the seller does once
+ * per drained batch. ALWAYS syncs every record and is measured on a short
+ * run only.
+ *
+ * Usage: java -cp target/classes auctions.bench.JournalBenchmark [bids] [auctions] [batch] [dir]
+ */
+public class JournalBenchmark {
+    private static final long SEGMENT_BYTES = 64L << 20;
+    private static final int  ALWAYS_RECORDS = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        int bids     = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int auctions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int batch    = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        Path base    = args.length > 3 ? Path.of(args[3]) : Files.createTempDirectory("journal-bench");
+
+        String[] ids = new String[auctions];
+        for (int a = 0; a < auctions; a++) {
+            ids[a] = UUID.randomUUID().toString();
+        }
+        String[] bidders = new String[64];
+        for (int b = 0; b < bidders.length; b++) {
+            bidders[b] = "buyer" + b;
+        }
+
+        System.out.printf("%d bids over %d auctions, commit every %d records, %d MB segments, in %s%n%n",
+            bids, auctions, batch, SEGMENT_BYTES >> 20, base);
+        System.out.printf("%-10s %12s %14s %10s %10s%n", "policy", "records", "records/s", "MB/s", "syncs");
+
+        Path full = null;
+        for (SyncPolicy policy : SyncPolicy.values()) {
+            int n = policy == SyncPolicy.ALWAYS ? Math.min(bids, ALWAYS_RECORDS) : bids;
+            Path dir = base.resolve(policy.name().toLowerCase());
+            write(dir, policy, n, ids, bidders, batch);
+            if (policy == SyncPolicy.BATCH) {
+                full = dir;
+            } else {
+                deleteTree(dir);
+            }
+        }
+
+        // Recovery: replay the BATCH journal into Auction objects, as the seller does
+        Map<String, Auction> live = new HashMap<>();
+        long t0 = System.nanoTime();
+        BidJournal journal = new BidJournal(full, SEGMENT_BYTES, SyncPolicy.BATCH, 100);
+        long replayed = journal.recover(0, r -> replay(live, r));
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        System.out.printf("%nRecovery: %d records, %d auctions rebuilt in %d ms (%.0f records/s)%n",
+            replayed, live.size(), ms, replayed * 1000.0 / Math.max(1, ms));
+
+        // Snapshot what was rebuilt, then add a 1% tail of bids after it
+        Snapshotter snapshotter = new Snapshotter(full, true);
+        snapshotter.snapshot(live.values(), journal.getNextSeq() - 1, journal);
+        snapshotter.close();
+        int tail = Math.max(1, bids / 100);
+        for (int i = 0; i < tail; i++) {
+            journal.append(JournalRecord.BID, ids[i % ids.length], 200_00 + i, 0, bidders[i & (bidders.length - 1)]);
+        }
+        journal.close();
+        System.out.printf("Snapshot: %d bytes, captured in %d us, written in %d ms, %d segments dropped%n",
+            snapshotter.getLastBytes(), snapshotter.getLastCaptureMicros(), snapshotter.getLastWriteMs(),
+            snapshotter.getLastSegmentsDeleted());
+
+        Map<String, Auction> restored = new HashMap<>();
+        t0 = System.nanoTime();
+        snapshotter = new Snapshotter(full);
+        long seq = snapshotter.restore(restored);
+        journal = new BidJournal(full, SEGMENT_BYTES, SyncPolicy.BATCH, 100);
+        replayed = journal.recover(seq + 1, r -> replay(restored, r));
+        ms = (System.nanoTime() - t0) / 1_000_000;
+        journal.close();
+        System.out.printf("Recovery from snapshot: %d auctions in %d ms, then %d tail records, %d ms in total%n",
+            restored.size(), snapshotter.getRestoreMs(), replayed, ms);
+
+        deleteTree(base);
+    }
+
+    private static void replay(Map<String, Auction> live, JournalRecord r) {
+        switch (r.getType()) {
+            case JournalRecord.NEW_AUCTION:
+                live.put(r.getAuctionId(), new Auction(r.getAuctionId(), r.getName(),
+                    r.getCents() / 100.0, r.getCents() / 100.0, r.getAux()));
+                break;
+            case JournalRecord.BID:
+                live.get(r.getAuctionId()).getLadder().raiseIfHigher(r.getName(), r.getCents());
+                break;
+            default:
+        }
+    }
+
+    private static void write(Path dir, SyncPolicy policy, int n, String[] ids, String[] bidders, int batch)
+            throws IOException {
+        BidJournal journal = new BidJournal(dir, SEGMENT_BYTES, policy, 100);
+        journal.recover(0, null);
+        long end = System.currentTimeMillis() + Auction.DURATION_MS;
+
+        long t0 = System.nanoTime();
+        for (String id : ids) {
+            journal.append(JournalRecord.NEW_AUCTION, id, 100_00, end, "item " + id.substring(0, 8));
+        }
+        for (int i = 0; i < n; i++) {
+            int a = i % ids.length;
+            journal.append(JournalRecord.BID, ids[a], 100_00 + i / ids.length + 1, 0,
+                bidders[i & (bidders.length - 1)]);
+            if ((i + 1) % batch == 0) {
+                journal.commit();
+            }
+        }
+        journal.close();
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        long records = n + ids.length;
+        System.out.printf("%-10s %12d %14.0f %10.1f %10d%n", policy, records, records / secs,
+            records * BidJournal.RECORD_SIZE / secs / (1 << 20), journal.getSyncs());
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
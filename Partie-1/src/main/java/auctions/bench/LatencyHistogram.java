@@ -0,0 +1,99 @@
+package auctions.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in nanoseconds with about 3% precision, safe to
+ * record into from any number of threads.
+ *
+ * Buckets are log-linear: exact below 64 ns, then 32 buckets per power
+ * of two, so memory is fixed (1248 counters, up to about two hours)
+ * and p99.9 stays as accurate as p50. Recording is one array increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;                   // 32 buckets per power of two
+    private static final int LINEAR = 2 << SUB_BITS;         // exact below 64
+    private static final int MAX_SHIFT = 37;                 // up to 2^43 ns, about 2.4 h
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + MAX_SHIFT * (1 << SUB_BITS));
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(index(v));
+        total.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    private static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(v) - SUB_BITS);
+        long sub = Math.min(v >>> shift, LINEAR - 1);   // 32..63
+        return LINEAR + (shift - 1) * (1 << SUB_BITS) + (int) (sub - (1 << SUB_BITS));
+    }
+
+    /** Largest value that falls into bucket {@code i}. */
+    private static long upperBound(int i) {
+        if (i < LINEAR) return i;
+        int shift = (i - LINEAR) / (1 << SUB_BITS) + 1;
+        long sub = (i - LINEAR) % (1 << SUB_BITS) + (1 << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /** Value at quantile {@code q} (0..1), in ns; the bucket's upper bound, never above the max. */
+    public long percentile(double q) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    public long getCount()   { return total.sum(); }
+    public long getMaxNanos() { return max.get(); }
+    public double getMeanNanos() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /** count, mean, p50, p99, p99.9 and max in milliseconds, for a report. */
+    public Map<String, Object> summaryMs() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", getCount());
+        m.put("mean", ms(getMeanNanos()));
+        m.put("p50", ms(percentile(0.50)));
+        m.put("p99", ms(percentile(0.99)));
+        m.put("p999", ms(percentile(0.999)));
+        m.put("max", ms(getMaxNanos()));
+        return m;
+    }
+
+    private static double ms(double nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;   // microsecond resolution
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+            getCount(), percentile(0.50) / 1e6, percentile(0.99) / 1e6, percentile(0.999) / 1e6,
+            getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,88 @@
+package auctions.bench;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import auctions.launcher.Readiness;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import auctions.utils.ShardRouter;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+/**
+ * Keeps a fixed number of auctions open for a {@link LoadGenerator} run:
+ * starts them on their owning sellers once the seller pool is known, and
+ * starts a new one whenever one of them closes.
+ *
+ * Arguments (key=value): auctions, startPrice.
+ */
+public class LoadAuctioneerAgent extends Agent {
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private final Set<AID> subscribed = new LinkedHashSet<>();
+    private final Set<String> open = new HashSet<>();
+    private final AuctionCodec codec = new AuctionCodec();
+    private ShardRouter router;
+    private int target;
+    private double startPrice;
+    private int started;
+
+    @Override
+    protected void setup() {
+        AgentConfig config = new AgentConfig(getArguments());
+        target = Math.max(1, config.getInt("auctions", 20));
+        startPrice = config.getDouble("startPrice", 100.0);
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+
+        sellers.setOnChange(() -> {
+            for (AID s : sellers.members()) {
+                if (subscribed.add(s)) {
+                    ACLMessage sub = new ACLMessage(ACLMessage.SUBSCRIBE);
+                    sub.addReceiver(s);
+                    sub.setLanguage(AuctionCodec.BINARY_LANGUAGE);
+                    send(sub);
+                }
+            }
+            while (open.size() < target && sellers.size() > 0) {
+                startAuction();
+            }
+        });
+        addBehaviour(sellers.subscribe(this));
+
+        MessageTemplate notFromDF = MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF()));
+        addBehaviour(new CyclicBehaviour(this) {
+            @Override
+            public void action() {
+                ACLMessage msg = receive(notFromDF);
+                if (msg == null) {
+                    block();
+                    return;
+                }
+                if (codec.decode(msg) == AuctionCodec.TYPE_CLOSE && open.remove(codec.bid().getAuctionId())) {
+                    if (LoadStats.recording()) LoadStats.auctionsRun.increment();
+                    startAuction();
+                }
+            }
+        });
+
+        Readiness.ready(this);
+    }
+
+    private void startAuction() {
+        String auctionId = UUID.randomUUID().toString();
+        AID owner = router.route(auctionId);
+        if (owner == null) return;   // no seller left; the next pool change refills
+        ACLMessage req = new ACLMessage(ACLMessage.REQUEST);
+        req.addReceiver(owner);
+        req.setContent(AuctionProtocol.newAuctionRequest(auctionId, startPrice, "Load item " + (++started)));
+        send(req);
+        open.add(auctionId);
+    }
+}
@@ -0,0 +1,176 @@
+package auctions.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import auctions.launcher.Readiness;
+import auctions.models.Bid;
+import auctions.utils.AgentConfig;
+import auctions.utils.AgentDirectory;
+import auctions.utils.AuctionCodec;
+import auctions.utils.ShardRouter;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+/**
+ * Synthetic bidder for {@link LoadGenerator}: registers as a buyer like
+ * {@link auctions.agents.BuyerAgent} and sends binary bids to the owning
+ * seller at a fixed rate, open loop (the schedule does not wait for
+ * answers), on a random live auction at the last known price plus a few
+ * increments.
+ *
+ * Latency is measured from the intended send time, so a bidder that falls
+ * behind its schedule shows up in the percentiles instead of hiding it.
+ *
+ * Arguments (key=value): bidRate (bids/s for this agent), seed.
+ */
+public class LoadBidderAgent extends Agent {
+    private final AgentDirectory sellers = new AgentDirectory("seller");
+    private ShardRouter router;
+    private final AuctionCodec codec = new AuctionCodec();
+    private Random rng;
+
+    // Last price seen, and our bids still waiting for a broadcast, per auction
+    private final Map<String, Long> prices = new HashMap<>();
+    private final List<String> live = new ArrayList<>();
+    private final Map<String, List<long[]>> pending = new HashMap<>();   // {cents, intendedNanos}
+
+    private long intervalNanos;
+    private long nextNanos;
+
+    @Override
+    protected void setup() {
+        AgentConfig config = new AgentConfig(getArguments());
+        double rate = config.getDouble("bidRate", 10);
+        intervalNanos = rate > 0 ? (long) (1e9 / rate) : Long.MAX_VALUE;
+        rng = new Random(config.getLong("seed", getLocalName().hashCode()));
+        router = new ShardRouter(sellers, config.getInt("shardVnodes", ShardRouter.DEFAULT_VNODES));
+
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType("buyer");
+        sd.setName(getLocalName() + "-service");
+        sd.addLanguages(AuctionCodec.BINARY_LANGUAGE);
+        dfd.addServices(sd);
+        try {
+            DFService.register(this, dfd);
+        } catch (FIPAException fe) {
+            System.err.println("[LOAD] " + getLocalName() + " cannot register: " + fe.getMessage());
+        }
+        addBehaviour(sellers.subscribe(this));
+
+        MessageTemplate notFromDF = MessageTemplate.not(MessageTemplate.MatchSender(getDefaultDF()));
+        addBehaviour(new CyclicBehaviour(this) {
+            @Override
+            public void action() {
+                ACLMessage msg;
+                while ((msg = receive(notFromDF)) != null) {
+                    onUpdate(msg);
+                }
+                long now = System.nanoTime();
+                if (live.isEmpty()) {
+                    nextNanos = now;   // start the schedule with the first auction
+                    block();
+                    return;
+                }
+                // Catch up on every bid that is due, then sleep until the next one
+                while (nextNanos <= now) {
+                    bid(nextNanos);
+                    nextNanos += intervalNanos;
+                }
+                block(Math.max(1, (nextNanos - now) / 1_000_000));
+            }
+        });
+
+        Readiness.ready(this);
+    }
+
+    private void onUpdate(ACLMessage msg) {
+        if (msg.getPerformative() == ACLMessage.REJECT_PROPOSAL) {
+            // Shed by an overloaded seller; this bidder keeps its rate regardless
+            if (LoadStats.recording()) LoadStats.shed.increment();
+            return;
+        }
+        int type = codec.decode(msg);
+        Bid update = codec.bid();
+        String id = update.getAuctionId();
+        switch (type) {
+            case AuctionCodec.TYPE_NEW_AUCTION:
+                if (prices.put(id, update.getAmountCents()) == null) live.add(id);
+                break;
+            case AuctionCodec.TYPE_BID:
+                if (LoadStats.recording()) LoadStats.broadcasts.increment();
+                prices.merge(id, update.getAmountCents(), Math::max);
+                resolve(id, update.getBidder(), update.getAmountCents());
+                break;
+            case AuctionCodec.TYPE_CLOSE: {
+                prices.remove(id);
+                live.remove(id);
+                List<long[]> left = pending.remove(id);
+                if (left != null) {
+                    for (long[] p : left) {
+                        if (LoadStats.recording(p[1])) LoadStats.unresolved.increment();
+                    }
+                }
+                break;
+            }
+            default:
+                // EXTENDED and anything else: nothing to measure
+        }
+    }
+
+    /** A broadcast at {@code cents} settles every pending bid of ours at or below it. */
+    private void resolve(String auctionId, String leader, long cents) {
+        List<long[]> mine = pending.get(auctionId);
+        if (mine == null) return;
+        long now = System.nanoTime();
+        boolean ours = getLocalName().equals(leader);
+        for (Iterator<long[]> it = mine.iterator(); it.hasNext(); ) {
+            long[] p = it.next();
+            if (p[0] > cents) continue;
+            it.remove();
+            if (!LoadStats.recording(p[1])) continue;
+            LoadStats.RESOLVED.record(now - p[1]);
+            if (ours && p[0] == cents) {
+                LoadStats.ACCEPTED.record(now - p[1]);
+                LoadStats.accepted.increment();
+            } else {
+                LoadStats.outbid.increment();
+            }
+        }
+        if (mine.isEmpty()) pending.remove(auctionId);
+    }
+
+    private void bid(long intendedNanos) {
+        String auctionId = live.get(rng.nextInt(live.size()));
+        long cents = prices.get(auctionId) + 100 * (1 + rng.nextInt(5));
+        AID owner = router.route(auctionId);
+        if (owner == null) return;
+
+        ACLMessage msg = new ACLMessage(ACLMessage.PROPOSE);
+        msg.addReceiver(owner);
+        AuctionCodec.setContent(msg, AuctionCodec.encodeBid(auctionId, getLocalName(), cents), null);
+        send(msg);
+        pending.computeIfAbsent(auctionId, k -> new ArrayList<>()).add(new long[] {cents, intendedNanos});
+        if (LoadStats.recording(intendedNanos)) LoadStats.sent.increment();
+    }
+
+    @Override
+    protected void takeDown() {
+        try {
+            DFService.deregister(this);
+        } catch (FIPAException fe) {}
+    }
+}
@@ -0,0 +1,191 @@
+package auctions.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import auctions.launcher.PlatformLauncher;
+import auctions.launcher.Topology;
+import auctions.utils.AgentConfig;
+
+/**
+ * End-to-end load test of the auction platform, headless, in one JVM.
+ *
+ * Starts a pool of real {@link auctions.agents.SellerAgent}s, synthetic
+ * {@link LoadBidderAgent}s offering a fixed total bid rate, and a
+ * {@link LoadAuctioneerAgent} keeping a set of auctions open. After the
+ * warm-up it measures for the given duration and reports bids sent and
+ * accepted per second, and the latency from intended send to the
+ * bidder receiving the seller's broadcast of its bid (p50/p99/p99.9).
+ * The report is also written as JSON; with maxP99Ms set, a slower run
+ * exits with status 1, so a script can catch regressions.
+ *
+ * Arguments (key=value): sellers, bidders, auctions, rate (total bids/s),
+ * warmupS, durationS, journal (true/false), port, report (JSON file),
+ * maxP99Ms. Seller settings such as conflationMs or batchSize can be given
+ * as -Dauction.&lt;key&gt; system properties.
+ *
+ * Usage: java -cp target/classes:... auctions.bench.LoadGenerator sellers=2 bidders=100 rate=2000
+ */
+public class LoadGenerator {
+    public static void main(String[] args) throws Exception {
+        AgentConfig config = new AgentConfig(args);
+        int sellers    = Math.max(1, config.getInt("sellers", 2));
+        int bidders    = Math.max(1, config.getInt("bidders", 50));
+        int auctions   = Math.max(1, config.getInt("auctions", 20));
+        double rate    = config.getDouble("rate", 500);
+        long warmupS   = config.getLong("warmupS", 5);
+        long durationS = Math.max(1, config.getLong("durationS", 30));
+        boolean journal = config.getBoolean("journal", false);
+        double maxP99Ms = config.getDouble("maxP99Ms", 0);
+        Path report = Paths.get(config.get("report", "load-report.json"));
+
+        Topology topology = Topology.fromJson(
+            topology(sellers, bidders, auctions, rate, journal, config.getInt("port", 1099)).toString(),
+            "load generator");
+        PlatformLauncher launcher = new PlatformLauncher(topology);
+        int exit = 0;
+        try {
+            launcher.launch();
+            System.out.printf("[LOAD] %d sellers, %d bidders, %d auctions, offering %.0f bids/s; "
+                    + "warm-up %d s, measuring %d s%n",
+                sellers, bidders, auctions, rate, warmupS, durationS);
+            Thread.sleep(warmupS * 1000);
+            LoadStats.start();
+            long t0 = System.nanoTime();
+            Thread.sleep(durationS * 1000);
+            double seconds = (System.nanoTime() - t0) / 1e9;
+
+            Map<String, Object> results = results(seconds);
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("timestamp", Instant.now().toString());
+            out.put("config", configMap(sellers, bidders, auctions, rate, warmupS, durationS, journal));
+            out.put("results", results);
+            boolean pass = maxP99Ms <= 0 || LoadStats.ACCEPTED.percentile(0.99) / 1e6 <= maxP99Ms;
+            if (maxP99Ms > 0) {
+                out.put("maxP99Ms", maxP99Ms);
+                out.put("pass", pass);
+            }
+            write(report, out);
+
+            System.out.printf("[LOAD] Sent %.0f bids/s (offered %.0f), %.0f accepted/s, %.0f broadcasts "
+                    + "received/s, %d unresolved, %.0f shed/s%n",
+                LoadStats.sent.sum() / seconds, rate, LoadStats.accepted.sum() / seconds,
+                LoadStats.broadcasts.sum() / seconds, LoadStats.unresolved.sum(), LoadStats.shed.sum() / seconds);
+            System.out.println("[LOAD] Accepted: " + LoadStats.ACCEPTED);
+            System.out.println("[LOAD] Resolved: " + LoadStats.RESOLVED);
+            System.out.println("[LOAD] Report written to " + report.toAbsolutePath());
+            if (!pass) {
+                System.err.printf("[LOAD] p99 %.2f ms is above the %.2f ms limit%n",
+                    LoadStats.ACCEPTED.percentile(0.99) / 1e6, maxP99Ms);
+                exit = 1;
+            }
+        } catch (Exception e) {
+            System.err.println("[LOAD] FAILED: " + e.getMessage());
+            exit = 1;
+        } finally {
+            launcher.shutdown();
+        }
+        System.exit(exit);
+    }
+
+    /** Sellers one by one (each has its own journal directory), then the bidders, then the auctioneer. */
+    private static JsonObject topology(int sellers, int bidders, int auctions, double rate,
+                                       boolean journal, int port) throws IOException {
+        Path journalRoot = journal ? Files.createTempDirectory("load-journal") : null;
+        JsonArray agents = new JsonArray();
+        for (int s = 1; s <= sellers; s++) {
+            String name = "seller" + s;
+            JsonArray args = new JsonArray();
+            args.add("httpPort=-1");
+            args.add("journal=" + journal);
+            if (journal) args.add("journalDir=" + journalRoot.resolve(name));
+            agents.add(agent(name, "auctions.agents.SellerAgent", 1, args));
+        }
+        JsonArray bidderArgs = new JsonArray();
+        bidderArgs.add("bidRate=" + rate / bidders);
+        agents.add(agent("load%d", LoadBidderAgent.class.getName(), bidders, bidderArgs));
+        JsonArray auctioneerArgs = new JsonArray();
+        auctioneerArgs.add("auctions=" + auctions);
+        agents.add(agent("auctioneer", LoadAuctioneerAgent.class.getName(), 1, auctioneerArgs));
+
+        JsonObject main = new JsonObject();
+        main.addProperty("name", "Main-Container");
+        main.addProperty("main", true);
+        main.addProperty("port", port);
+        JsonArray containers = new JsonArray();
+        containers.add(main);
+
+        JsonObject t = new JsonObject();
+        t.add("containers", containers);
+        t.add("agents", agents);
+        return t;
+    }
+
+    private static JsonObject agent(String name, String className, int count, JsonArray args) {
+        JsonObject a = new JsonObject();
+        a.addProperty("name", name);
+        a.addProperty("class", className);
+        a.addProperty("count", count);
+        a.add("args", args);
+        return a;
+    }
+
+    private static Map<String, Object> results(double seconds) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("seconds", Math.round(seconds * 1000) / 1000.0);
+        r.put("bidsSent", LoadStats.sent.sum());
+        r.put("bidsSentPerSec", Math.round(LoadStats.sent.sum() / seconds));
+        r.put("bidsAccepted", LoadStats.accepted.sum());
+        r.put("bidsAcceptedPerSec", Math.round(LoadStats.accepted.sum() / seconds));
+        r.put("bidsOutbid", LoadStats.outbid.sum());
+        r.put("bidsUnresolved", LoadStats.unresolved.sum());
+        r.put("bidsShed", LoadStats.shed.sum());
+        r.put("broadcastsReceivedPerSec", Math.round(LoadStats.broadcasts.sum() / seconds));
+        r.put("auctionsClosed", LoadStats.auctionsRun.sum());
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("accepted", LoadStats.ACCEPTED.summaryMs());
+        latency.put("resolved", LoadStats.RESOLVED.summaryMs());
+        r.put("latencyMs", latency);
+        return r;
+    }
+
+    private static Map<String, Object> configMap(int sellers, int bidders, int auctions, double rate,
+                                                 long warmupS, long durationS, boolean journal) {
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("sellers", sellers);
+        c.put("bidders", bidders);
+        c.put("auctions", auctions);
+        c.put("offeredBidsPerSec", rate);
+        c.put("warmupS", warmupS);
+        c.put("durationS", durationS);
+        c.put("journal", journal);
+        c.put("processors", Runtime.getRuntime().availableProcessors());
+        c.put("java", System.getProperty("java.version"));
+        // Seller tuning passed as -Dauction.<key>
+        Map<String, String> tuning = new LinkedHashMap<>();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("auction.")) tuning.put(key.substring(8), System.getProperty(key));
+        }
+        c.put("sellerSettings", tuning);
+        return c;
+    }
+
+    private static void write(Path file, Map<String, Object> report) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(report, w);
+        }
+    }
+}
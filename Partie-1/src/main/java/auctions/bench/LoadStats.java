@@ -0,0 +1,49 @@
+package auctions.bench;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters the synthetic agents of a {@link LoadGenerator} run record
+ * into. They share the generator's JVM, so plain statics are enough;
+ * nothing is recorded before {@link #start} (the warm-up).
+ */
+final class LoadStats {
+    /** Intended send -> our own bid seen as the leader in a broadcast. */
+    static final LatencyHistogram ACCEPTED = new LatencyHistogram();
+    /** Intended send -> first broadcast at or above our bid, whoever leads. */
+    static final LatencyHistogram RESOLVED = new LatencyHistogram();
+
+    static final LongAdder sent        = new LongAdder();
+    static final LongAdder accepted    = new LongAdder();
+    static final LongAdder outbid      = new LongAdder();
+    static final LongAdder unresolved  = new LongAdder();   // auction closed first
+    static final LongAdder broadcasts  = new LongAdder();   // price updates received by all bidders
+    static final LongAdder auctionsRun = new LongAdder();
+    static final LongAdder shed        = new LongAdder();   // bids turned away with RETRY_AFTER
+
+    private static volatile long fromNanos = Long.MAX_VALUE;
+
+    private LoadStats() {}
+
+    /** Start recording; bids intended before now are left out. */
+    static void start() {
+        ACCEPTED.reset();
+        RESOLVED.reset();
+        sent.reset();
+        accepted.reset();
+        outbid.reset();
+        unresolved.reset();
+        broadcasts.reset();
+        auctionsRun.reset();
+        shed.reset();
+        fromNanos = System.nanoTime();
+    }
+
+    static boolean recording(long intendedNanos) {
+        return intendedNanos >= fromNanos;
+    }
+
+    static boolean recording() {
+        return System.nanoTime() >= fromNanos;
+    }
+}
@@ -0,0 +1,95 @@
+package auctions.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import auctions.models.PriceLadder;
+
+/**
+ * Contention benchmark for {@link PriceLadder#raiseIfHigher}: 1..N threads
+ * hammer one auction with rising bids, compared against the same rule
+ * behind a monitor lock.
+ *
+ * Usage: java -cp target/classes auctions.bench.PriceLadderBenchmark [bidsPerThread]
+ */
+public class PriceLadderBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) throws InterruptedException {
+        int bidsPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        System.out.printf("%-8s %-12s %16s %12s%n", "threads", "impl", "bids/s", "accepted");
+        for (int round = 0; round < 2; round++) {   // first round is warm-up
+            for (int threads : THREADS) {
+                run(threads, bidsPerThread, "lock-free", new LockFree(), round > 0);
+                run(threads, bidsPerThread, "synchronized", new Locked(), round > 0);
+            }
+        }
+    }
+
+    private interface Ladder { boolean raise(String bidder, long cents); }
+
+    private static final class LockFree implements Ladder {
+        private final PriceLadder ladder = new PriceLadder(100_00, 1, PriceLadder.DEFAULT_DEPTH);
+        public boolean raise(String bidder, long cents) { return ladder.raiseIfHigher(bidder, cents); }
+    }
+
+    /** Same rule and ladder depth, guarded by a lock. */
+    private static final class Locked implements Ladder {
+        private final String[] bidders = new String[PriceLadder.DEFAULT_DEPTH];
+        private final long[] amounts = new long[PriceLadder.DEFAULT_DEPTH];
+        private long price = 100_00;
+        private String leader;
+
+        public synchronized boolean raise(String bidder, long cents) {
+            if (cents < price + 1) return false;
+            System.arraycopy(bidders, 0, bidders, 1, bidders.length - 1);
+            System.arraycopy(amounts, 0, amounts, 1, amounts.length - 1);
+            bidders[0] = bidder;
+            amounts[0] = cents;
+            price = cents;
+            leader = bidder;
+            return true;
+        }
+    }
+
+    private static void run(int threads, int bidsPerThread, String name, Ladder ladder,
+                            boolean print) throws InterruptedException {
+        AtomicLong accepted = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            String bidder = "bidder" + t;
+            new Thread(() -> {
+                ThreadLocalRandom rng = ThreadLocalRandom.current();
+                long ok = 0;
+                long next = 100_00;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Rising bids with jitter, so threads keep outbidding each other
+                for (int i = 0; i < bidsPerThread; i++) {
+                    next += 1 + rng.nextInt(3);
+                    if (ladder.raise(bidder, next)) ok++;
+                }
+                accepted.addAndGet(ok);
+                done.countDown();
+            }).start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+
+        if (print) {
+            long total = (long) threads * bidsPerThread;
+            System.out.printf("%-8d %-12s %16.0f %11.1f%%%n", threads, name,
+                total * 1e9 / elapsed, 100.0 * accepted.get() / total);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package auctions.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import auctions.utils.ShardRouter;
+import jade.core.AID;
+
+/**
+ * How evenly {@link ShardRouter} spreads auctions over 1..N sellers, how
+ * many move when one more seller joins, and what a lookup costs.
+ *
+ * With every seller on its own thread (or container), aggregate bid
+ * throughput is bounded by the busiest seller, so the speed-up over one
+ * seller is at most n / (max load / mean load); that bound is printed.
+ *
+ * Usage: java -cp target/classes:lib/jade.jar auctions.bench.ShardBenchmark [auctions] [vnodes]
+ */
+public class ShardBenchmark {
+    private static final int[] SELLERS = {1, 2, 4, 8, 16, 32};
+    private static volatile int sink;   // keeps the lookup loop from being optimised away
+
+    public static void main(String[] args) {
+        int auctions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int vnodes = args.length > 1 ? Integer.parseInt(args[1]) : ShardRouter.DEFAULT_VNODES;
+
+        String[] ids = new String[auctions];
+        for (int i = 0; i < auctions; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+
+        System.out.printf("%d auctions, %d points per seller%n", auctions, vnodes);
+        System.out.printf("%-8s %10s %12s %14s %12s %14s%n",
+            "sellers", "max/mean", "speed-up <=", "moved on +1", "ideal", "lookups/s");
+        for (int round = 0; round < 2; round++) {   // first round is warm-up
+            for (int n : SELLERS) {
+                run(ids, n, vnodes, round > 0);
+            }
+        }
+    }
+
+    private static void run(String[] ids, int n, int vnodes, boolean print) {
+        ShardRouter.Ring ring = ShardRouter.Ring.of(sellers(n), vnodes);
+        ShardRouter.Ring grown = ShardRouter.Ring.of(sellers(n + 1), vnodes);
+
+        Map<AID, Integer> load = new HashMap<>();
+        int moved = 0;
+        for (String id : ids) {
+            AID owner = ring.owner(id);
+            load.merge(owner, 1, Integer::sum);
+            if (!owner.equals(grown.owner(id))) moved++;
+        }
+        int max = 0;
+        for (int l : load.values()) max = Math.max(max, l);
+        double imbalance = max / ((double) ids.length / n);
+
+        // Lookup cost alone: hash + binary search
+        int h = 0;
+        long t0 = System.nanoTime();
+        for (int r = 0; r < 10; r++) {
+            for (String id : ids) {
+                h += ring.owner(id).hashCode();
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+        sink = h;
+
+        if (print) {
+            System.out.printf("%-8d %10.3f %12.2f %13.1f%% %11.1f%% %14.0f%n",
+                n, imbalance, n / imbalance, 100.0 * moved / ids.length, 100.0 / (n + 1),
+                10.0 * ids.length * 1e9 / elapsed);
+        }
+    }
+
+    private static AID[] sellers(int n) {
+        AID[] aids = new AID[n];
+        for (int i = 0; i < n; i++) {
+            aids[i] = new AID("seller" + (i + 1) + "@bench", AID.ISGUID);
+        }
+        return aids;
+    }
+}
@@ -0,0 +1,163 @@
+package auctions.bench;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import auctions.models.PriceLadder;
+import auctions.models.ProxyBook;
+import auctions.strategy.BidderState;
+import auctions.strategy.BiddingStrategy;
+import auctions.strategy.BudgetPacedStrategy;
+import auctions.strategy.FixedIncrementStrategy;
+import auctions.strategy.ProxyToMaxStrategy;
+import auctions.strategy.SnipeAtCloseStrategy;
+
+/**
+ * Bidding strategies outside JADE.
+ *
+ * 1) Decision cost: ns per {@link BiddingStrategy#decide} over many states.
+ * 2) Simulated auction: bidders with random budgets all use one strategy;
+ *    bids reach the "seller" after the reaction delay and every accepted
+ *    raise is seen by everyone. Reports the bids sent, the final price and
+ *    how close it came to the second-highest budget (the fair price).
+ *    The last row registers the same budgets as seller-side proxies.
+ *
+ * Usage: java -cp target/classes auctions.bench.StrategyBenchmark [bidders] [reactionMs]
+ */
+public class StrategyBenchmark {
+    private static final long DURATION_MS = 60_000;
+    private static final long INCREMENT_CENTS = 10_00;
+
+    public static void main(String[] args) {
+        int bidders     = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long reactionMs = args.length > 1 ? Long.parseLong(args[1]) : 250;
+
+        BiddingStrategy[] strategies = {
+            new FixedIncrementStrategy(5),
+            new SnipeAtCloseStrategy(5000),
+            new BudgetPacedStrategy(1000),
+            new ProxyToMaxStrategy(),
+        };
+
+        System.out.printf("%-20s %14s%n", "strategy", "ns/decision");
+        for (BiddingStrategy s : strategies) {
+            decisionCost(s, 5_000_000);   // warm-up
+            System.out.printf("%-20s %14.1f%n", s.name(), decisionCost(s, 20_000_000));
+        }
+
+        System.out.printf("%nSimulated auction: %d bidders, budgets $800-1500, start $500, $%d increments, reaction %d ms%n",
+            bidders, INCREMENT_CENTS / 100, reactionMs);
+        System.out.printf("%-20s %10s %12s %12s %10s%n", "strategy", "bids sent", "final price", "fair price", "winner");
+        for (BiddingStrategy s : strategies) {
+            simulate(s, bidders, reactionMs);
+        }
+        sellerProxies(bidders);
+    }
+
+    private static double decisionCost(BiddingStrategy strategy, int decisions) {
+        Random rng = new Random(1);
+        BidderState[] states = new BidderState[1024];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new BidderState(500_00, 800_00 + rng.nextInt(700_00), 0, DURATION_MS);
+            states[i].onPrice(500_00 + rng.nextInt(900_00), rng.nextBoolean());
+        }
+        long sink = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < decisions; i++) {
+            BidderState st = states[i & (states.length - 1)];
+            sink += strategy.decide(st, i % DURATION_MS);
+        }
+        long elapsed = System.nanoTime() - t0;
+        if (sink == 42) System.out.print("");   // keep the loop alive
+        return (double) elapsed / decisions;
+    }
+
+    /** Discrete-event run of one auction; events are (time, bidder) wake-ups. */
+    private static void simulate(BiddingStrategy strategy, int n, long reactionMs) {
+        Random rng = new Random(7);
+        BidderState[] states = new BidderState[n];
+        long best = 0, second = 0;
+        for (int i = 0; i < n; i++) {
+            long budget = 800_00 + rng.nextInt(700_01);
+            states[i] = new BidderState(500_00, budget, 0, DURATION_MS);
+            states[i].minIncrementCents = INCREMENT_CENTS;
+            if (budget > best) { second = best; best = budget; } else if (budget > second) second = budget;
+        }
+
+        // Wake-ups: [time, bidder]; a bid in flight is {arrival, bidder, cents}
+        PriorityQueue<long[]> events = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < n; i++) {
+            wakeUp(events, states[i], i, reactionMs);
+        }
+        long price = 500_00;
+        int leader = -1;
+        long sent = 0;
+
+        while (!events.isEmpty()) {
+            long[] e = events.poll();
+            long now = e[0];
+            if (now >= DURATION_MS) break;
+            int who = (int) e[1];
+            if (e[2] >= 0) {
+                // A bid reaches the seller
+                if (e[2] >= price + INCREMENT_CENTS) {
+                    price = e[2];
+                    leader = who;
+                    for (int i = 0; i < n; i++) {
+                        if (states[i].onPrice(price, i == who) && i != who) {
+                            wakeUp(events, states[i], i, now + reactionMs);
+                        }
+                    }
+                }
+                continue;
+            }
+            BidderState st = states[who];
+            if (st.wakeAtMs != now) continue;   // replaced by an earlier wake-up
+            st.wakeAtMs = 0;
+            long bid = strategy.decide(st, now);
+            if (bid != BiddingStrategy.NONE) {
+                st.onBidSent(bid);
+                sent++;
+                events.add(new long[] {now + 1, who, bid});
+            }
+            long recheck = strategy.recheckAtMs(st, now);
+            if (recheck != BiddingStrategy.NONE) {
+                wakeUp(events, st, who, Math.max(recheck, now + 1));
+            }
+        }
+        System.out.printf("%-20s %10d %12.2f %12.2f %10s%n", strategy.name(), sent,
+            price / 100.0, Math.min(best, second + INCREMENT_CENTS) / 100.0,
+            leader < 0 ? "-" : (states[leader].budgetCents == best ? "highest" : "other"));
+    }
+
+    /** Same budgets registered once each with the seller's ProxyBook and resolved in one pass. */
+    private static void sellerProxies(int n) {
+        Random rng = new Random(7);
+        ProxyBook book = new ProxyBook();
+        PriceLadder ladder = new PriceLadder(500_00, INCREMENT_CENTS, PriceLadder.DEFAULT_DEPTH);
+        String[] names = new String[n];
+        long[] budgets = new long[n];
+        long best = 0, second = 0;
+        for (int i = 0; i < n; i++) {
+            names[i] = "b" + i;
+            budgets[i] = 800_00 + rng.nextInt(700_01);
+            if (budgets[i] > best) { second = best; best = budgets[i]; } else if (budgets[i] > second) second = budgets[i];
+        }
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            book.register(names[i], budgets[i]);
+        }
+        book.resolve(ladder);
+        long micros = (System.nanoTime() - t0) / 1000;
+        System.out.printf("%-20s %10d %12.2f %12.2f %10s  (resolved in %d us)%n", "seller-side proxy", n,
+            ladder.getPriceCents() / 100.0, Math.min(best, second + INCREMENT_CENTS) / 100.0,
+            book.getLeaderMax() == best ? "highest" : "other", micros);
+    }
+
+    /** Same rule as BuyerAgent: keep an earlier pending wake-up, replace a later one. */
+    private static void wakeUp(PriorityQueue<long[]> events, BidderState st, int who, long at) {
+        if (st.wakeAtMs != 0 && st.wakeAtMs <= at) return;
+        st.wakeAtMs = at;
+        events.add(new long[] {at, who, -1});
+    }
+}
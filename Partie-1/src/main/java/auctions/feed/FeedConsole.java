@@ -0,0 +1,40 @@
+package auctions.feed;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+
+import org.glassfish.tyrus.client.ClientManager;
+
+import jakarta.websocket.ClientEndpoint;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnMessage;
+
+/**
+ * Command-line feed client: prints every frame until the server closes.
+ *
+ * Usage: java -cp target/classes:... auctions.feed.FeedConsole [ws://localhost:8025/feed/auctions]
+ */
+@ClientEndpoint
+public class FeedConsole {
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    @OnMessage
+    public void onMessage(String frame) {
+        System.out.println(frame);
+    }
+
+    @OnClose
+    public void onClose(CloseReason reason) {
+        System.out.println("[FEED] Closed: " + reason);
+        closed.countDown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "ws://localhost:8025" + FeedServer.CONTEXT + FeedServer.PATH);
+        FeedConsole console = new FeedConsole();
+        ClientManager.createClient().connectToServer(console, uri);
+        System.out.println("[FEED] Connected to " + uri);
+        console.closed.await();
+    }
+}
@@ -0,0 +1,34 @@
+package auctions.feed;
+
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.ServerEndpoint;
+
+/**
+ * The feed's WebSocket endpoint. Clients only listen; anything they send
+ * is ignored. The container creates one instance per connection, so the
+ * hub is handed over by {@link FeedServer} (one feed server per JVM).
+ */
+@ServerEndpoint(FeedServer.PATH)
+public class FeedEndpoint {
+    static volatile FeedHub hub;
+
+    @OnOpen
+    public void onOpen(Session session) {
+        FeedHub h = hub;
+        if (h != null) h.open(session);
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        FeedHub h = hub;
+        if (h != null) h.closed(session);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        onClose(session);
+    }
+}
@@ -0,0 +1,56 @@
+package auctions.feed;
+
+import com.google.gson.JsonObject;
+
+/**
+ * JSON text frames of the feed, one object per event:
+ *
+ *   {"type":"auction","auction":id,"item":..,"price":..,"ts":..}
+ *   {"type":"bid","auction":id,"bidder":..,"price":..,"ts":..}
+ *   {"type":"extended","auction":id,"endsAt":..,"ts":..}
+ *   {"type":"close","auction":id,"winner":..|null,"price":..,"ts":..}
+ *
+ * Prices are in currency units; ts is the gateway's publish time (epoch ms).
+ */
+public final class FeedFrames {
+    private FeedFrames() {}
+
+    public static String newAuction(String auctionId, String item, double price, long nowMs) {
+        JsonObject o = base("auction", auctionId);
+        o.addProperty("item", item);
+        o.addProperty("price", price);
+        o.addProperty("ts", nowMs);
+        return o.toString();
+    }
+
+    public static String bid(String auctionId, String bidder, double price, long nowMs) {
+        JsonObject o = base("bid", auctionId);
+        o.addProperty("bidder", bidder);
+        o.addProperty("price", price);
+        o.addProperty("ts", nowMs);
+        return o.toString();
+    }
+
+    public static String extended(String auctionId, long endsAtMs, long nowMs) {
+        JsonObject o = base("extended", auctionId);
+        o.addProperty("endsAt", endsAtMs);
+        o.addProperty("ts", nowMs);
+        return o.toString();
+    }
+
+    /** {@code winner} is null if nobody bid. */
+    public static String close(String auctionId, String winner, double price, long nowMs) {
+        JsonObject o = base("close", auctionId);
+        o.addProperty("winner", winner);
+        o.addProperty("price", price);
+        o.addProperty("ts", nowMs);
+        return o.toString();
+    }
+
+    private static JsonObject base(String type, String auctionId) {
+        JsonObject o = new JsonObject();
+        o.addProperty("type", type);
+        o.addProperty("auction", auctionId);
+        return o;
+    }
+}
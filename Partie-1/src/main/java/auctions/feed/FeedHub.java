@@ -0,0 +1,120 @@
+package auctions.feed;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+
+/**
+ * Fan-out of auction feed frames to every connected WebSocket client.
+ *
+ * Each event is serialized once by the publisher and the same String is
+ * queued to every {@link FeedSession}; a client that falls behind loses
+ * intermediate prices, never the other clients' throughput. Publishing
+ * only enqueues: a few sender threads take clients with frames waiting
+ * and start their socket writes, so the publisher's cost per event stays
+ * a queue insert per client.
+ *
+ * Thread-safe: sessions come and go on container threads while the
+ * gateway publishes from its own.
+ */
+public class FeedHub {
+    private final int queueCapacity;
+    private final Map<Session, FeedSession> sessions = new ConcurrentHashMap<>();
+    // Clients with frames waiting and no send in flight, each at most once
+    private final BlockingQueue<FeedSession> ready = new LinkedBlockingQueue<>();
+    private final Thread[] senders;
+
+    final LongAdder published = new LongAdder();
+    final LongAdder sent = new LongAdder();
+    final LongAdder conflated = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder slowClosed = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+
+    /**
+     * @param queueCapacity frames each client may have waiting
+     * @param senderThreads threads starting socket writes
+     */
+    public FeedHub(int queueCapacity, int senderThreads) {
+        this.queueCapacity = queueCapacity;
+        this.senders = new Thread[Math.max(1, senderThreads)];
+        for (int i = 0; i < senders.length; i++) {
+            senders[i] = new Thread(this::sendLoop, "feed-sender-" + i);
+            senders[i].setDaemon(true);
+            senders[i].start();
+        }
+    }
+
+    private void sendLoop() {
+        try {
+            while (true) {
+                ready.take().sendNext();
+            }
+        } catch (InterruptedException e) {
+            // closeAll()
+        }
+    }
+
+    void ready(FeedSession s) {
+        ready.offer(s);
+    }
+
+    void open(Session session) {
+        sessions.put(session, new FeedSession(session, this, queueCapacity));
+        connects.increment();
+    }
+
+    void closed(Session session) {
+        FeedSession s = sessions.remove(session);
+        if (s != null) {
+            s.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, null));
+        }
+    }
+
+    /**
+     * Queue {@code frame} to every client. {@code conflatable} frames (price
+     * updates) may be replaced by a newer one with the same {@code key}
+     * before they are sent.
+     */
+    public void publish(String key, String frame, boolean conflatable) {
+        published.increment();
+        for (FeedSession s : sessions.values()) {
+            if (!s.offer(key, frame, conflatable)) {
+                slowClosed.increment();
+                sessions.remove(s.getSession());
+            }
+        }
+    }
+
+    /** Disconnect everyone and stop the sender threads, e.g. on shutdown. */
+    public void closeAll() {
+        for (Thread t : senders) {
+            t.interrupt();
+        }
+        for (FeedSession s : sessions.values()) {
+            s.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "feed stopping"));
+        }
+        sessions.clear();
+    }
+
+    public int getClients()        { return sessions.size(); }
+    public long getConnects()      { return connects.sum(); }
+    public long getPublished()     { return published.sum(); }
+    public long getSent()          { return sent.sum(); }
+    public long getConflated()     { return conflated.sum(); }
+    public long getDropped()       { return dropped.sum(); }
+    public long getSlowClosed()    { return slowClosed.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("feed: %d clients (%d connects), %d events published, %d frames sent, "
+                + "%d conflated, %d dropped, %d slow clients closed",
+            getClients(), getConnects(), getPublished(), getSent(), getConflated(), getDropped(),
+            getSlowClosed());
+    }
+}
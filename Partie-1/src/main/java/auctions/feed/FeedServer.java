@@ -0,0 +1,43 @@
+package auctions.feed;
+
+import java.io.Closeable;
+import java.util.Collections;
+
+import org.glassfish.tyrus.server.Server;
+
+import jakarta.websocket.DeploymentException;
+
+/**
+ * Embedded Tyrus/Grizzly WebSocket server publishing a {@link FeedHub} at
+ * {@code ws://<host>:<port>/feed/auctions}.
+ */
+public class FeedServer implements Closeable {
+    public static final String CONTEXT = "/feed";
+    public static final String PATH    = "/auctions";
+
+    private final String host;
+    private final FeedHub hub;
+    private final Server server;
+
+    public FeedServer(String host, int port, FeedHub hub) {
+        this.host = host;
+        this.hub  = hub;
+        this.server = new Server(host, port, CONTEXT, Collections.emptyMap(), FeedEndpoint.class);
+    }
+
+    public void start() throws DeploymentException {
+        FeedEndpoint.hub = hub;
+        server.start();
+    }
+
+    public int getPort()   { return server.getPort(); }
+    public String getUri() { return "ws://" + host + ":" + getPort() + CONTEXT + PATH; }
+    public FeedHub getHub() { return hub; }
+
+    @Override
+    public void close() {
+        hub.closeAll();
+        server.stop();
+        FeedEndpoint.hub = null;
+    }
+}
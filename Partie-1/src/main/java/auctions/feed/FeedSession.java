@@ -0,0 +1,134 @@
+package auctions.feed;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+/**
+ * Outbound side of one feed client: a bounded queue drained by one
+ * asynchronous send at a time, so a slow socket backs up here and not in
+ * the container's unbounded write queue. Sends are started by the hub's
+ * sender threads, never by the publisher.
+ *
+ * Price frames are conflated: while one is still queued for an auction, a
+ * newer price replaces its text instead of taking a slot. A full queue
+ * drops further price frames; a lifecycle frame (new auction, extension,
+ * close) that does not fit means the client cannot keep up, and it is
+ * disconnected.
+ */
+final class FeedSession implements SendHandler {
+    /** One queued frame; the text of a pending price slot may be replaced. */
+    private static final class Slot {
+        final String key;
+        final boolean conflatable;
+        String text;
+
+        Slot(String key, boolean conflatable, String text) {
+            this.key = key;
+            this.conflatable = conflatable;
+            this.text = text;
+        }
+    }
+
+    private final Session session;
+    private final FeedHub hub;
+    private final int capacity;
+    private final ArrayDeque<Slot> queue;
+    private final Map<String, Slot> pendingPrices = new HashMap<>();
+    private boolean sending;     // a send is in flight
+    private boolean scheduled;   // waiting in the hub's ready queue
+    private boolean closed;
+
+    FeedSession(Session session, FeedHub hub, int capacity) {
+        this.session = session;
+        this.hub = hub;
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayDeque<>(this.capacity);
+    }
+
+    Session getSession() { return session; }
+
+    /**
+     * Queue a frame. {@code text} is shared by every session, never copied.
+     * Returns false if the client is too slow and was closed.
+     */
+    synchronized boolean offer(String key, String text, boolean conflatable) {
+        if (closed) return false;
+        if (conflatable) {
+            Slot pending = pendingPrices.get(key);
+            if (pending != null) {
+                pending.text = text;
+                hub.conflated.increment();
+                return true;
+            }
+        }
+        if (queue.size() >= capacity) {
+            if (conflatable) {
+                hub.dropped.increment();
+                return true;
+            }
+            close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+            return false;
+        }
+        Slot slot = new Slot(key, conflatable, text);
+        queue.add(slot);
+        if (conflatable) pendingPrices.put(key, slot);
+        scheduleIfIdle();
+        return true;
+    }
+
+    private void scheduleIfIdle() {
+        if (!sending && !scheduled && !queue.isEmpty()) {
+            scheduled = true;
+            hub.ready(this);
+        }
+    }
+
+    /** Start sending the oldest frame; called by a sender thread. */
+    void sendNext() {
+        String text;
+        synchronized (this) {
+            scheduled = false;
+            if (closed || sending) return;
+            Slot slot = queue.poll();
+            if (slot == null) return;
+            if (slot.conflatable) pendingPrices.remove(slot.key, slot);
+            sending = true;
+            text = slot.text;
+        }
+        // Outside the lock: the publisher keeps queueing while the frame is written
+        session.getAsyncRemote().sendText(text, this);
+    }
+
+    @Override
+    public synchronized void onResult(SendResult result) {
+        sending = false;
+        if (closed) return;
+        if (!result.isOK()) {
+            close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "send failed"));
+            return;
+        }
+        hub.sent.increment();
+        scheduleIfIdle();
+    }
+
+    synchronized int queued() { return queue.size(); }
+
+    synchronized void close(CloseReason reason) {
+        if (closed) return;
+        closed = true;
+        queue.clear();
+        pendingPrices.clear();
+        try {
+            if (session.isOpen()) session.close(reason);
+        } catch (IOException e) {
+            // already gone
+        }
+    }
+}
@@ -21,8 +21,11 @@ import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
+import auctions.models.Auction;
+
 public class AuctionFrame extends JFrame {
 
     private static final Color PRIMARY      = new Color(25, 42, 86);
@@ -35,6 +38,11 @@ public class AuctionFrame extends JFrame {
     private static final Color CARD_BG      = Color.WHITE;
     private static final Color TEXT_DARK    = new Color(44, 62, 80);
     private static final Color TEXT_LIGHT   = new Color(149, 165, 166);
+    private static final Font  ITEM_FONT    = new Font("Segoe UI", Font.BOLD, 16);
+
+    // Flash of the price label after a change: on/off every FLASH_MS, FLASH_TICKS times
+    private static final int FLASH_MS    = 100;
+    private static final int FLASH_TICKS = 6;
 
     private final JButton    startAuctionBtn;
     private final JButton    placeBidBtn;
@@ -49,12 +57,29 @@ public class AuctionFrame extends JFrame {
     private final JLabel     statusLabel;
 
     private Timer auctionTimer;
-    private int   timeLeft;
+    // Set by the seller: NEW_AUCTION starts the clock, EXTENDED moves it
+    private long  endTimeMs;
     private Runnable startAuctionListener;
     private BiConsumer<String, Double> bidListener;
 
+    // Updates posted by the agent, applied once per render tick
+    private final FrameUpdates updates;
+    private final Timer renderTimer;
+    // One timer for the price flash, restarted rather than stacked
+    private final Timer flashTimer;
+    private int flashTicksLeft;
+
     public AuctionFrame() {
+        this(new FrameUpdates(), 30);
+    }
+
+    /**
+     * @param updates where the agent posts auction events from its own thread
+     * @param fps render ticks per second, clamped to 1..60
+     */
+    public AuctionFrame(FrameUpdates updates, int fps) {
         super("English Auction System");
+        this.updates = updates;
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(900, 700);
         setMinimumSize(new Dimension(750, 550));
@@ -100,6 +125,58 @@ public class AuctionFrame extends JFrame {
 
         buildUI();
         wireEvents();
+
+        flashTimer = new Timer(FLASH_MS, e -> flashTick());
+        renderTimer = new Timer(1000 / Math.max(1, Math.min(60, fps)), e -> render());
+        renderTimer.start();
+    }
+
+    /**
+     * Render tick: apply everything posted since the last one. The history
+     * gets every bid still pending, the price labels only the last one of
+     * the batch, counting any dropped while the frame was behind.
+     */
+    private void render() {
+        FrameUpdates.Update u;
+        FrameUpdates.Update lastBid = null;
+        int bids = updates.takeDropped();
+        while ((u = updates.poll()) != null) {
+            switch (u.kind) {
+                case FrameUpdates.BID:
+                    bidHistoryPanel.addBid(u.text, u.amount);
+                    lastBid = u;
+                    bids++;
+                    break;
+                case FrameUpdates.NEW_AUCTION: {
+                    lastBid = null;
+                    startNewAuction(u.text, u.amount, u.endTimeMs);
+                    String message = "Auction started: " + u.text + "\nStarting at $" + u.amount;
+                    // Modal dialogs go after the tick, not inside it
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(
+                        this, message, "New Auction", JOptionPane.INFORMATION_MESSAGE));
+                    break;
+                }
+                case FrameUpdates.EXTENDED:
+                    extendAuction(u.endTimeMs);
+                    break;
+                case FrameUpdates.CLOSE:
+                    if (lastBid != null) showPrice(lastBid.text, lastBid.amount, bids);
+                    lastBid = null;
+                    closeAuction(u.text, u.amount);
+                    break;
+                default:
+            }
+        }
+        if (lastBid != null) showPrice(lastBid.text, lastBid.amount, bids);
+    }
+
+    private void flashTick() {
+        flashTicksLeft--;
+        currentPriceLbl.setForeground(flashTicksLeft % 2 == 0 ? PRIMARY : SUCCESS);
+        if (flashTicksLeft <= 0) {
+            flashTimer.stop();
+            currentPriceLbl.setForeground(PRIMARY);
+        }
     }
 
     private void buildUI() {
@@ -280,10 +357,10 @@ public class AuctionFrame extends JFrame {
         this.bidListener = l;
     }
 
-    public void startNewAuction(String itemName, double startPrice) {
+    public void startNewAuction(String itemName, double startPrice, long sellerEndTimeMs) {
         bidHistoryPanel.clearHistory();
         itemLabel.setText("Auction: " + itemName);
-        itemLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        itemLabel.setFont(ITEM_FONT);
         itemLabel.setForeground(TEXT_DARK);
         currentPriceLbl.setText(String.format("$%.2f", startPrice));
         highestBidderLabel.setText("---");
@@ -293,70 +370,103 @@ public class AuctionFrame extends JFrame {
         statusLabel.setText("Auction in progress: " + itemName);
 
         if (auctionTimer != null && auctionTimer.isRunning()) auctionTimer.stop();
-        timeLeft = 60;
-        timerBar.setMaximum(60);
-        timerBar.setValue(60);
-        timerLabel.setText("01:00");
+        long now = System.currentTimeMillis();
+        endTimeMs = sellerEndTimeMs > 0 ? sellerEndTimeMs : now + Auction.DURATION_MS;
+        int total = (int) (Math.max(0, endTimeMs - now) / 1000);
+        timerBar.setMaximum(total);
+        timerBar.setValue(total);
+        timerLabel.setText(String.format("%02d:%02d", total / 60, total % 60));
         timerLabel.setForeground(Color.WHITE);
         timerBar.setForeground(ACCENT);
         placeBidBtn.setEnabled(true);
         startAuctionBtn.setEnabled(false);
 
-        auctionTimer = new Timer(1000, ev -> {
-            timeLeft--;
-            int mins = timeLeft / 60;
-            int secs = timeLeft % 60;
-            timerLabel.setText(String.format("%02d:%02d", mins, secs));
-            timerBar.setValue(timeLeft);
-
-            if (timeLeft <= 10) {
-                timerLabel.setForeground(DANGER);
-                timerBar.setForeground(DANGER);
-            } else if (timeLeft <= 20) {
-                timerLabel.setForeground(WARNING);
-                timerBar.setForeground(WARNING);
-            }
-
-            if (timeLeft <= 0) {
-                auctionTimer.stop();
-                placeBidBtn.setEnabled(false);
-                startAuctionBtn.setEnabled(true);
-                timerLabel.setForeground(Color.WHITE);
-                timerBar.setForeground(ACCENT);
-
-                BidHistoryPanel.BidRecord w = bidHistoryPanel.getHighestBid();
-                String result;
-                if (w != null) {
-                    result = String.format("Winner: %s with $%.2f!", w.getBidder(), w.getAmount());
-                } else {
-                    result = "No bids were placed.";
-                }
-                statusLabel.setText("Auction ended. " + result);
-                JOptionPane.showMessageDialog(this, result,
-                    "Auction Ended", JOptionPane.INFORMATION_MESSAGE);
-            }
-        });
+        // Countdown display only; the seller closes the auction and names the winner
+        auctionTimer = new Timer(1000, ev -> refreshCountdown());
         auctionTimer.start();
     }
 
+    private void refreshCountdown() {
+        int timeLeft = (int) Math.max(0, (endTimeMs - System.currentTimeMillis() + 999) / 1000);
+        int mins = timeLeft / 60;
+        int secs = timeLeft % 60;
+        timerLabel.setText(String.format("%02d:%02d", mins, secs));
+        timerBar.setValue(timeLeft);
+
+        if (timeLeft <= 10) {
+            timerLabel.setForeground(DANGER);
+            timerBar.setForeground(DANGER);
+        } else if (timeLeft <= 20) {
+            timerLabel.setForeground(WARNING);
+            timerBar.setForeground(WARNING);
+        }
+
+        if (timeLeft <= 0) {
+            auctionTimer.stop();
+            placeBidBtn.setEnabled(false);
+            statusLabel.setText("Time is up - waiting for the seller's result...");
+        }
+    }
+
+    /** A late bid pushed the end back (soft close). */
+    public void extendAuction(long newEndTimeMs) {
+        endTimeMs = newEndTimeMs;
+        int timeLeft = (int) Math.max(0, (endTimeMs - System.currentTimeMillis() + 999) / 1000);
+        timerBar.setMaximum(Math.max(timerBar.getMaximum(), timeLeft));
+        statusLabel.setText(String.format("Late bid: auction extended, %d s left", timeLeft));
+        if (auctionTimer != null && !auctionTimer.isRunning()) {
+            placeBidBtn.setEnabled(true);
+            auctionTimer.start();
+        }
+        refreshCountdown();
+    }
+
+    /** The seller's authoritative result; {@code winner} is null if nobody bid. */
+    public void closeAuction(String winner, double amount) {
+        if (auctionTimer != null) auctionTimer.stop();
+        placeBidBtn.setEnabled(false);
+        startAuctionBtn.setEnabled(true);
+        timerLabel.setText("00:00");
+        timerBar.setValue(0);
+        timerLabel.setForeground(Color.WHITE);
+        timerBar.setForeground(ACCENT);
+
+        String result;
+        if (winner != null) {
+            result = String.format("Winner: %s with $%.2f!", winner, amount);
+        } else {
+            result = "No bids were placed.";
+        }
+        statusLabel.setText("Auction ended. " + result);
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, result,
+            "Auction Ended", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /** Show one bid right away; agents should post to {@link FrameUpdates} instead. */
     public void updateBid(String bidder, double amount) {
         bidHistoryPanel.addBid(bidder, amount);
+        showPrice(bidder, amount, 1);
+    }
+
+    /** Price labels and flash for the latest of {@code bids} new bids. */
+    private void showPrice(String bidder, double amount, int bids) {
         currentPriceLbl.setText(String.format("$%.2f", amount));
         highestBidderLabel.setText(bidder);
         highestBidderLabel.setForeground(SUCCESS);
-        statusLabel.setText(String.format("New bid: %s placed $%.2f", bidder, amount));
-
-        // Flash effect on price change
-        Timer flash = new Timer(100, null);
-        final int[] count = {0};
-        flash.addActionListener(e -> {
-            count[0]++;
-            currentPriceLbl.setForeground(count[0] % 2 == 0 ? PRIMARY : SUCCESS);
-            if (count[0] >= 6) {
-                flash.stop();
-                currentPriceLbl.setForeground(PRIMARY);
-            }
-        });
-        flash.start();
+        statusLabel.setText(bids == 1
+            ? String.format("New bid: %s placed $%.2f", bidder, amount)
+            : String.format("%d new bids, latest: %s placed $%.2f", bids, bidder, amount));
+
+        // Flash effect on price change; a new bid restarts the running flash
+        flashTicksLeft = FLASH_TICKS;
+        flashTimer.restart();
+    }
+
+    @Override
+    public void dispose() {
+        renderTimer.stop();
+        flashTimer.stop();
+        if (auctionTimer != null) auctionTimer.stop();
+        super.dispose();
     }
 }
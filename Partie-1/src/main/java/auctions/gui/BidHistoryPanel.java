@@ -7,9 +7,6 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JLabel;
@@ -18,7 +15,6 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 public class BidHistoryPanel extends JPanel {
 
@@ -28,14 +24,21 @@ public class BidHistoryPanel extends JPanel {
     private static final Color SUCCESS   = new Color(46, 204, 113);
     private static final Color TEXT_DARK  = new Color(44, 62, 80);
     private static final Color TEXT_LIGHT = new Color(149, 165, 166);
+    private static final Font  CELL_FONT   = new Font("Segoe UI", Font.PLAIN, 13);
+    private static final Font  AMOUNT_FONT = new Font("Segoe UI", Font.BOLD, 13);
 
-    private final DefaultTableModel tableModel;
+    // Last bids only; the seller's journal has the full history
+    private final BidHistoryTableModel tableModel;
     private final JTable table;
-    private final List<BidRecord> bidRecords = new ArrayList<>();
     private final DateTimeFormatter timeFmt = DateTimeFormatter.ofPattern("HH:mm:ss");
     private final JLabel countLabel;
 
     public BidHistoryPanel() {
+        this(BidHistoryTableModel.DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity number of most recent bids shown */
+    public BidHistoryPanel(int capacity) {
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
         setBorder(BorderFactory.createLineBorder(new Color(220, 225, 230)));
@@ -58,16 +61,10 @@ public class BidHistoryPanel extends JPanel {
         add(header, BorderLayout.NORTH);
 
         // Table
-        String[] columns = {"#", "Bidder", "Amount", "Time"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int col) {
-                return false;
-            }
-        };
+        tableModel = new BidHistoryTableModel(capacity);
 
         table = new JTable(tableModel);
-        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setFont(CELL_FONT);
         table.setRowHeight(32);
         table.setShowGrid(false);
         table.setIntercellSpacing(new Dimension(0, 0));
@@ -99,10 +96,10 @@ public class BidHistoryPanel extends JPanel {
                 setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
                 if (col == 2) {
                     setForeground(SUCCESS);
-                    setFont(new Font("Segoe UI", Font.BOLD, 13));
+                    setFont(AMOUNT_FONT);
                 } else {
                     setForeground(TEXT_DARK);
-                    setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                    setFont(CELL_FONT);
                 }
                 return comp;
             }
@@ -113,28 +110,30 @@ public class BidHistoryPanel extends JPanel {
         add(sp, BorderLayout.CENTER);
     }
 
+    /** Applied right away on the Swing thread (the frame's render tick), else queued to it. */
     public void addBid(String bidder, double amount) {
-        SwingUtilities.invokeLater(() -> {
-            String ts = LocalTime.now().format(timeFmt);
-            int num = bidRecords.size() + 1;
-            tableModel.insertRow(0, new Object[]{num, bidder, String.format("$%.2f", amount), ts});
-            bidRecords.add(new BidRecord(bidder, amount, ts));
-            countLabel.setText(bidRecords.size() + " bid" + (bidRecords.size() != 1 ? "s" : ""));
-        });
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> addBid(bidder, amount));
+            return;
+        }
+        tableModel.add(bidder, amount, LocalTime.now().format(timeFmt));
+        int total = tableModel.getTotalBids();
+        countLabel.setText(total + " bid" + (total != 1 ? "s" : "")
+            + (total > tableModel.getCapacity() ? " (last " + tableModel.getCapacity() + " shown)" : ""));
     }
 
     public void clearHistory() {
-        SwingUtilities.invokeLater(() -> {
-            tableModel.setRowCount(0);
-            bidRecords.clear();
-            countLabel.setText("0 bids");
-        });
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::clearHistory);
+            return;
+        }
+        tableModel.clear();
+        countLabel.setText("0 bids");
     }
 
+    /** Call on the Swing thread. */
     public BidRecord getHighestBid() {
-        return bidRecords.stream()
-            .max(Comparator.comparingDouble(BidRecord::getAmount))
-            .orElse(null);
+        return tableModel.getHighestBid();
     }
 
     // Inner class to hold bid data
@@ -0,0 +1,117 @@
+package auctions.gui;
+
+import java.util.Arrays;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Most recent bids, newest first, in a fixed-capacity ring buffer.
+ *
+ * Adding a bid is O(1) whatever the history length: the head moves back
+ * one slot and the oldest row is overwritten once the buffer is full, so
+ * no rows are shifted and memory stays bounded. The highest bid is kept
+ * as bids arrive. Older bids are not kept here: the seller serves the
+ * complete history from its journal, a page at a time, at
+ * GET /auctions/{id}/bids (see {@link auctions.http.AuctionSnapshotServer}).
+ *
+ * Swing thread only, like any table model.
+ */
+public class BidHistoryTableModel extends AbstractTableModel {
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private static final String[] COLUMNS = {"#", "Bidder", "Amount", "Time"};
+
+    private final int capacity;
+    private final int[] numbers;
+    private final String[] bidders;
+    private final String[] amountTexts;   // formatted once, not on every repaint
+    private final String[] times;
+    private int head;    // slot of the newest row
+    private int size;
+    private int total;   // bids ever added, including the ones dropped
+
+    private String highestBidder;
+    private double highestAmount;
+    private String highestTime;
+
+    public BidHistoryTableModel(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        numbers     = new int[this.capacity];
+        bidders     = new String[this.capacity];
+        amountTexts = new String[this.capacity];
+        times       = new String[this.capacity];
+    }
+
+    public BidHistoryTableModel() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Put a bid on top; drops the oldest row if the buffer is full. */
+    public void add(String bidder, double amount, String time) {
+        head = (head + capacity - 1) % capacity;
+        total++;
+        numbers[head]     = total;
+        bidders[head]     = bidder;
+        amountTexts[head] = String.format("$%.2f", amount);
+        times[head]       = time;
+
+        if (highestBidder == null || amount > highestAmount) {
+            highestBidder = bidder;
+            highestAmount = amount;
+            highestTime   = time;
+        }
+
+        if (size < capacity) {
+            size++;
+        } else {
+            fireTableRowsDeleted(capacity - 1, capacity - 1);
+        }
+        fireTableRowsInserted(0, 0);
+    }
+
+    public void clear() {
+        int rows = size;
+        head = 0;
+        size = 0;
+        total = 0;
+        highestBidder = null;
+        highestAmount = 0;
+        highestTime = null;
+        Arrays.fill(bidders, null);
+        Arrays.fill(amountTexts, null);
+        Arrays.fill(times, null);
+        if (rows > 0) {
+            fireTableRowsDeleted(0, rows - 1);
+        }
+    }
+
+    /** Highest bid seen since the last clear, or null if none. */
+    public BidHistoryPanel.BidRecord getHighestBid() {
+        return highestBidder == null ? null
+            : new BidHistoryPanel.BidRecord(highestBidder, highestAmount, highestTime);
+    }
+
+    public int getCapacity()   { return capacity; }
+    /** Bids added since the last clear; may exceed the rows kept. */
+    public int getTotalBids()  { return total; }
+
+    @Override
+    public int getRowCount()    { return size; }
+
+    @Override
+    public int getColumnCount() { return COLUMNS.length; }
+
+    @Override
+    public String getColumnName(int col) { return COLUMNS[col]; }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        int slot = (head + row) % capacity;
+        switch (col) {
+            case 0:  return numbers[slot];
+            case 1:  return bidders[slot];
+            case 2:  return amountTexts[slot];
+            default: return times[slot];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package auctions.gui;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Hand-off from the agent thread to {@link AuctionFrame}.
+ *
+ * The agent posts here without touching Swing (a short lock, never waits
+ * on the EDT); the frame drains everything on its own render tick, a few
+ * dozen times a second, so a burst of bids costs one repaint instead of
+ * one EDT task per message. Order is kept, so lifecycle events never
+ * overtake the bids before them.
+ *
+ * At most {@code maxBids} bids wait at once, the most the history table
+ * shows: if the frame falls behind, the oldest pending bid is dropped for
+ * each new one, so memory stays bounded and the price still comes from
+ * the latest bid. Lifecycle events are never dropped.
+ */
+public class FrameUpdates {
+    static final int NEW_AUCTION = 1;
+    static final int BID         = 2;
+    static final int EXTENDED    = 3;
+    static final int CLOSE       = 4;
+
+    /** One posted event; {@code text} is the item, bidder or winner. */
+    static final class Update {
+        final int kind;
+        final String text;
+        final double amount;
+        final long endTimeMs;
+
+        Update(int kind, String text, double amount, long endTimeMs) {
+            this.kind = kind;
+            this.text = text;
+            this.amount = amount;
+            this.endTimeMs = endTimeMs;
+        }
+    }
+
+    private final int maxBids;
+    private final ArrayDeque<Update> pending = new ArrayDeque<>();
+    private int pendingBids;
+    private int droppedSinceTaken;
+    private long posted;
+    private long dropped;
+
+    public FrameUpdates() {
+        this(BidHistoryTableModel.DEFAULT_CAPACITY);
+    }
+
+    /** @param maxBids bids kept while the frame has not drained them, at least 1 */
+    public FrameUpdates(int maxBids) {
+        this.maxBids = Math.max(1, maxBids);
+    }
+
+    /** {@code endTimeMs} is the seller's end time, or 0 if the announcement had none. */
+    public void newAuction(String item, double startPrice, long endTimeMs) {
+        post(new Update(NEW_AUCTION, item, startPrice, endTimeMs));
+    }
+
+    public void bid(String bidder, double amount) {
+        post(new Update(BID, bidder, amount, 0));
+    }
+
+    public void extended(long endTimeMs) {
+        post(new Update(EXTENDED, null, 0, endTimeMs));
+    }
+
+    /** {@code winner} is null if nobody bid. */
+    public void closed(String winner, double amount) {
+        post(new Update(CLOSE, winner, amount, 0));
+    }
+
+    private synchronized void post(Update u) {
+        pending.addLast(u);
+        posted++;
+        if (u.kind == BID && ++pendingBids > maxBids) {
+            // Lifecycle events are rare, so the oldest bid is close to the head
+            for (Iterator<Update> it = pending.iterator(); it.hasNext(); ) {
+                if (it.next().kind == BID) {
+                    it.remove();
+                    break;
+                }
+            }
+            pendingBids--;
+            droppedSinceTaken++;
+            dropped++;
+        }
+    }
+
+    /** Next update in posting order, or null; render thread only. */
+    synchronized Update poll() {
+        Update u = pending.pollFirst();
+        if (u != null && u.kind == BID) pendingBids--;
+        return u;
+    }
+
+    /** Bids dropped since the last call, so the frame can still count them; render thread only. */
+    synchronized int takeDropped() {
+        int n = droppedSinceTaken;
+        droppedSinceTaken = 0;
+        return n;
+    }
+
+    public synchronized long getPosted()  { return posted; }
+    /** Bids dropped because the frame fell more than {@code maxBids} behind. */
+    public synchronized long getDropped() { return dropped; }
+}
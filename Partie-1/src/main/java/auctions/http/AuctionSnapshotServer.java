@@ -0,0 +1,322 @@
+package auctions.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import auctions.journal.BidJournal;
+import auctions.journal.JournalRecord;
+import auctions.models.Auction;
+import auctions.models.Money;
+import auctions.models.PriceLadder;
+
+/**
+ * Read-only JSON view of the seller's live auctions over HTTP:
+ *
+ *   GET /auctions        all live auctions (id, item, price, leader, end time)
+ *   GET /auctions/{id}   one auction with its recent bid ladder
+ *   GET /auctions/{id}/bids?before=seq&limit=n
+ *                        one page of its full bid history from the journal,
+ *                        newest first; live auctions and the last
+ *                        {@value #CLOSED_KEPT} closed or handed off
+ *
+ * Each auction is serialized once per state: the cached bytes are keyed by
+ * the ladder version and end time, so polling an unchanged auction costs a
+ * map lookup and a copy. The list response is stitched from the cached
+ * per-auction bytes. Detail responses carry an ETag of that state and
+ * answer a matching If-None-Match with 304.
+ *
+ * Reads the seller's map from the HTTP threads, so the map must be
+ * concurrent; the price state it reads is immutable ({@link PriceLadder.State}).
+ */
+public class AuctionSnapshotServer implements Closeable {
+    private static final byte[] EMPTY = new byte[0];
+    private static final int MAX_PAGE = 500;
+    static final int CLOSED_KEPT = 10_000;
+
+    private final Map<String, Auction> auctions;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Path journalDir;
+    // Journal range {first, last seq} of recently closed auctions, oldest dropped first
+    private final Map<String, long[]> closed = new LinkedHashMap<String, long[]>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+            return size() > CLOSED_KEPT;
+        }
+    };
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder serialized = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    /** Serialized forms of one auction state. */
+    private static final class Cached {
+        final long version;
+        final long endTime;
+        final String etag;
+        final byte[] summary;
+        final byte[] detail;
+
+        Cached(long version, long endTime, String etag, byte[] summary, byte[] detail) {
+            this.version = version;
+            this.endTime = endTime;
+            this.etag    = etag;
+            this.summary = summary;
+            this.detail  = detail;
+        }
+    }
+
+    /** JSON shape of an auction; the ladder (newest bid first) only in the detail. */
+    private static final class AuctionView {
+        String id;
+        String item;
+        double startPrice;
+        double reservePrice;
+        double price;
+        String leader;
+        long endsAt;
+        long version;
+        LadderEntry[] ladder;
+    }
+
+    /** JSON shape of one bid of the history. */
+    private static final class BidView {
+        final long seq;
+        final String bidder;
+        final double amount;
+        final long time;
+
+        BidView(JournalRecord r) {
+            this.seq    = r.getSeq();
+            this.bidder = r.getName();
+            this.amount = Money.toAmount(r.getCents());
+            this.time   = r.getTimestampMs();
+        }
+    }
+
+    private static final class LadderEntry {
+        final String bidder;
+        final double amount;
+
+        LadderEntry(String bidder, double amount) {
+            this.bidder = bidder;
+            this.amount = amount;
+        }
+    }
+
+    public AuctionSnapshotServer(Map<String, Auction> auctions, String host, int port, int threads)
+            throws IOException {
+        this.auctions = auctions;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "auction-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/auctions", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    /** Serve bid history from the journal in {@code dir}; without one, /bids answers 404. */
+    public void setJournal(Path dir) {
+        this.journalDir = dir;
+    }
+
+    /**
+     * Drop the cached bytes of a closed auction and remember where its
+     * history ends ({@code lastSeq}, its CLOSE or HANDED_OFF record). Call it
+     * after removing the auction from the map, so a request racing with it
+     * cannot put it back.
+     */
+    public void forget(Auction auction, long lastSeq) {
+        cache.remove(auction.getId());
+        synchronized (closed) {
+            closed.put(auction.getId(), new long[] {auction.getFirstJournalSeq(), lastSeq});
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            requests.increment();
+            if (!"GET".equals(ex.getRequestMethod())) {
+                send(ex, 405, EMPTY);
+                return;
+            }
+            String path = ex.getRequestURI().getPath();
+            String id = path.length() > "/auctions/".length() ? path.substring("/auctions/".length()) : null;
+            if (id == null) {
+                send(ex, 200, list());
+                return;
+            }
+            if (id.endsWith("/bids")) {
+                history(ex, id.substring(0, id.length() - "/bids".length()));
+                return;
+            }
+            Auction auction = auctions.get(id);
+            if (auction == null) {
+                send(ex, 404, EMPTY);
+                return;
+            }
+            Cached c = cached(auction);
+            ex.getResponseHeaders().set("ETag", c.etag);
+            if (c.etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                ex.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(ex, 200, c.detail);
+        } finally {
+            ex.close();
+        }
+    }
+
+    /** A page of bids read from the journal; not cached, history is polled rarely. */
+    private void history(HttpExchange ex, String id) throws IOException {
+        Path dir = journalDir;
+        if (dir == null) {
+            send(ex, 404, EMPTY);
+            return;
+        }
+        // Read only the auction's own stretch of the journal
+        long fromSeq;
+        long before = Long.MAX_VALUE;
+        Auction live = auctions.get(id);
+        if (live != null) {
+            fromSeq = live.getFirstJournalSeq();
+        } else {
+            long[] range;
+            synchronized (closed) {
+                range = closed.get(id);
+            }
+            if (range == null) {
+                send(ex, 404, EMPTY);
+                return;
+            }
+            fromSeq = range[0];
+            before = range[1] + 1;
+        }
+        int limit = 100;
+        String query = ex.getRequestURI().getRawQuery();
+        try {
+            for (String param : query != null ? query.split("&") : new String[0]) {
+                if (param.startsWith("before=")) before = Math.min(before, Long.parseLong(param.substring(7)));
+                else if (param.startsWith("limit=")) limit = Math.min(MAX_PAGE, Integer.parseInt(param.substring(6)));
+            }
+        } catch (NumberFormatException e) {
+            send(ex, 400, EMPTY);
+            return;
+        }
+        List<JournalRecord> page = BidJournal.readBids(dir, id, fromSeq, before, limit);
+        BidView[] views = new BidView[page.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new BidView(page.get(i));
+        }
+        send(ex, 200, gson.toJson(views).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] list() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * Math.max(1, auctions.size()));
+        out.write('[');
+        boolean first = true;
+        for (Auction auction : auctions.values()) {
+            if (!first) out.write(',');
+            first = false;
+            byte[] summary = cached(auction).summary;
+            out.write(summary, 0, summary.length);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /** Serialized state of {@code auction}, reusing the cache while it is unchanged. */
+    private Cached cached(Auction auction) {
+        PriceLadder.State s = auction.getLadder().snapshot();
+        long endTime = auction.getEndTime();
+        Cached c = cache.get(auction.getId());
+        if (c != null && c.version == s.version && c.endTime == endTime) {
+            hits.increment();
+            return c;
+        }
+        // Two threads may both serialize a new state; either result is right
+        c = serialize(auction, s, endTime);
+        cache.put(auction.getId(), c);
+        // forget() may have run since the lookup: do not keep a closed auction
+        if (!auctions.containsKey(auction.getId())) {
+            cache.remove(auction.getId(), c);
+        }
+        serialized.increment();
+        return c;
+    }
+
+    private Cached serialize(Auction auction, PriceLadder.State s, long endTime) {
+        AuctionView d = new AuctionView();
+        d.id           = auction.getId();
+        d.item         = auction.getItem();
+        d.startPrice   = Money.toAmount(auction.getLadder().getStartCents());
+        d.reservePrice = auction.getReservePrice();
+        d.price        = Money.toAmount(s.priceCents);
+        d.leader       = s.leader;
+        d.endsAt       = endTime;
+        d.version      = s.version;
+        // Gson leaves out null fields: without the ladder this is the list entry
+        byte[] summary = gson.toJson(d).getBytes(StandardCharsets.UTF_8);
+
+        d.ladder = new LadderEntry[s.ladderSize()];
+        for (int k = 0; k < d.ladder.length; k++) {
+            d.ladder[k] = new LadderEntry(s.bidderAt(k), Money.toAmount(s.amountAt(k)));
+        }
+        String etag = "\"" + d.id + "-" + s.version + "-" + endTime + "\"";
+        return new Cached(s.version, endTime, etag, summary, gson.toJson(d).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange ex, int status, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public long getRequests()    { return requests.sum(); }
+    public long getCacheHits()   { return hits.sum(); }
+    public long getSerialized()  { return serialized.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("http :%d: %d requests, %d cache hits, %d serializations, %d not modified",
+            getPort(), getRequests(), getCacheHits(), getSerialized(), notModified.sum());
+    }
+}
@@ -0,0 +1,423 @@
+package auctions.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import auctions.utils.AuctionCodec;
+import auctions.utils.SymbolTable;
+
+/**
+ * Append-only event journal of the seller: NEW_AUCTION, accepted BID,
+ * PROXY, EXTENDED, CLOSE and HANDED_OFF events, enough to rebuild every
+ * live auction.
+ *
+ * The journal is a directory of fixed-size segment files named after the
+ * sequence number of their first record. The active segment is written
+ * through a {@link MappedByteBuffer}; records are a fixed 128 bytes
+ * (big-endian) so a segment needs no index:
+ *
+ *   0   int    CRC32C of bytes 4..127
+ *   4   byte   type ({@link JournalRecord})
+ *   5   byte   name length n (at most 72)
+ *   8   long   sequence number
+ *   16  long   timestamp, epoch ms
+ *   24  long   auction id, most significant UUID bits
+ *   32  long   auction id, least significant UUID bits
+ *   40  long   amount in cents
+ *   48  long   aux (end time for NEW_AUCTION / EXTENDED)
+ *   56  n      name, UTF-8, truncated to 72 bytes
+ *
+ * Recovery stops at the first record that is zero, fails its CRC or breaks
+ * the sequence (a torn write at crash time); appending resumes there.
+ * Segments are kept unless pruned (see {@link Snapshotter}), so the journal
+ * is also the bid history, read back with {@link #readBids}.
+ *
+ * Not thread-safe: used from the seller's thread only.
+ */
+public class BidJournal implements Closeable {
+    public static final int RECORD_SIZE = 128;
+    public static final int MAX_NAME    = 72;
+    /** Largest segment a single {@link MappedByteBuffer} can map, in whole records. */
+    public static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE / RECORD_SIZE * (long) RECORD_SIZE;
+    // History reads go through one small heap buffer instead of mapping segments
+    private static final int READ_CHUNK = 512 * RECORD_SIZE;
+
+    private static final int OFF_TYPE  = 4;
+    private static final int OFF_NLEN  = 5;
+    private static final int OFF_SEQ   = 8;
+    private static final int OFF_TIME  = 16;
+    private static final int OFF_ID    = 24;
+    private static final int OFF_CENTS = 40;
+    private static final int OFF_AUX   = 48;
+    private static final int OFF_NAME  = 56;
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final SyncPolicy policy;
+    private final long syncIntervalMs;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSeq = 1;
+    private boolean recovered;
+
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer record = ByteBuffer.wrap(scratch);
+    private final CRC32C crc = new CRC32C();
+    private boolean unsynced;
+    private long lastSyncMs;
+
+    private long appended;
+    private long syncs;
+    private long segmentsOpened;
+
+    /**
+     * @param segmentBytes size of each segment file, rounded down to whole records;
+     *        from one record up to {@link #MAX_SEGMENT_BYTES}
+     * @param syncIntervalMs minimum gap between syncs for {@link SyncPolicy#INTERVAL}
+     * @throws IllegalArgumentException if {@code segmentBytes} is out of that range
+     */
+    public BidJournal(Path dir, long segmentBytes, SyncPolicy policy, long syncIntervalMs) throws IOException {
+        if (segmentBytes < RECORD_SIZE || segmentBytes > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException(String.format(
+                "journal segment size %d bytes is out of range: %d bytes (one record) to %d bytes (%d MB)",
+                segmentBytes, RECORD_SIZE, MAX_SEGMENT_BYTES, MAX_SEGMENT_BYTES >> 20));
+        }
+        this.dir            = dir;
+        this.segmentBytes   = segmentBytes / RECORD_SIZE * RECORD_SIZE;
+        this.policy         = policy;
+        this.syncIntervalMs = syncIntervalMs;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Replay every intact record with {@code seq >= fromSeq} to {@code handler}
+     * (which may be null), then position the journal for appending after the
+     * last intact record. Must be called once before the first append.
+     *
+     * @return the number of records handed to {@code handler}
+     */
+    public long recover(long fromSeq, Consumer<JournalRecord> handler) throws IOException {
+        if (recovered) throw new IllegalStateException("already recovered");
+        recovered = true;
+
+        List<Path> segments = listSegments(dir);
+        JournalRecord r = new JournalRecord();
+        SymbolTable symbols = new SymbolTable();
+        long replayed = 0;
+        Path tailSegment = null;
+        long tailOffset = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long firstSeq = firstSeqOf(segment);
+            if (i > 0 && firstSeq != nextSeq) {
+                // A gap means the previous segment ended early: keep the rest aside
+                quarantine(segments.subList(i, segments.size()));
+                break;
+            }
+            // Whole segments before fromSeq only need their record count
+            boolean skip = i + 1 < segments.size() && firstSeqOf(segments.get(i + 1)) <= fromSeq;
+            if (skip) {
+                nextSeq = firstSeqOf(segments.get(i + 1));
+                continue;
+            }
+
+            nextSeq = firstSeq;
+            long offset = 0;
+            try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+                long size = ch.size();
+                MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                while (offset + RECORD_SIZE <= size) {
+                    in.get(scratch, 0, RECORD_SIZE);
+                    if (!decode(r, symbols)) break;
+                    if (r.seq >= fromSeq && handler != null) {
+                        handler.accept(r);
+                        replayed++;
+                    }
+                    nextSeq++;
+                    offset += RECORD_SIZE;
+                }
+                tailSegment = segment;
+                tailOffset  = offset;
+                if (offset + RECORD_SIZE <= size && i + 1 < segments.size()) {
+                    // Damage inside an older segment: later records cannot be trusted
+                    System.err.printf("[JOURNAL] %s damaged at record %d; setting later segments aside%n",
+                        segment.getFileName(), offset / RECORD_SIZE);
+                    quarantine(segments.subList(i + 1, segments.size()));
+                    break;
+                }
+            }
+        }
+
+        if (tailSegment == null || tailOffset + RECORD_SIZE > segmentBytes) {
+            openSegment(nextSeq, 0);
+        } else {
+            openSegment(firstSeqOf(tailSegment), tailOffset);
+        }
+        return replayed;
+    }
+
+    private boolean decode(JournalRecord r, SymbolTable symbols) {
+        record.clear();
+        byte type = scratch[OFF_TYPE];
+        if (type == 0) return false;
+        crc.reset();
+        crc.update(scratch, OFF_TYPE, RECORD_SIZE - OFF_TYPE);
+        if ((int) crc.getValue() != record.getInt(0)) return false;
+        long seq = record.getLong(OFF_SEQ);
+        if (seq != nextSeq) return false;
+        int nameLen = Math.min(scratch[OFF_NLEN] & 0xff, MAX_NAME);
+
+        r.type        = type;
+        r.seq         = seq;
+        r.timestampMs = record.getLong(OFF_TIME);
+        r.auctionId   = symbols.internUuid(scratch, OFF_ID);
+        r.cents       = record.getLong(OFF_CENTS);
+        r.aux         = record.getLong(OFF_AUX);
+        r.name        = symbols.internUtf8(scratch, OFF_NAME, nameLen);
+        return true;
+    }
+
+    /**
+     * Append one record and return its sequence number. It is durable once
+     * the sync policy says so (see {@link #commit()}).
+     */
+    public long append(byte type, String auctionId, long cents, long aux, String name) throws IOException {
+        if (!recovered) throw new IllegalStateException("recover() first");
+        if (buffer.remaining() < RECORD_SIZE) {
+            rollSegment();
+        }
+
+        long seq = nextSeq++;
+        Arrays.fill(scratch, (byte) 0);
+        record.clear();
+        scratch[OFF_TYPE] = type;
+        record.putLong(OFF_SEQ, seq);
+        record.putLong(OFF_TIME, System.currentTimeMillis());
+        AuctionCodec.putUuid(auctionId, scratch, OFF_ID);
+        record.putLong(OFF_CENTS, cents);
+        record.putLong(OFF_AUX, aux);
+        int nameLen = putName(name);
+        scratch[OFF_NLEN] = (byte) nameLen;
+        crc.reset();
+        crc.update(scratch, OFF_TYPE, RECORD_SIZE - OFF_TYPE);
+        record.putInt(0, (int) crc.getValue());
+
+        buffer.put(scratch, 0, RECORD_SIZE);
+        appended++;
+        unsynced = true;
+        if (policy == SyncPolicy.ALWAYS) {
+            sync();
+        }
+        return seq;
+    }
+
+    /** UTF-8 name, cut at a character boundary if longer than {@link #MAX_NAME}. */
+    private int putName(String name) {
+        if (name == null || name.isEmpty()) return 0;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int n = Math.min(bytes.length, MAX_NAME);
+        while (n < bytes.length && n > 0 && (bytes[n] & 0xc0) == 0x80) {
+            n--;   // do not split a multi-byte character
+        }
+        System.arraycopy(bytes, 0, scratch, OFF_NAME, n);
+        return n;
+    }
+
+    /** End of a group of appends (one seller batch): sync if the policy asks for it. */
+    public void commit() {
+        if (!unsynced) return;
+        if (policy == SyncPolicy.BATCH
+            || (policy == SyncPolicy.INTERVAL
+                && System.currentTimeMillis() - lastSyncMs >= syncIntervalMs)) {
+            sync();
+        }
+    }
+
+    /** Force everything appended so far to disk. */
+    public void sync() {
+        if (buffer == null || !unsynced) return;
+        buffer.force();
+        unsynced = false;
+        lastSyncMs = System.currentTimeMillis();
+        syncs++;
+    }
+
+    private void rollSegment() throws IOException {
+        if (policy != SyncPolicy.NEVER) {
+            sync();
+        }
+        channel.close();
+        openSegment(nextSeq, 0);
+    }
+
+    private void openSegment(long firstSeq, long offset) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.position((int) offset);
+        segmentsOpened++;
+    }
+
+    /**
+     * One page of an auction's bid history: its BID records with
+     * {@code fromSeq <= seq < beforeSeq}, newest first, at most {@code limit}.
+     * {@code fromSeq} is where the auction's records start (its NEW_AUCTION,
+     * 0 if unknown) and {@code beforeSeq} the smallest seq of the previous
+     * page, or where they end; only the segments that overlap that range
+     * are read, from the first record in it.
+     *
+     * Reads the segment files read-only, in chunks and without mapping
+     * them, so it may run on another thread while the owner appends; in
+     * each segment it stops at the first record that is not intact, as
+     * recovery does.
+     */
+    public static List<JournalRecord> readBids(Path dir, String auctionId, long fromSeq, long beforeSeq,
+            int limit) throws IOException {
+        List<JournalRecord> page = new ArrayList<>();
+        if (limit <= 0 || !AuctionCodec.isUuid(auctionId) || !Files.isDirectory(dir)) return page;
+        byte[] id = new byte[16];
+        AuctionCodec.putUuid(auctionId, id, 0);
+
+        ArrayDeque<JournalRecord> newest = new ArrayDeque<>(limit);
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK);
+        byte[] buf = new byte[RECORD_SIZE];
+        ByteBuffer rec = ByteBuffer.wrap(buf);
+        CRC32C crc = new CRC32C();
+        List<Path> segments = listSegments(dir);
+        for (int i = 0; i < segments.size(); i++) {
+            long first = firstSeqOf(segments.get(i));
+            if (first >= beforeSeq) break;
+            // Ends before the range starts: the next segment begins at or before fromSeq
+            if (i + 1 < segments.size() && firstSeqOf(segments.get(i + 1)) <= fromSeq) continue;
+            long seq = Math.max(first, fromSeq);
+            try (FileChannel ch = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                long pos = (seq - first) * RECORD_SIZE;
+                chunk.clear().flip();
+                while (seq < beforeSeq) {
+                    if (chunk.remaining() < RECORD_SIZE) {
+                        chunk.clear();
+                        int n = ch.read(chunk, pos);
+                        chunk.flip();
+                        if (n < RECORD_SIZE) break;
+                        pos += n - n % RECORD_SIZE;
+                        chunk.limit(n - n % RECORD_SIZE);
+                    }
+                    chunk.get(buf, 0, RECORD_SIZE);
+                    if (!readBid(buf, rec, crc, seq, id, newest, limit, auctionId)) break;
+                    seq++;
+                }
+            } catch (NoSuchFileException e) {
+                continue;   // pruned since it was listed
+            }
+        }
+        newest.descendingIterator().forEachRemaining(page::add);
+        return page;
+    }
+
+    /** One record for {@link #readBids}: keeps it if it is a bid of {@code id}; false if not intact. */
+    private static boolean readBid(byte[] buf, ByteBuffer rec, CRC32C crc, long seq, byte[] id,
+            ArrayDeque<JournalRecord> newest, int limit, String auctionId) {
+        if (buf[OFF_TYPE] == 0) return false;
+        crc.reset();
+        crc.update(buf, OFF_TYPE, RECORD_SIZE - OFF_TYPE);
+        if ((int) crc.getValue() != rec.getInt(0) || rec.getLong(OFF_SEQ) != seq) return false;
+        if (buf[OFF_TYPE] != JournalRecord.BID || !Arrays.equals(buf, OFF_ID, OFF_ID + 16, id, 0, 16)) {
+            return true;
+        }
+        if (newest.size() == limit) newest.removeFirst();
+        JournalRecord r = new JournalRecord();
+        r.type        = JournalRecord.BID;
+        r.seq         = seq;
+        r.timestampMs = rec.getLong(OFF_TIME);
+        r.auctionId   = auctionId;
+        r.cents       = rec.getLong(OFF_CENTS);
+        r.name        = new String(buf, OFF_NAME, Math.min(buf[OFF_NLEN] & 0xff, MAX_NAME),
+            StandardCharsets.UTF_8);
+        newest.addLast(r);
+        return true;
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : ds) {
+                segments.add(p);
+            }
+        }
+        Collections.sort(segments);   // zero-padded names sort by first sequence
+        return segments;
+    }
+
+    private static long firstSeqOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void quarantine(List<Path> segments) throws IOException {
+        for (Path p : segments) {
+            Files.move(p, p.resolveSibling(p.getFileName() + ".orphan"), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Delete whole segments whose records all have {@code seq <= upToSeq},
+     * e.g. once a snapshot covers them. Only touches closed segments, so it
+     * may run on a background thread while the owner keeps appending.
+     */
+    public int deleteCovered(long upToSeq) throws IOException {
+        List<Path> segments = listSegments(dir);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSeqOf(segments.get(i + 1)) > upToSeq + 1) break;
+            Files.delete(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        sync();
+        channel.close();
+        channel = null;
+        buffer = null;
+    }
+
+    public Path getDirectory()      { return dir; }
+    public SyncPolicy getPolicy()   { return policy; }
+    /** Sequence number the next append will get. */
+    public long getNextSeq()        { return nextSeq; }
+    public long getAppended()       { return appended; }
+    public long getSyncs()          { return syncs; }
+    public long getSegmentsOpened() { return segmentsOpened; }
+
+    @Override
+    public String toString() {
+        return String.format("journal %s (%s): %d records appended, %d syncs, next seq %d",
+            dir, policy, appended, syncs, nextSeq);
+    }
+}
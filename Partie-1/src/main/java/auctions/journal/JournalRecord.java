@@ -0,0 +1,38 @@
+package auctions.journal;
+
+/**
+ * One decoded journal record. {@link BidJournal#recover} reuses a single
+ * instance for every record it replays; copy what you keep.
+ */
+public final class JournalRecord {
+    public static final byte NEW_AUCTION = 1;
+    public static final byte BID         = 2;
+    public static final byte PROXY       = 3;
+    public static final byte EXTENDED    = 4;
+    public static final byte CLOSE       = 5;
+    /** The auction moved to another seller of the pool; recovery drops it. */
+    public static final byte HANDED_OFF  = 6;
+
+    byte type;
+    long seq;
+    long timestampMs;
+    String auctionId;
+    long cents;
+    long aux;
+    String name;
+
+    public byte getType()         { return type; }
+    /** Position in the journal, starting at 1, without gaps. */
+    public long getSeq()          { return seq; }
+    public long getTimestampMs()  { return timestampMs; }
+    public String getAuctionId()  { return auctionId; }
+    /** Start price, bid, proxy maximum or final price, by type. */
+    public long getCents()        { return cents; }
+    /** End time for NEW_AUCTION and EXTENDED, else 0. */
+    public long getAux()          { return aux; }
+    /**
+     * Item for NEW_AUCTION, bidder for BID/PROXY, winner for CLOSE (empty if
+     * none), new owner for HANDED_OFF.
+     */
+    public String getName()       { return name; }
+}
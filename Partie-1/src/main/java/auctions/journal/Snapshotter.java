@@ -0,0 +1,355 @@
+package auctions.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import auctions.models.Auction;
+import auctions.models.Money;
+import auctions.models.PriceLadder;
+import auctions.models.ProxyBook;
+
+/**
+ * Periodic snapshots of every live auction, so recovery only replays the
+ * journal written since the last one.
+ *
+ * {@link #snapshot} runs on the seller's thread and only captures: the
+ * price ladder state is already immutable, and the few mutable fields are
+ * copied. Encoding, fsync and the atomic rename happen on a background
+ * thread, so bid ingestion is not paused.
+ *
+ * The journal is the bid history, so the segments a snapshot covers are
+ * kept; recovery skips them without reading them. Deleting them once a
+ * snapshot is on disk is opt-in ({@code pruneJournal}), for deployments
+ * that keep history elsewhere and only need crash recovery.
+ *
+ * File {@code snapshot-<seq>.snap} (big-endian), seq being the last
+ * journal record it includes:
+ *
+ *   int magic "ASNP", int version, long seq, long createdAtMs, int count,
+ *   then per auction: its first journal seq (version 2 on), id (2 longs),
+ *   item (UTF), start cents, reserve cents,
+ *   end time, ladder size n and n x (bidder UTF, cents) oldest first,
+ *   proxy leader (UTF, "" if none) and max, runner-up (UTF) and max;
+ *   int CRC32C of everything before it.
+ */
+public class Snapshotter implements Closeable {
+    private static final int MAGIC   = 0x41534e50;   // "ASNP"
+    private static final int VERSION = 2;   // 1 lacks the first journal seq; still read
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int KEEP = 2;
+
+    private final Path dir;
+    private final boolean pruneJournal;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean writing = new AtomicBoolean();
+    // Last journal record captured; nothing new to write until it moves
+    private long capturedSeq = -1;
+
+    // Written by the writer thread, read by the stats ticker
+    private volatile long snapshots;
+    private volatile long skipped;
+    private volatile long lastSeq;
+    private volatile int  lastAuctions;
+    private volatile long lastBytes;
+    private volatile long lastCaptureMicros;
+    private volatile long lastWriteMs;
+    private volatile int  lastSegmentsDeleted;
+    private long restoreMs;
+    private long restoredSeq;
+    private int  restoredAuctions;
+
+    /** Snapshots that keep every journal segment. */
+    public Snapshotter(Path dir) throws IOException {
+        this(dir, false);
+    }
+
+    /** @param pruneJournal delete the journal segments each snapshot covers */
+    public Snapshotter(Path dir, boolean pruneJournal) throws IOException {
+        this.dir = dir;
+        this.pruneJournal = pruneJournal;
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Capture {@code auctions} as of journal record {@code seq} and write them
+     * in the background. Returns false (and captures nothing) if the journal
+     * has not moved since the last one or that one is still being written.
+     * {@code journal} is only used when pruning and may be null.
+     */
+    public boolean snapshot(Collection<Auction> auctions, long seq, BidJournal journal) {
+        if (seq == capturedSeq) return false;
+        if (!writing.compareAndSet(false, true)) {
+            skipped++;
+            return false;
+        }
+        long t0 = System.nanoTime();
+        List<Captured> captured = new ArrayList<>(auctions.size());
+        for (Auction a : auctions) {
+            captured.add(new Captured(a));
+        }
+        long captureMicros = (System.nanoTime() - t0) / 1000;
+        capturedSeq = seq;
+
+        writer.execute(() -> {
+            try {
+                long w0 = System.nanoTime();
+                long bytes = write(seq, captured);
+                lastWriteMs  = (System.nanoTime() - w0) / 1_000_000;
+                lastBytes    = bytes;
+                lastSeq      = seq;
+                lastAuctions = captured.size();
+                lastCaptureMicros = captureMicros;
+                snapshots++;
+                prune();
+                if (pruneJournal && journal != null) {
+                    lastSegmentsDeleted = journal.deleteCovered(seq);
+                }
+            } catch (IOException e) {
+                System.err.println("[SNAPSHOT] Write failed: " + e);
+            } finally {
+                writing.set(false);
+            }
+        });
+        return true;
+    }
+
+    private long write(long seq, List<Captured> auctions) throws IOException {
+        Path tmp = dir.resolve(String.format("%s%020d%s.tmp", PREFIX, seq, SUFFIX));
+        Path file = dir.resolve(String.format("%s%020d%s", PREFIX, seq, SUFFIX));
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(fos, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seq);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(auctions.size());
+            for (Captured c : auctions) {
+                out.writeLong(c.firstJournalSeq);   // this seller's journal only, so not in writeTo
+                c.writeTo(out);
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(file);
+    }
+
+    /** Keep the newest {@link #KEEP} snapshots, so a damaged latest one has a fallback. */
+    private void prune() throws IOException {
+        List<Path> files = list();
+        for (int i = 0; i + KEEP < files.size(); i++) {
+            Files.delete(files.get(i));
+        }
+    }
+
+    /**
+     * Load the newest intact snapshot into {@code into}.
+     *
+     * @return the journal sequence number it covers, or 0 if there is none
+     */
+    public long restore(Map<String, Auction> into) throws IOException {
+        long t0 = System.nanoTime();
+        List<Path> files = list();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            byte[] data = Files.readAllBytes(files.get(i));
+            List<Auction> auctions = new ArrayList<>();
+            long seq = read(data, auctions);
+            if (seq < 0) {
+                System.err.println("[SNAPSHOT] Ignoring damaged " + files.get(i).getFileName());
+                continue;
+            }
+            for (Auction a : auctions) {
+                into.put(a.getId(), a);
+            }
+            restoredSeq = seq;
+            restoredAuctions = auctions.size();
+            capturedSeq = seq;
+            break;
+        }
+        restoreMs = (System.nanoTime() - t0) / 1_000_000;
+        return restoredSeq;
+    }
+
+    /** Returns the covered sequence number, or -1 if the data is not a valid snapshot. */
+    private static long read(byte[] data, List<Auction> out) throws IOException {
+        if (data.length < 32) return -1;
+        CRC32C crc = new CRC32C();
+        crc.update(data, 0, data.length - 4);
+        int stored = ((data[data.length - 4] & 0xff) << 24) | ((data[data.length - 3] & 0xff) << 16)
+            | ((data[data.length - 2] & 0xff) << 8) | (data[data.length - 1] & 0xff);
+        if ((int) crc.getValue() != stored) return -1;
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if (in.readInt() != MAGIC) return -1;
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) return -1;
+        long seq = in.readLong();
+        in.readLong();   // created at
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long firstJournalSeq = version >= 2 ? in.readLong() : 0;
+            Auction a = readAuction(in);
+            a.setFirstJournalSeq(firstJournalSeq);
+            out.add(a);
+        }
+        return seq;
+    }
+
+    private static Auction readAuction(DataInputStream in) throws IOException {
+        String id = new UUID(in.readLong(), in.readLong()).toString();
+        String item = in.readUTF();
+        long startCents = in.readLong();
+        long reserveCents = in.readLong();
+        long endTime = in.readLong();
+        Auction a = new Auction(id, item, Money.toAmount(startCents), Money.toAmount(reserveCents), endTime);
+        int n = in.readInt();
+        for (int k = 0; k < n; k++) {
+            a.getLadder().raiseIfHigher(in.readUTF(), in.readLong());
+        }
+        String leader = in.readUTF();
+        long leaderMax = in.readLong();
+        String runnerUp = in.readUTF();
+        long runnerUpMax = in.readLong();
+        if (!leader.isEmpty()) a.getProxies().register(leader, leaderMax);
+        if (!runnerUp.isEmpty()) a.getProxies().register(runnerUp, runnerUpMax);
+        return a;
+    }
+
+    /** One auction in the snapshot's per-auction encoding, e.g. to hand it to another seller. */
+    public static byte[] encode(Auction auction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            new Captured(auction).writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // not thrown by an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Inverse of {@link #encode}. */
+    public static Auction decode(byte[] data) throws IOException {
+        return readAuction(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private List<Path> list() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : ds) {
+                files.add(p);
+            }
+        }
+        Collections.sort(files);   // zero-padded names sort by sequence
+        return files;
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getSnapshots()         { return snapshots; }
+    public long getSkipped()           { return skipped; }
+    public long getLastSeq()           { return lastSeq; }
+    public long getLastBytes()         { return lastBytes; }
+    public long getLastCaptureMicros() { return lastCaptureMicros; }
+    public long getLastWriteMs()       { return lastWriteMs; }
+    public boolean isPruningJournal()  { return pruneJournal; }
+    public int getLastSegmentsDeleted() { return lastSegmentsDeleted; }
+    public long getRestoreMs()         { return restoreMs; }
+    public long getRestoredSeq()       { return restoredSeq; }
+    public int getRestoredAuctions()   { return restoredAuctions; }
+
+    @Override
+    public String toString() {
+        return String.format("snapshots: %d written (%d skipped), last at seq %d: %d auctions, %d bytes, "
+                + "capture %d us, write %d ms, %s",
+            snapshots, skipped, lastSeq, lastAuctions, lastBytes, lastCaptureMicros, lastWriteMs,
+            pruneJournal ? lastSegmentsDeleted + " journal segments dropped" : "journal kept");
+    }
+
+    /** What a snapshot needs from one auction, copied on the seller's thread. */
+    private static final class Captured {
+        final String id;
+        final String item;
+        final long startCents;
+        final long reserveCents;
+        final long endTime;
+        final PriceLadder.State ladder;   // immutable
+        final String proxyLeader;
+        final long proxyLeaderMax;
+        final String proxyRunnerUp;
+        final long proxyRunnerUpMax;
+        final long firstJournalSeq;
+
+        Captured(Auction a) {
+            id           = a.getId();
+            item         = a.getItem();
+            startCents   = a.getLadder().getStartCents();
+            reserveCents = Money.toCents(a.getReservePrice());
+            endTime      = a.getEndTime();
+            ladder       = a.getLadder().snapshot();
+            ProxyBook proxies = a.getProxies();
+            proxyLeader      = proxies.getLeader();
+            proxyLeaderMax   = proxies.getLeaderMax();
+            proxyRunnerUp    = proxies.getRunnerUp();
+            proxyRunnerUpMax = proxies.getRunnerUpMax();
+            firstJournalSeq  = a.getFirstJournalSeq();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            UUID uuid = UUID.fromString(id);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeUTF(item);
+            out.writeLong(startCents);
+            out.writeLong(reserveCents);
+            out.writeLong(endTime);
+            // Oldest first, so replaying the raises rebuilds the same ladder
+            int n = ladder.ladderSize();
+            out.writeInt(n);
+            for (int k = n - 1; k >= 0; k--) {
+                out.writeUTF(ladder.bidderAt(k));
+                out.writeLong(ladder.amountAt(k));
+            }
+            out.writeUTF(proxyLeader != null ? proxyLeader : "");
+            out.writeLong(proxyLeaderMax);
+            out.writeUTF(proxyRunnerUp != null ? proxyRunnerUp : "");
+            out.writeLong(proxyRunnerUpMax);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package auctions.journal;
+
+/** When {@link BidJournal} forces appended records to disk. */
+public enum SyncPolicy {
+    /** Leave it to the OS; a crash may lose the last seconds of records. */
+    NEVER,
+    /** Once per {@link BidJournal#commit()} (group commit, one per seller batch). */
+    BATCH,
+    /** On commit, but at most once per sync interval. */
+    INTERVAL,
+    /** After every record; slowest, loses nothing. */
+    ALWAYS;
+
+    public static SyncPolicy parse(String s, SyncPolicy def) {
+        if (s == null) return def;
+        try {
+            return valueOf(s.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("[CONFIG] Invalid sync policy " + s + "; using " + def);
+            return def;
+        }
+    }
+}
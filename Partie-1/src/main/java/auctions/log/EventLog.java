@@ -0,0 +1,233 @@
+package auctions.log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import auctions.metrics.Counter;
+import auctions.metrics.MetricsRegistry;
+import auctions.utils.AgentConfig;
+
+/**
+ * Asynchronous event log for the bid path: agent threads only fill a slot
+ * of a ring buffer, a background thread formats and writes the events.
+ *
+ * The ring is a bounded multi-producer, single-consumer queue of
+ * preallocated records (an event, a timestamp, three string references and
+ * two longs in parallel arrays), so logging allocates nothing, formats
+ * nothing and takes no lock: a producer claims a slot with one CAS and
+ * publishes it with an ordered write of the slot's sequence number. If the
+ * writer falls a full ring behind, new events are dropped and counted
+ * instead of blocking the agent.
+ *
+ * The writer drains the ring in batches into a {@link RollingFileSink}
+ * (each line prefixed with the time and the agent) and, unless
+ * logConsole=false, echoes the batch to stdout in one write, as the agents'
+ * printf lines used to appear.
+ *
+ * Settings, as -Dauction.&lt;key&gt; system properties: logFile, logCapacity
+ * (records, rounded up to a power of two), logMaxFileMb, logFiles (rolled
+ * files kept), logConsole.
+ */
+public final class EventLog {
+    private static final int BATCH = 4096;
+    private static final long IDLE_PARK_NANOS = 10_000_000;   // writer poll interval when idle
+
+    private static EventLog global;
+
+    private final int mask;
+    private final AtomicLongArray sequence;   // slot i is free for claim t when it holds t, readable at t + 1
+    private final int[] events;
+    private final long[] times;
+    private final String[] sources;
+    private final String[] s1s;
+    private final String[] s2s;
+    private final long[] as;
+    private final long[] bs;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;   // writer thread only
+
+    private final RollingFileSink sink;   // null if the file could not be opened
+    private final boolean console;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final Counter written;
+    private final Counter dropped;
+    private long batches;
+    private long maxBatch;
+
+    /** The JVM's event log, started on first use and flushed at exit. */
+    public static synchronized EventLog global() {
+        if (global == null) {
+            AgentConfig config = new AgentConfig(null);
+            Path file = Paths.get(config.get("logFile",
+                Paths.get(System.getProperty("java.io.tmpdir"), "auction-logs", "events.log").toString()));
+            global = new EventLog(file, config.getInt("logCapacity", 1 << 16),
+                config.getLong("logMaxFileMb", 64) << 20, config.getInt("logFiles", 5),
+                config.getBoolean("logConsole", true));
+            EventLog log = global;
+            Runtime.getRuntime().addShutdownHook(new Thread(log::close, "event-log-flush"));
+        }
+        return global;
+    }
+
+    public EventLog(Path file, int capacity, long maxFileBytes, int keepFiles, boolean console) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequence.set(i, i);
+        events  = new int[size];
+        times   = new long[size];
+        sources = new String[size];
+        s1s     = new String[size];
+        s2s     = new String[size];
+        as      = new long[size];
+        bs      = new long[size];
+
+        RollingFileSink s = null;
+        if (file != null) {
+            try {
+                s = new RollingFileSink(file, maxFileBytes, keepFiles);
+            } catch (IOException e) {
+                System.err.println("[LOG] Event file unavailable, console only: " + e);
+            }
+        }
+        sink = s;
+        this.console = console;
+
+        MetricsRegistry registry = MetricsRegistry.global();
+        written = registry.counter("event_log_records_total", "Event log records, by outcome.", "result", "written");
+        dropped = registry.counter("event_log_records_total", "Event log records, by outcome.", "result", "dropped");
+
+        writer = new Thread(this::drainLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue one event. Returns false, counting a drop, if the ring is full
+     * or the log closed. The strings are kept by reference until written.
+     */
+    public boolean log(LogEvent event, String source, String s1, String s2, long a, long b) {
+        if (closed) {
+            dropped.inc();
+            return false;
+        }
+        long t;
+        int i;
+        for (;;) {
+            t = tail.get();
+            i = (int) t & mask;
+            long seq = sequence.get(i);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) break;
+            } else if (seq < t) {
+                dropped.inc();   // the writer has not freed this slot since the last lap
+                return false;
+            }
+            // another producer took slot t first: try the next one
+        }
+        events[i]  = event.ordinal();
+        times[i]   = System.currentTimeMillis();
+        sources[i] = source;
+        s1s[i]     = s1;
+        s2s[i]     = s2;
+        as[i]      = a;
+        bs[i]      = b;
+        sequence.lazySet(i, t + 1);   // publish
+        return true;
+    }
+
+    public boolean log(LogEvent event, String source, String s1, long a) {
+        return log(event, source, s1, null, a, 0);
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        StringBuilder echo = new StringBuilder(1 << 14);
+        while (true) {
+            int n = drain(line, echo);
+            if (n == 0) {
+                if (closed) break;
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        drain(line, echo);
+        if (sink != null) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                System.err.println("[LOG] Event file close failed: " + e);
+            }
+        }
+    }
+
+    /** Write up to one batch of events; returns how many there were. */
+    private int drain(StringBuilder line, StringBuilder echo) {
+        int n = 0;
+        echo.setLength(0);
+        while (n < BATCH) {
+            int i = (int) head & mask;
+            if (sequence.get(i) != head + 1) break;   // nothing published here yet
+            LogEvent event = LogEvent.of(events[i]);
+            line.setLength(0);
+            line.append(Instant.ofEpochMilli(times[i])).append(' ').append(sources[i]).append(' ');
+            int text = line.length();
+            event.format(line, sources[i], s1s[i], s2s[i], as[i], bs[i]);
+            sources[i] = s1s[i] = s2s[i] = null;   // let the strings go
+            sequence.lazySet(i, head + mask + 1);  // free the slot for the next lap
+            head++;
+            n++;
+            if (sink != null) {
+                try {
+                    sink.writeLine(line);
+                } catch (IOException e) {
+                    System.err.println("[LOG] Event file write failed: " + e);
+                }
+            }
+            if (console) echo.append(line, text, line.length()).append('\n');
+        }
+        if (n == 0) return 0;
+        written.add(n);
+        batches++;
+        maxBatch = Math.max(maxBatch, n);
+        if (sink != null) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                System.err.println("[LOG] Event file write failed: " + e);
+            }
+        }
+        if (console) System.out.print(echo);
+        return n;
+    }
+
+    /** Stop taking events, write the ones queued and close the file. */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getWritten()  { return written.get(); }
+    public long getDropped()  { return dropped.get(); }
+    /** Events queued and not yet written. */
+    public long getPending()  { return Math.max(0, tail.get() - head); }
+
+    @Override
+    public String toString() {
+        return String.format("event log: %d written, %d dropped, %d pending, %d batches (max %d)%s",
+            getWritten(), getDropped(), getPending(), batches, maxBatch,
+            sink != null ? ", " + sink.getFile() + " (" + sink.getRolls() + " rolls)" : ", console only");
+    }
+}
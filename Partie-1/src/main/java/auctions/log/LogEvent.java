@@ -0,0 +1,100 @@
+package auctions.log;
+
+/**
+ * The events agents put in the {@link EventLog}, each with the text it is
+ * written as. A record carries two strings and two longs; what they mean
+ * depends on the event. Amounts are in cents.
+ */
+public enum LogEvent {
+    /** s1 item, s2 auction id, a start price, b live auctions. */
+    AUCTION_STARTED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append("[Seller] Started auction \"").append(s1).append("\" (").append(s2).append(") at ");
+            money(out, a).append(", ").append(b).append(" live");
+        }
+    },
+    /** s1 item, s2 bidder, a amount. */
+    BID_ACCEPTED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append("[Seller] New high bid on \"").append(s1).append("\" by ").append(s2).append(": ");
+            money(out, a);
+        }
+    },
+    /** s1 item, s2 leader, a price. */
+    PROXY_LEADS {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append("[Seller] Proxy for ").append(s2).append(" leads \"").append(s1).append("\" at ");
+            money(out, a);
+        }
+    },
+    /** s1 item, a seconds left. */
+    AUCTION_EXTENDED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append("[Seller] \"").append(s1).append("\" extended by a late bid, now ends in ")
+                .append(a).append(" s");
+        }
+    },
+    /** s1 item, s2 winner or null, a final price, b live auctions. */
+    AUCTION_CLOSED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append("[Seller] Auction \"").append(s1).append("\" closed");
+            if (s2 != null) {
+                out.append(": ").append(s2).append(" wins at ");
+                money(out, a);
+            } else {
+                out.append(" without bids");
+            }
+            out.append(", ").append(b).append(" live");
+        }
+    },
+    /** a amount. */
+    BID_PLACED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append('[').append(source).append("] Placed bid: ");
+            money(out, a);
+        }
+    },
+    /** a maximum. */
+    PROXY_REGISTERED {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append('[').append(source).append("] Registered proxy up to ");
+            money(out, a);
+        }
+    },
+    /** a final price. */
+    AUCTION_WON {
+        @Override
+        void format(StringBuilder out, String source, String s1, String s2, long a, long b) {
+            out.append('[').append(source).append("] Won auction at ");
+            money(out, a);
+        }
+    };
+
+    private static final LogEvent[] VALUES = values();
+
+    /** Append the event's text, as the agents used to print it. */
+    abstract void format(StringBuilder out, String source, String s1, String s2, long a, long b);
+
+    static LogEvent of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /** "$12.05" without going through String.format. */
+    static StringBuilder money(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long rest = cents % 100;
+        out.append('$').append(cents / 100).append('.');
+        if (rest < 10) out.append('0');
+        return out.append(rest);
+    }
+}
@@ -0,0 +1,73 @@
+package auctions.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Text file that rolls over at a size limit: {@code events.log} is renamed
+ * to {@code events.log.1}, older files shift up by one, and the oldest
+ * beyond {@code keep} is deleted. Only the event log's writer thread uses it.
+ */
+final class RollingFileSink {
+    private final Path file;
+    private final long maxBytes;
+    private final int keep;
+    private Writer out;
+    private long written;
+    private long rolls;
+
+    RollingFileSink(Path file, long maxBytes, int keep) throws IOException {
+        this.file = file;
+        this.maxBytes = Math.max(1 << 20, maxBytes);
+        this.keep = Math.max(1, keep);
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        open();
+    }
+
+    private void open() throws IOException {
+        written = Files.exists(file) ? Files.size(file) : 0;
+        out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /** Append one line (ASCII-sized estimate for the roll check). */
+    void writeLine(CharSequence line) throws IOException {
+        if (written + line.length() + 1 > maxBytes && written > 0) roll();
+        out.append(line).append('\n');
+        written += line.length() + 1;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        Path name = file.getFileName();
+        Files.deleteIfExists(file.resolveSibling(name + "." + keep));
+        for (int i = keep - 1; i >= 1; i--) {
+            Path from = file.resolveSibling(name + "." + i);
+            if (Files.exists(from)) {
+                Files.move(from, file.resolveSibling(name + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, file.resolveSibling(name + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        rolls++;
+        open();
+    }
+
+    void close() throws IOException {
+        out.close();
+    }
+
+    Path getFile()  { return file; }
+    long getRolls() { return rolls; }
+}
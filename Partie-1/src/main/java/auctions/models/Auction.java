@@ -3,51 +3,97 @@ package auctions.models;
 import java.util.UUID;
 
 public class Auction {
-    private String winningBidder;  // Add this field
-    private long endTime;  // Add this field
+    /** How long an auction stays open. */
+    public static final long DURATION_MS = 60000;
+
+    private volatile long endTime;  // read by the HTTP snapshot threads
+    // Sequence number of its first record in this seller's journal, 0 if unknown
+    private transient volatile long firstJournalSeq;
     
         public Auction(String item, double startPrice, double reservePrice) {
             this.id = UUID.randomUUID().toString();
             this.item = item;
-            this.currentPrice = startPrice;
             this.reservePrice = reservePrice;
-            this.endTime = System.currentTimeMillis() + 60000; // 60 seconds
+            this.endTime = System.currentTimeMillis() + DURATION_MS; // 60 seconds
+            this.ladder = new PriceLadder(Money.toCents(startPrice));
         }
     
+        /** Restore an auction with a known id and end time (journal replay). */
+        public Auction(String id, String item, double startPrice, double reservePrice, long endTime) {
+            this.id = id;
+            this.item = item;
+            this.reservePrice = reservePrice;
+            this.endTime = endTime;
+            this.ladder = new PriceLadder(Money.toCents(startPrice));
+        }
+
         public boolean hasEnded() {
             return System.currentTimeMillis() > endTime;
         }
+
+        /**
+         * Soft close: a bid within the last {@code windowMs} pushes the end
+         * out to {@code windowMs} from now. Returns true if it moved.
+         */
+        public boolean extendIfClosing(long nowMs, long windowMs) {
+            if (windowMs <= 0 || endTime - nowMs >= windowMs) return false;
+            endTime = nowMs + windowMs;
+            return true;
+        }
+
+        public long getEndTime() { return endTime; }
+        public void setEndTime(long endTime) { this.endTime = endTime; }
+
+        /** Where its history starts in the journal, so reads can skip what came before; 0 if unknown. */
+        public long getFirstJournalSeq() { return firstJournalSeq; }
+        public void setFirstJournalSeq(long seq) { this.firstJournalSeq = seq; }
     
         // Add getter for winner
         public String getWinningBidder() {
+            String winningBidder = ladder.getLeader();
             return winningBidder != null ? winningBidder : "No winner";
         }
     
     
-    public void applyBid(Bid bid) {
-        if (bid.getAmount() > currentPrice) {
-            currentPrice = bid.getAmount();
-            winningBidder = bid.getBidder();
-        }
+    /**
+     * Returns true if the bid became the new highest bid.
+     * Safe to call from many threads at once; see {@link PriceLadder}.
+     */
+    public boolean applyBid(Bid bid) {
+        return ladder.raiseIfHigher(bid.getBidder(), bid.getAmountCents());
+    }
+
+    /** Register a proxy maximum; returns true if resolving may change the price. */
+    public boolean registerProxy(Bid proxy) {
+        return proxies.register(proxy.getBidder(), proxy.getAmountCents());
+    }
+
+    /** Let the proxies answer the current price; returns true if it rose. */
+    public boolean resolveProxies() {
+        return !proxies.isEmpty() && proxies.resolve(ladder);
     }
 
     private String id;
     private String item;
-    private double currentPrice;
     private double reservePrice;
+    // Price, winner and recent bids, updated atomically together
+    private transient PriceLadder ladder = new PriceLadder(0);
+    private transient ProxyBook proxies = new ProxyBook();
 
     public Auction() {} // Needed for GSON
 
     // Getters and Setters
     public String getId() { return id; }
     public String getItem() { return item; }
-    public double getCurrentPrice() { return currentPrice; }
+    public double getCurrentPrice() { return Money.toAmount(ladder.getPriceCents()); }
+    public long getCurrentPriceCents() { return ladder.getPriceCents(); }
     public double getReservePrice() { return reservePrice; }
-    public void setCurrentPrice(double price) { this.currentPrice = price; }
+    public PriceLadder getLadder() { return ladder; }
+    public ProxyBook getProxies() { return proxies; }
     
     public boolean isValid() {
         return id != null && !id.isEmpty() && 
                item != null && !item.isEmpty() &&
-               currentPrice > 0 && reservePrice > 0;
+               ladder.getPriceCents() > 0 && reservePrice > 0;
     }
 }
@@ -1,9 +1,10 @@
 package auctions.models;
 
+/** A bid, or a decoded bid message; the amount is kept in whole cents. */
 public class Bid {
     private String auctionId;
     private String bidder;
-    private double amount;
+    private long amountCents;
 
     // Required for GSON deserialization
     public Bid() {}
@@ -11,16 +12,19 @@ public class Bid {
     public Bid(String auctionId, String bidder, double amount) {
         this.auctionId = auctionId;
         this.bidder = bidder;
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
     }
 
     // Getters
     public String getAuctionId() { return auctionId; }
     public String getBidder() { return bidder; }
-    public double getAmount() { return amount; }
+    public long getAmountCents() { return amountCents; }
+    /** The amount in dollars, derived from the cents. */
+    public double getAmount() { return Money.toAmount(amountCents); }
 
     // Setters
     public void setAuctionId(String id) { this.auctionId = id; }
     public void setBidder(String bidder) { this.bidder = bidder; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmountCents(long cents) { this.amountCents = cents; }
+    public void setAmount(double amount) { this.amountCents = Money.toCents(amount); }
 }
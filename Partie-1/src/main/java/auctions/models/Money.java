@@ -0,0 +1,14 @@
+package auctions.models;
+
+/** Fixed-point helpers: prices travel and compare as whole cents. */
+public final class Money {
+    private Money() {}
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
@@ -0,0 +1,103 @@
+package auctions.models;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free price state of one auction, in whole cents.
+ *
+ * The leader, price and the last {@code depth} accepted bids live in one
+ * immutable {@link State}; a raise builds the next state and installs it with
+ * a single compare-and-set, so price and winner always change together and
+ * any number of ingest threads can call {@link #raiseIfHigher} concurrently.
+ */
+public class PriceLadder {
+    public static final int DEFAULT_DEPTH = 10;
+
+    private final long startCents;
+    private final long minIncrementCents;
+    private final int depth;
+    private final AtomicReference<State> state;
+
+    public PriceLadder(long startCents, long minIncrementCents, int depth) {
+        if (minIncrementCents < 1 || depth < 1) {
+            throw new IllegalArgumentException("increment and depth must be positive");
+        }
+        this.startCents        = startCents;
+        this.minIncrementCents = minIncrementCents;
+        this.depth             = depth;
+        this.state = new AtomicReference<>(
+            new State(startCents, null, 0, new String[0], new long[0]));
+    }
+
+    /** Starts at {@code startCents} with a one-cent increment. */
+    public PriceLadder(long startCents) {
+        this(startCents, 1, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Install {@code bidder} as leader if {@code cents} is at least
+     * {@link #minimumNextBid()}. Returns true if the bid was accepted.
+     */
+    public boolean raiseIfHigher(String bidder, long cents) {
+        while (true) {
+            State current = state.get();
+            if (cents < minimumNextBid(current)) {
+                return false;
+            }
+            if (state.compareAndSet(current, current.raise(bidder, cents, depth))) {
+                return true;
+            }
+        }
+    }
+
+    /** Smallest amount that would be accepted right now. */
+    public long minimumNextBid() {
+        return minimumNextBid(state.get());
+    }
+
+    private long minimumNextBid(State s) {
+        // The first bid only has to beat the start price, like Auction.applyBid always did
+        return s.leader == null ? startCents + 1 : s.priceCents + minIncrementCents;
+    }
+
+    /** Consistent view of price, leader and ladder. */
+    public State snapshot()          { return state.get(); }
+    public long getPriceCents()      { return state.get().priceCents; }
+    public String getLeader()        { return state.get().leader; }
+    public long getStartCents()      { return startCents; }
+    public long getMinIncrementCents() { return minIncrementCents; }
+    public int getDepth()            { return depth; }
+
+    /** Immutable auction price state; version counts accepted bids. */
+    public static final class State {
+        public final long priceCents;
+        public final String leader;
+        public final long version;
+        // Accepted bids, newest first, at most depth entries
+        private final String[] bidders;
+        private final long[] amounts;
+
+        State(long priceCents, String leader, long version, String[] bidders, long[] amounts) {
+            this.priceCents = priceCents;
+            this.leader     = leader;
+            this.version    = version;
+            this.bidders    = bidders;
+            this.amounts    = amounts;
+        }
+
+        State raise(String bidder, long cents, int depth) {
+            int n = Math.min(depth, bidders.length + 1);
+            String[] b = new String[n];
+            long[] a = new long[n];
+            b[0] = bidder;
+            a[0] = cents;
+            System.arraycopy(bidders, 0, b, 1, n - 1);
+            System.arraycopy(amounts, 0, a, 1, n - 1);
+            return new State(cents, bidder, version + 1, b, a);
+        }
+
+        public int ladderSize()            { return bidders.length; }
+        public String bidderAt(int rank)   { return bidders[rank]; }
+        public long amountAt(int rank)     { return amounts[rank]; }
+    }
+}
@@ -0,0 +1,81 @@
+package auctions.models;
+
+/**
+ * Proxy (maximum) bids of one auction, resolved eBay-style: the highest
+ * proxy leads at the second-highest maximum plus one increment, capped at
+ * its own maximum. Ties go to the earlier proxy.
+ *
+ * Only the two best maxima decide the outcome and a proxy can only be
+ * raised, so registering is O(1) and the book keeps two entries however
+ * many proxies arrive; {@link #resolve} then settles all of them with a
+ * single ladder raise.
+ *
+ * Not thread-safe: used from the seller's thread only.
+ */
+public class ProxyBook {
+    private String first;
+    private long firstMax;
+    private String second;
+    private long secondMax;
+    private long registrations;
+
+    /**
+     * Register or raise {@code bidder}'s maximum. Returns true if the
+     * outcome may have changed; lowering a proxy is ignored.
+     */
+    public boolean register(String bidder, long maxCents) {
+        registrations++;
+        if (bidder.equals(first)) {
+            if (maxCents <= firstMax) return false;
+            firstMax = maxCents;
+            return true;
+        }
+        if (maxCents > firstMax) {
+            // The old leader becomes runner-up, whoever the new one is
+            second    = first;
+            secondMax = firstMax;
+            first    = bidder;
+            firstMax = maxCents;
+            return true;
+        }
+        if (maxCents > secondMax) {
+            second    = bidder;
+            secondMax = maxCents;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Raise the ladder to what the proxies imply, if anything. Manual bids
+     * already on the ladder count as competition. Returns true if the
+     * price changed.
+     */
+    public boolean resolve(PriceLadder ladder) {
+        if (first == null) return false;
+        PriceLadder.State s = ladder.snapshot();
+        boolean leading = first.equals(s.leader);
+
+        long target;
+        if (leading) {
+            // Only the runner-up proxy can push our own price up
+            if (second == null) return false;
+            target = Math.min(firstMax, secondMax + ladder.getMinIncrementCents());
+            if (target <= s.priceCents) return false;
+        } else {
+            long needed = ladder.minimumNextBid();
+            if (second != null) {
+                needed = Math.max(needed, secondMax + ladder.getMinIncrementCents());
+            }
+            target = Math.min(firstMax, needed);
+        }
+        return ladder.raiseIfHigher(first, target);
+    }
+
+    public boolean isEmpty()        { return first == null; }
+    public String getLeader()       { return first; }
+    public long getLeaderMax()      { return firstMax; }
+    public String getRunnerUp()     { return second; }
+    public long getRunnerUpMax()    { return secondMax; }
+    public long getRegistrations()  { return registrations; }
+}
@@ -0,0 +1,66 @@
+package auctions.strategy;
+
+/**
+ * What one bidder knows about one auction, in primitive fields so that
+ * strategies allocate nothing and can be driven outside JADE.
+ * All amounts are in cents; times are epoch milliseconds.
+ */
+public final class BidderState {
+    public long startCents;
+    public long priceCents;
+    /** True if the last price we saw was ours. */
+    public boolean leading;
+    /** Most this bidder will pay. */
+    public long budgetCents;
+    public long minIncrementCents = 1;
+    public long openedAtMs;
+    public long endsAtMs;
+    /** Last amount we sent, 0 if none. */
+    public long lastBidCents;
+    public int bidsPlaced;
+    /** When the owner will next call the strategy without a price change, 0 if not scheduled. */
+    public long wakeAtMs;
+
+    public BidderState() {}
+
+    public BidderState(long startCents, long budgetCents, long openedAtMs, long endsAtMs) {
+        this.startCents  = startCents;
+        this.priceCents  = startCents;
+        this.budgetCents = budgetCents;
+        this.openedAtMs  = openedAtMs;
+        this.endsAtMs    = endsAtMs;
+    }
+
+    /** Record a price broadcast; returns false if it is older than what we have. */
+    public boolean onPrice(long cents, boolean ours) {
+        if (cents < priceCents) {
+            return false;
+        }
+        priceCents = cents;
+        leading = ours;
+        return true;
+    }
+
+    /** Record that we sent a bid. */
+    public void onBidSent(long cents) {
+        lastBidCents = cents;
+        bidsPlaced++;
+    }
+
+    /** Lowest amount the seller will accept next. */
+    public long minimumNextBid() {
+        return priceCents + minIncrementCents;
+    }
+
+    /** True once even the minimum next bid is over budget and we are not leading. */
+    public boolean isPricedOut() {
+        return !leading && minimumNextBid() > budgetCents;
+    }
+
+    /** Fraction of the auction's duration that has passed, in [0, 1]. */
+    public double elapsed(long nowMs) {
+        long span = endsAtMs - openedAtMs;
+        if (span <= 0) return 1;
+        return Math.min(1, Math.max(0, (double) (nowMs - openedAtMs) / span));
+    }
+}
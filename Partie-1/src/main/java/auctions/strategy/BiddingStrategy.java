@@ -0,0 +1,37 @@
+package auctions.strategy;
+
+/**
+ * Decides what a bidder does when the price of an auction changes.
+ *
+ * Implementations are stateless with respect to the auction (everything
+ * lives in {@link BidderState}) so one instance can serve every auction
+ * a buyer follows, and they never touch JADE.
+ */
+public interface BiddingStrategy {
+    /** Returned when the strategy does not want to bid / be woken. */
+    long NONE = -1;
+
+    /**
+     * Amount to bid right now, in cents, or {@link #NONE}. Called after
+     * each price change and at the time returned by {@link #recheckAtMs}.
+     */
+    long decide(BidderState s, long nowMs);
+
+    /**
+     * When to call {@link #decide} again without a price change, or
+     * {@link #NONE} to wait for the next one.
+     */
+    default long recheckAtMs(BidderState s, long nowMs) {
+        return NONE;
+    }
+
+    /**
+     * True if the strategy hands its maximum to the seller once instead of
+     * answering every outbid itself.
+     */
+    default boolean isProxy() {
+        return false;
+    }
+
+    String name();
+}
@@ -0,0 +1,40 @@
+package auctions.strategy;
+
+/**
+ * Release the budget gradually: at a fraction f of the auction's duration
+ * the bidder is willing to go up to {@code start + f * (budget - start)}.
+ * Outbids that would exceed today's allowance are answered later, when the
+ * allowance has grown.
+ */
+public class BudgetPacedStrategy implements BiddingStrategy {
+    private final long recheckMs;
+
+    /** @param recheckMs how often to look again while priced out by the pacing */
+    public BudgetPacedStrategy(long recheckMs) {
+        this.recheckMs = Math.max(1, recheckMs);
+    }
+
+    @Override
+    public long decide(BidderState s, long nowMs) {
+        if (s.leading || nowMs >= s.endsAtMs) return NONE;
+        long bid = s.minimumNextBid();
+        return bid <= allowance(s, nowMs) ? bid : NONE;
+    }
+
+    @Override
+    public long recheckAtMs(BidderState s, long nowMs) {
+        if (s.leading || nowMs >= s.endsAtMs || s.minimumNextBid() > s.budgetCents) return NONE;
+        return Math.min(nowMs + recheckMs, s.endsAtMs - 1);
+    }
+
+    /** Most we are prepared to pay at {@code nowMs}. */
+    static long allowance(BidderState s, long nowMs) {
+        long room = Math.max(0, s.budgetCents - s.startCents);
+        return s.startCents + Math.round(room * s.elapsed(nowMs));
+    }
+
+    @Override
+    public String name() {
+        return "budget-paced";
+    }
+}
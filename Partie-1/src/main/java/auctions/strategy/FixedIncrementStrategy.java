@@ -0,0 +1,23 @@
+package auctions.strategy;
+
+/** Answer every outbid with the current price plus a fixed percentage. */
+public class FixedIncrementStrategy implements BiddingStrategy {
+    private final double raise;
+
+    /** @param raisePercent e.g. 5 for the classic "+5%" */
+    public FixedIncrementStrategy(double raisePercent) {
+        this.raise = raisePercent / 100.0;
+    }
+
+    @Override
+    public long decide(BidderState s, long nowMs) {
+        if (s.leading || nowMs >= s.endsAtMs) return NONE;
+        long bid = Math.max(Math.round(s.priceCents * (1 + raise)), s.minimumNextBid());
+        return bid <= s.budgetCents ? bid : NONE;
+    }
+
+    @Override
+    public String name() {
+        return String.format("fixed +%.1f%%", raise * 100);
+    }
+}
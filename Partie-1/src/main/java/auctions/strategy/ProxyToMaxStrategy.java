@@ -0,0 +1,24 @@
+package auctions.strategy;
+
+/**
+ * Bid the minimum needed to lead, every time, up to the budget: what an
+ * auctioneer's proxy would do on our behalf.
+ */
+public class ProxyToMaxStrategy implements BiddingStrategy {
+    @Override
+    public long decide(BidderState s, long nowMs) {
+        if (s.leading || nowMs >= s.endsAtMs) return NONE;
+        long bid = s.minimumNextBid();
+        return bid <= s.budgetCents ? bid : NONE;
+    }
+
+    @Override
+    public boolean isProxy() {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "proxy-to-max";
+    }
+}
@@ -0,0 +1,31 @@
+package auctions.strategy;
+
+/**
+ * Stay quiet until the last {@code windowMs} of the auction, then bid the
+ * minimum needed to lead, up to budget.
+ */
+public class SnipeAtCloseStrategy implements BiddingStrategy {
+    private final long windowMs;
+
+    public SnipeAtCloseStrategy(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public long decide(BidderState s, long nowMs) {
+        if (s.leading || nowMs >= s.endsAtMs || nowMs < s.endsAtMs - windowMs) return NONE;
+        long bid = s.minimumNextBid();
+        return bid <= s.budgetCents ? bid : NONE;
+    }
+
+    @Override
+    public long recheckAtMs(BidderState s, long nowMs) {
+        long openAt = s.endsAtMs - windowMs;
+        return nowMs < openAt ? openAt : NONE;
+    }
+
+    @Override
+    public String name() {
+        return "snipe last " + windowMs + " ms";
+    }
+}
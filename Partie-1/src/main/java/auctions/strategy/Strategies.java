@@ -0,0 +1,33 @@
+package auctions.strategy;
+
+import auctions.utils.AgentConfig;
+
+/**
+ * Builds a {@link BiddingStrategy} from agent arguments:
+ * {@code strategy=fixed|snipe|paced|proxy} plus its knobs
+ * ({@code raisePercent}, {@code snipeWindowMs}, {@code paceRecheckMs}).
+ */
+public final class Strategies {
+    private Strategies() {}
+
+    public static BiddingStrategy fromConfig(AgentConfig config) {
+        return byName(config.get("strategy", "fixed"), config);
+    }
+
+    /** One strategy by name, its knobs taken from {@code config}. */
+    public static BiddingStrategy byName(String name, AgentConfig config) {
+        switch (name.trim()) {
+            case "fixed":
+                return new FixedIncrementStrategy(config.getDouble("raisePercent", 5));
+            case "snipe":
+                return new SnipeAtCloseStrategy(config.getLong("snipeWindowMs", 5000));
+            case "paced":
+                return new BudgetPacedStrategy(config.getLong("paceRecheckMs", 1000));
+            case "proxy":
+                return new ProxyToMaxStrategy();
+            default:
+                System.err.println("[CONFIG] Unknown strategy " + name + "; using fixed");
+                return new FixedIncrementStrategy(5);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package auctions.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jade.core.AID;
+
+/**
+ * Load shedding for the seller's mailbox, with hysteresis.
+ *
+ * Once the mailbox holds {@code highWater} messages the seller sheds:
+ * bids and proxies are dropped without being decoded, and each sender is
+ * told RETRY_AFTER once per retry interval (a reply per shed bid would
+ * cost more than the bid). It admits them again when the mailbox is back
+ * down to {@code lowWater}. Control traffic (auction requests,
+ * subscriptions, expiries, hand-offs) is never shed. A high-water mark of
+ * 0 turns shedding off, and with it the only bound on bid ingress.
+ *
+ * Not thread-safe: used from the owning agent's thread only.
+ */
+public class AdmissionControl {
+    private final int highWater;
+    private final int lowWater;
+    private final long retryAfterMs;
+    private boolean shedding;
+    // Senders told to retry during this episode, and until when
+    private final Map<AID, Long> told = new HashMap<>();
+
+    private long admitted;
+    private long stale;
+    private long shed;
+    private long retriesSent;
+    private long episodes;
+    private long shedSinceMs;
+    private long sheddingMs;
+
+    public AdmissionControl(int highWater, int lowWater, long retryAfterMs) {
+        this.highWater    = Math.max(0, highWater);
+        this.lowWater     = Math.max(0, Math.min(lowWater, this.highWater));
+        this.retryAfterMs = Math.max(1, retryAfterMs);
+    }
+
+    public boolean isEnabled() { return highWater > 0; }
+
+    /** Update the state from the mailbox depth, once per batch; returns true while shedding. */
+    public boolean update(int depth, long nowMs) {
+        if (!isEnabled()) return false;
+        if (!shedding && depth >= highWater) {
+            shedding = true;
+            episodes++;
+            shedSinceMs = nowMs;
+        } else if (shedding && depth <= lowWater) {
+            shedding = false;
+            sheddingMs += nowMs - shedSinceMs;
+            told.clear();
+        }
+        return shedding;
+    }
+
+    public void recordAdmitted() { admitted++; }
+
+    /** A bid below the next minimum, dropped from its header. */
+    public void recordStale()    { stale++; }
+
+    /**
+     * A bid or proxy shed; returns true if its sender should now be told
+     * RETRY_AFTER, i.e. it was not told so within the last interval.
+     */
+    public boolean shed(AID sender, long nowMs) {
+        shed++;
+        Long until = told.get(sender);
+        if (until != null && nowMs < until) return false;
+        told.put(sender, nowMs + retryAfterMs);
+        retriesSent++;
+        return true;
+    }
+
+    public boolean isShedding()   { return shedding; }
+    public int getHighWater()     { return highWater; }
+    public int getLowWater()      { return lowWater; }
+    public long getRetryAfterMs() { return retryAfterMs; }
+    public long getAdmitted()     { return admitted; }
+    public long getStale()        { return stale; }
+    public long getShed()         { return shed; }
+    public long getRetriesSent()  { return retriesSent; }
+    public long getEpisodes()     { return episodes; }
+
+    @Override
+    public String toString() {
+        return String.format("admission: high/low water %d/%d, %d admitted, %d stale, %d shed "
+                + "(%d episodes, %d ms shedding%s), %d told to retry after %d ms",
+            highWater, lowWater, admitted, stale, shed, episodes, sheddingMs,
+            shedding ? ", shedding now" : "", retriesSent, retryAfterMs);
+    }
+}
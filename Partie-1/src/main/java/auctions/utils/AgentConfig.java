@@ -0,0 +1,65 @@
+package auctions.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agent tuning knobs passed as {@code key=value} start-up arguments.
+ * Arguments without '=' (e.g. a buyer's plain budget) are left for the agent.
+ * A missing key falls back to the system property {@code auction.<key>}.
+ */
+public class AgentConfig {
+    private final Map<String, String> values = new HashMap<>();
+
+    public AgentConfig(Object[] args) {
+        if (args == null) return;
+        for (Object a : args) {
+            String s = String.valueOf(a);
+            int eq = s.indexOf('=');
+            if (eq > 0) {
+                values.put(s.substring(0, eq).trim(), s.substring(eq + 1).trim());
+            }
+        }
+    }
+
+    public String get(String key, String def) {
+        String v = values.get(key);
+        if (v == null) v = System.getProperty("auction." + key);
+        return v != null ? v : def;
+    }
+
+    public int getInt(String key, int def) {
+        String v = get(key, null);
+        try {
+            return v != null ? Integer.parseInt(v) : def;
+        } catch (NumberFormatException e) {
+            System.err.println("[CONFIG] Invalid " + key + "=" + v + "; using " + def);
+            return def;
+        }
+    }
+
+    public long getLong(String key, long def) {
+        String v = get(key, null);
+        try {
+            return v != null ? Long.parseLong(v) : def;
+        } catch (NumberFormatException e) {
+            System.err.println("[CONFIG] Invalid " + key + "=" + v + "; using " + def);
+            return def;
+        }
+    }
+
+    public double getDouble(String key, double def) {
+        String v = get(key, null);
+        try {
+            return v != null ? Double.parseDouble(v) : def;
+        } catch (NumberFormatException e) {
+            System.err.println("[CONFIG] Invalid " + key + "=" + v + "; using " + def);
+            return def;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        String v = get(key, null);
+        return v != null ? Boolean.parseBoolean(v) : def;
+    }
+}
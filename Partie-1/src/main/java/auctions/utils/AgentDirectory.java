@@ -0,0 +1,161 @@
+package auctions.utils;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import auctions.metrics.AgentMetrics;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.proto.SubscriptionInitiator;
+import jade.util.leap.Iterator;
+
+/**
+ * Local, incrementally updated view of the agents offering one DF service type.
+ *
+ * The directory subscribes to the DF once and applies register/deregister
+ * notifications as they arrive, so lookups never block on a DF round-trip.
+ * Lookups return an immutable snapshot that is only rebuilt after a change;
+ * the counters show how many lookups each rebuild served, and how many
+ * came before the DF's first answer (those may have missed members).
+ * Callers that keep their own structure built from the members, checked
+ * against {@link #getVersion}, report each use of it through
+ * {@link #cachedLookup} so those lookups are counted too.
+ * The content languages each member advertises in its service description
+ * are kept too, so senders can pick an encoding per receiver.
+ * An optional listener hears about membership changes on the subscribing
+ * agent's thread.
+ */
+public class AgentDirectory implements AgentMetrics.Directory {
+    private final String serviceType;
+    private final Map<AID, Set<String>> members = new LinkedHashMap<>();
+    private volatile AID[] snapshot = new AID[0];
+    private Runnable onChange;
+
+    // Counters
+    private final LongAdder  lookups       = new LongAdder();
+    private final AtomicLong early         = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong version       = new AtomicLong();
+    private volatile long lastRefreshLagMs = -1;
+    private volatile long maxRefreshLagMs  = -1;
+
+    public AgentDirectory(String serviceType) {
+        this.serviceType = serviceType;
+    }
+
+    /** Run {@code listener} after every notification that changed the members. */
+    public void setOnChange(Runnable listener) {
+        this.onChange = listener;
+    }
+
+    /** Build the DF subscription behaviour; the caller adds it to its agent. */
+    public SubscriptionInitiator subscribe(Agent agent) {
+        DFAgentDescription template = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(serviceType);
+        template.addServices(sd);
+
+        SearchConstraints sc = new SearchConstraints();
+        sc.setMaxResults(Long.MAX_VALUE);
+
+        ACLMessage subscription =
+            DFService.createSubscriptionMessage(agent, agent.getDefaultDF(), template, sc);
+
+        return new SubscriptionInitiator(agent, subscription) {
+            @Override
+            protected void handleInform(ACLMessage inform) {
+                try {
+                    if (apply(DFService.decodeNotification(inform.getContent()),
+                              inform.getPostTimeStamp()) && onChange != null) {
+                        onChange.run();
+                    }
+                } catch (FIPAException fe) {
+                    System.err.println("[DIRECTORY] Bad DF notification: " + fe.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Apply one DF notification: entries without services are deregistrations.
+     * The refresh lag is the time the notification waited in the mailbox.
+     * Returns true if the members changed.
+     */
+    synchronized boolean apply(DFAgentDescription[] changes, long postedAt) {
+        boolean changed = false;
+        for (DFAgentDescription d : changes) {
+            Iterator services = d.getAllServices();
+            if (services.hasNext()) {
+                Set<String> languages = new HashSet<>();
+                while (services.hasNext()) {
+                    Iterator it = ((ServiceDescription) services.next()).getAllLanguages();
+                    while (it.hasNext()) {
+                        languages.add((String) it.next());
+                    }
+                }
+                changed |= !languages.equals(members.put(d.getName(), languages));
+            } else {
+                changed |= members.remove(d.getName()) != null;
+            }
+        }
+        if (changed) {
+            snapshot = members.keySet().toArray(new AID[0]);
+            version.incrementAndGet();
+        }
+        notifications.incrementAndGet();
+        if (postedAt > 0) {
+            long lag = Math.max(0, System.currentTimeMillis() - postedAt);
+            lastRefreshLagMs = lag;
+            maxRefreshLagMs  = Math.max(maxRefreshLagMs, lag);
+        }
+        return changed;
+    }
+
+    /** Current members; never blocks and never contacts the DF. */
+    public AID[] members() {
+        cachedLookup();
+        return snapshot;
+    }
+
+    /** Count a lookup the caller served from what it built at the current {@link #getVersion}. */
+    public void cachedLookup() {
+        lookups.increment();
+        if (notifications.get() == 0) early.incrementAndGet();   // the DF has not answered yet
+    }
+
+    /** True if the member advertised {@code language} in its service description. */
+    public synchronized boolean speaks(AID member, String language) {
+        Set<String> languages = members.get(member);
+        return languages != null && languages.contains(language);
+    }
+
+    public String getServiceType()    { return serviceType; }
+    public int size()                 { return snapshot.length; }
+    public long getVersion()          { return version.get(); }
+    public long getLookups()          { return lookups.sum(); }
+    /** Lookups made before the first DF notification, which may have missed members. */
+    public long getEarlyLookups()     { return early.get(); }
+    /** Times the snapshot was rebuilt; each one follows a membership change. */
+    public long getRebuilds()         { return version.get(); }
+    public long getNotifications()    { return notifications.get(); }
+    public long getLastRefreshLagMs() { return lastRefreshLagMs; }
+    public long getMaxRefreshLagMs()  { return maxRefreshLagMs; }
+
+    @Override
+    public String toString() {
+        return String.format("%s directory: %d members, %d lookups (%d before the first DF answer), "
+                + "%d snapshot rebuilds, %d notifications, refresh lag %d ms (max %d ms)",
+            serviceType, size(), getLookups(), getEarlyLookups(), getRebuilds(),
+            getNotifications(), lastRefreshLagMs, maxRefreshLagMs);
+    }
+}
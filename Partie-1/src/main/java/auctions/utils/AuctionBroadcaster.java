@@ -0,0 +1,177 @@
+package auctions.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import auctions.metrics.AgentMetrics;
+import auctions.models.Money;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Sends each auction update once, as a single ACL message addressed to
+ * every subscriber: all buyers known to the directory plus any watchers
+ * (GUIs) that subscribed explicitly.
+ *
+ * Subscribers that advertised {@link AuctionCodec#BINARY_LANGUAGE} get the
+ * binary encoding, everyone else the text one, so an update costs at most
+ * two messages. The receiver lists are cached and only rebuilt when the
+ * buyer directory or the watcher set changes.
+ */
+public class AuctionBroadcaster {
+    private final Agent agent;
+    private final AgentDirectory buyers;
+    private final AgentMetrics metrics;   // null: send directly
+    // Watcher -> speaks the binary codec
+    private final Map<AID, Boolean> watchers = new LinkedHashMap<>();
+
+    private AID[] binaryReceivers = new AID[0];
+    private AID[] textReceivers   = new AID[0];
+    private long builtForVersion = -1;
+    private boolean watchersChanged = true;
+
+    private long published;
+    private long deliveries;
+
+    public AuctionBroadcaster(Agent agent, AgentDirectory buyers) {
+        this(agent, buyers, null);
+    }
+
+    /** Count the updates in the agent's sent-message metrics. */
+    public AuctionBroadcaster(Agent agent, AgentDirectory buyers, AgentMetrics metrics) {
+        this.agent   = agent;
+        this.buyers  = buyers;
+        this.metrics = metrics;
+    }
+
+    /** Add or update a watcher; returns false if nothing changed. */
+    public boolean subscribe(AID watcher, boolean binary) {
+        Boolean previous = watchers.put(watcher, binary);
+        boolean changed = previous == null || previous != binary;
+        watchersChanged |= changed;
+        return changed;
+    }
+
+    /** Add a watcher, keeping its codec if it already subscribed. */
+    public boolean subscribe(AID watcher) {
+        if (watchers.containsKey(watcher)) return false;
+        return subscribe(watcher, false);
+    }
+
+    public boolean unsubscribe(AID watcher) {
+        boolean removed = watchers.remove(watcher) != null;
+        watchersChanged |= removed;
+        return removed;
+    }
+
+    public void publishNewAuction(String auctionId, long startCents, long endTimeMs, String item) {
+        rebuildIfChanged();
+        byte[] binary = binaryReceivers.length > 0
+            ? AuctionCodec.encodeNewAuction(auctionId, startCents, endTimeMs, item) : null;
+        publish(binary, needsText(binary)
+            ? AuctionProtocol.newAuction(auctionId, Money.toAmount(startCents), endTimeMs, item) : null);
+    }
+
+    public void publishBid(String auctionId, String bidder, long cents) {
+        rebuildIfChanged();
+        byte[] binary = binaryReceivers.length > 0
+            ? AuctionCodec.encodeBid(auctionId, bidder, cents) : null;
+        publish(binary, needsText(binary)
+            ? AuctionProtocol.bid(auctionId, bidder, Money.toAmount(cents)) : null);
+    }
+
+    public void publishExtended(String auctionId, long endTimeMs) {
+        rebuildIfChanged();
+        byte[] binary = binaryReceivers.length > 0
+            ? AuctionCodec.encodeExtended(auctionId, endTimeMs) : null;
+        publish(binary, needsText(binary)
+            ? AuctionProtocol.extended(auctionId, endTimeMs) : null);
+    }
+
+    public void publishClose(String auctionId, String winner, long cents) {
+        rebuildIfChanged();
+        byte[] binary = binaryReceivers.length > 0
+            ? AuctionCodec.encodeClose(auctionId, winner, cents) : null;
+        publish(binary, needsText(binary)
+            ? AuctionProtocol.close(auctionId, winner, Money.toAmount(cents)) : null);
+    }
+
+    /** Each encoding is only built if someone receives it. */
+    private boolean needsText(byte[] binary) {
+        return textReceivers.length > 0 || binary == null;
+    }
+
+    private void publish(byte[] binary, String text) {
+        if (binary == null) {
+            send(textReceivers, binaryReceivers, text, null);
+        } else {
+            send(binaryReceivers, null, null, binary);
+            send(textReceivers, null, text, null);
+        }
+    }
+
+    private void send(AID[] to, AID[] more, String text, byte[] binary) {
+        int count = to.length + (more != null ? more.length : 0);
+        if (count == 0) return;
+
+        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+        for (AID r : to) {
+            msg.addReceiver(r);
+        }
+        if (more != null) {
+            for (AID r : more) {
+                msg.addReceiver(r);
+            }
+        }
+        AuctionCodec.setContent(msg, binary, text);
+        if (metrics != null) {
+            metrics.send(msg);
+        } else {
+            agent.send(msg);
+        }
+
+        published++;
+        deliveries += count;
+    }
+
+    private void rebuildIfChanged() {
+        long version = buyers.getVersion();
+        if (!watchersChanged && version == builtForVersion) {
+            buyers.cachedLookup();
+            return;
+        }
+
+        Set<AID> seen = new LinkedHashSet<>();
+        List<AID> binary = new ArrayList<>();
+        List<AID> text   = new ArrayList<>();
+        for (Map.Entry<AID, Boolean> w : watchers.entrySet()) {
+            seen.add(w.getKey());
+            (w.getValue() ? binary : text).add(w.getKey());
+        }
+        for (AID b : buyers.members()) {
+            if (!seen.add(b)) continue;
+            (buyers.speaks(b, AuctionCodec.BINARY_LANGUAGE) ? binary : text).add(b);
+        }
+        binaryReceivers = binary.toArray(new AID[0]);
+        textReceivers   = text.toArray(new AID[0]);
+        builtForVersion = version;
+        watchersChanged = false;
+    }
+
+    public int getWatcherCount()   { return watchers.size(); }
+    public long getPublished()     { return published; }
+    public long getDeliveries()    { return deliveries; }
+
+    @Override
+    public String toString() {
+        return String.format("broadcaster: %d watchers, %d binary / %d text receivers, "
+                + "%d messages for %d deliveries",
+            watchers.size(), binaryReceivers.length, textReceivers.length,
+            published, deliveries);
+    }
+}
@@ -0,0 +1,334 @@
+package auctions.utils;
+
+import java.nio.charset.StandardCharsets;
+
+import auctions.models.Bid;
+import auctions.models.Money;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Decodes NEW_AUCTION / BID / PROXY / EXTENDED / CLOSE messages in either wire format and encodes the
+ * compact binary one.
+ *
+ * Binary messages carry {@link #BINARY_LANGUAGE} as their ACL language and
+ * the payload in the byte-sequence content (big-endian):
+ *
+ *   0  byte   version (1)
+ *   1  byte   type (1 = NEW_AUCTION, 2 = BID, 3 = PROXY, 4 = EXTENDED, 5 = CLOSE)
+ *   2  long   auction id, most significant UUID bits
+ *   10 long   auction id, least significant UUID bits
+ *   18 long   amount in cents (start price for NEW_AUCTION, maximum for PROXY,
+ *             final price for CLOSE), or the new end time in ms for EXTENDED
+ *   26 short  name length n
+ *   28 n      name, UTF-8 (bidder for BID/PROXY, item for NEW_AUCTION,
+ *             winner for CLOSE, empty if none)
+ *   28+n long end time in ms, NEW_AUCTION only (absent from older senders)
+ *
+ * Anything else is parsed as the pipe-delimited text of {@link AuctionProtocol}.
+ * Agents advertise binary support through the ACL/DF language field, and
+ * peers that never advertised it keep receiving text.
+ *
+ * Decoding fills objects owned by the codec, which are overwritten by the
+ * next call; one codec per agent. Its symbol table is bounded, so ids of
+ * long-closed auctions do not accumulate.
+ */
+public class AuctionCodec {
+    public static final String BINARY_LANGUAGE = "auction-bin/1";
+
+    public static final byte VERSION          = 1;
+    public static final int  TYPE_UNKNOWN     = 0;
+    public static final int  TYPE_NEW_AUCTION = 1;
+    public static final int  TYPE_BID         = 2;
+    public static final int  TYPE_PROXY       = 3;
+    public static final int  TYPE_EXTENDED    = 4;
+    public static final int  TYPE_CLOSE       = 5;
+
+    static final int OFF_TYPE  = 1;
+    static final int OFF_ID    = 2;
+    static final int OFF_CENTS = 18;
+    static final int OFF_NAME  = 26;
+    static final int HEADER    = 28;
+
+    private final SymbolTable symbols;
+    private final Bid bid = new Bid();
+    private String item;
+    private long endTimeMs;
+    private long binaryDecoded;
+    private long textDecoded;
+    private long malformed;
+
+    public AuctionCodec() {
+        this(SymbolTable.DEFAULT_GENERATION);
+    }
+
+    /** A codec interning up to {@code symbols} ids and names per generation; see {@link SymbolTable}. */
+    public AuctionCodec(int symbols) {
+        this.symbols = new SymbolTable(symbols);
+    }
+
+    /** True if the message uses the binary format. */
+    public static boolean isBinary(ACLMessage msg) {
+        return BINARY_LANGUAGE.equals(msg.getLanguage()) && msg.hasByteSequenceContent();
+    }
+
+    /**
+     * Decode a seller or buyer message. For BID the reusable {@link #bid()}
+     * holds auction id, bidder and amount (the maximum for PROXY, winner and
+     * final price for CLOSE, with a null winner if nobody bid); for
+     * NEW_AUCTION it holds auction id and start price, {@link #item()}
+     * holds the item name and {@link #endTime()} the end time (0 if the
+     * sender did not give one). For EXTENDED it holds the auction id and
+     * {@link #endTime()} the new end time.
+     *
+     * A text message whose amount or end time does not parse as a finite
+     * number is counted in {@link #getMalformed} and decodes as TYPE_UNKNOWN.
+     *
+     * @return the message type, or TYPE_UNKNOWN if it cannot be decoded
+     */
+    public int decode(ACLMessage msg) {
+        if (isBinary(msg)) {
+            return decodeBinary(msg.getByteSequenceContent());
+        }
+        String content = msg.getContent();
+        return content != null ? decodeText(content) : TYPE_UNKNOWN;
+    }
+
+    private int decodeBinary(byte[] b) {
+        if (b.length < HEADER || b[0] != VERSION) {
+            return TYPE_UNKNOWN;
+        }
+        int type = b[OFF_TYPE];
+        int nameLen = ((b[OFF_NAME] & 0xff) << 8) | (b[OFF_NAME + 1] & 0xff);
+        if (HEADER + nameLen > b.length) {
+            return TYPE_UNKNOWN;
+        }
+
+        bid.setAuctionId(symbols.internUuid(b, OFF_ID));
+        bid.setAmountCents(getLong(b, OFF_CENTS));
+        String name = symbols.internUtf8(b, HEADER, nameLen);
+
+        if (type == TYPE_BID || type == TYPE_PROXY) {
+            bid.setBidder(name);
+        } else if (type == TYPE_CLOSE) {
+            bid.setBidder(nameLen > 0 ? name : null);
+        } else if (type == TYPE_EXTENDED) {
+            endTimeMs = getLong(b, OFF_CENTS);
+        } else if (type == TYPE_NEW_AUCTION) {
+            bid.setBidder(null);
+            item = name;
+            endTimeMs = b.length >= HEADER + nameLen + 8 ? getLong(b, HEADER + nameLen) : 0;
+        } else {
+            return TYPE_UNKNOWN;
+        }
+        binaryDecoded++;
+        return type;
+    }
+
+    private int decodeText(String content) {
+        try {
+            return parseText(content);
+        } catch (NumberFormatException e) {
+            malformed++;
+            return TYPE_UNKNOWN;
+        }
+    }
+
+    private int parseText(String content) {
+        String[] parts = AuctionProtocol.split(content);
+        if (AuctionProtocol.BID.equals(parts[0]) && parts.length >= 3) {
+            if (parts.length > 3) {
+                // BID|auctionId|bidder|amount
+                bid.setAuctionId(parts[1]);
+                bid.setBidder(parts[2]);
+                bid.setAmountCents(cents(parts[3]));
+            } else {
+                // Legacy BID|bidder|amount: no auction id
+                bid.setAuctionId(null);
+                bid.setBidder(parts[1]);
+                bid.setAmountCents(cents(parts[2]));
+            }
+            textDecoded++;
+            return TYPE_BID;
+        }
+        if (AuctionProtocol.PROXY.equals(parts[0]) && parts.length > 3) {
+            // PROXY|auctionId|bidder|max
+            bid.setAuctionId(parts[1]);
+            bid.setBidder(parts[2]);
+            bid.setAmountCents(cents(parts[3]));
+            textDecoded++;
+            return TYPE_PROXY;
+        }
+        if (AuctionProtocol.CLOSE.equals(parts[0]) && parts.length > 3) {
+            // CLOSE|auctionId|winner|amount
+            bid.setAuctionId(parts[1]);
+            bid.setBidder(parts[2].isEmpty() ? null : parts[2]);
+            bid.setAmountCents(cents(parts[3]));
+            textDecoded++;
+            return TYPE_CLOSE;
+        }
+        if (AuctionProtocol.EXTENDED.equals(parts[0]) && parts.length > 2) {
+            // EXTENDED|auctionId|endTimeMs
+            bid.setAuctionId(parts[1]);
+            endTimeMs = Long.parseLong(parts[2]);
+            textDecoded++;
+            return TYPE_EXTENDED;
+        }
+        if (AuctionProtocol.NEW_AUCTION.equals(parts[0]) && parts.length > 3) {
+            // NEW_AUCTION|auctionId|price|endTimeMs|item, or NEW_AUCTION|auctionId|price|item
+            bid.setAuctionId(parts[1]);
+            bid.setBidder(null);
+            bid.setAmountCents(cents(parts[2]));
+            int bar = parts[3].indexOf('|');
+            if (bar > 0 && isDigits(parts[3], bar)) {
+                endTimeMs = Long.parseLong(parts[3].substring(0, bar));
+                item = parts[3].substring(bar + 1);
+            } else {
+                endTimeMs = 0;
+                item = parts[3];
+            }
+            textDecoded++;
+            return TYPE_NEW_AUCTION;
+        }
+        return TYPE_UNKNOWN;
+    }
+
+    /** A text amount in cents; NaN and infinities are malformed too. */
+    private static long cents(String amount) {
+        double value = Double.parseDouble(amount);
+        if (!Double.isFinite(value)) throw new NumberFormatException("Not a finite amount: " + amount);
+        return Money.toCents(value);
+    }
+
+    // === Header peeks: fixed offsets only, for admission before a full decode ===
+
+    /** Type of a binary message from its header, TYPE_UNKNOWN for text or a short payload. */
+    public static int peekType(ACLMessage msg) {
+        if (!isBinary(msg)) return TYPE_UNKNOWN;
+        byte[] b = msg.getByteSequenceContent();
+        return b.length >= HEADER && b[0] == VERSION ? b[OFF_TYPE] : TYPE_UNKNOWN;
+    }
+
+    /** Amount field of a message {@link #peekType} recognised. */
+    public static long peekCents(ACLMessage msg) {
+        return getLong(msg.getByteSequenceContent(), OFF_CENTS);
+    }
+
+    /** Auction id of a message {@link #peekType} recognised, interned as by {@link #decode}. */
+    public String peekAuctionId(ACLMessage msg) {
+        return symbols.internUuid(msg.getByteSequenceContent(), OFF_ID);
+    }
+
+    public Bid bid()              { return bid; }
+    public String item()          { return item; }
+    public long endTime()         { return endTimeMs; }
+    public long getBinaryDecoded() { return binaryDecoded; }
+    public long getTextDecoded()   { return textDecoded; }
+    /** Text messages dropped because a number in them did not parse. */
+    public long getMalformed()     { return malformed; }
+
+    @Override
+    public String toString() {
+        return String.format("codec: %d binary and %d text messages decoded, %d malformed",
+            binaryDecoded, textDecoded, malformed);
+    }
+
+    // === Encoding ===
+
+    public static byte[] encodeBid(String auctionId, String bidder, long cents) {
+        return encode(TYPE_BID, auctionId, cents, bidder);
+    }
+
+    public static byte[] encodeProxy(String auctionId, String bidder, long maxCents) {
+        return encode(TYPE_PROXY, auctionId, maxCents, bidder);
+    }
+
+    public static byte[] encodeExtended(String auctionId, long endTimeMs) {
+        return encode(TYPE_EXTENDED, auctionId, endTimeMs, "");
+    }
+
+    public static byte[] encodeClose(String auctionId, String winner, long cents) {
+        return encode(TYPE_CLOSE, auctionId, cents, winner != null ? winner : "");
+    }
+
+    public static byte[] encodeNewAuction(String auctionId, long startCents, long endTimeMs, String item) {
+        byte[] b = encode(TYPE_NEW_AUCTION, auctionId, startCents, item);
+        if (b == null) return null;
+        byte[] withEnd = new byte[b.length + 8];
+        System.arraycopy(b, 0, withEnd, 0, b.length);
+        putLong(withEnd, b.length, endTimeMs);
+        return withEnd;
+    }
+
+    /** Returns null if the auction id is not a canonical UUID (use text instead). */
+    public static byte[] encode(int type, String auctionId, long cents, String name) {
+        if (!isUuid(auctionId)) {
+            return null;
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xffff) {
+            return null;
+        }
+        byte[] b = new byte[HEADER + nameBytes.length];
+        b[0] = VERSION;
+        b[OFF_TYPE] = (byte) type;
+        putUuid(auctionId, b, OFF_ID);
+        putLong(b, OFF_CENTS, cents);
+        b[OFF_NAME]     = (byte) (nameBytes.length >>> 8);
+        b[OFF_NAME + 1] = (byte) nameBytes.length;
+        System.arraycopy(nameBytes, 0, b, HEADER, nameBytes.length);
+        return b;
+    }
+
+    /** Fill {@code msg} with the binary form, or the text form if binary is not possible. */
+    public static void setContent(ACLMessage msg, byte[] binary, String text) {
+        if (binary != null) {
+            msg.setLanguage(BINARY_LANGUAGE);
+            msg.setByteSequenceContent(binary);
+        } else {
+            msg.setContent(text);
+        }
+    }
+
+    static long getLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (b[off + i] & 0xff);
+        }
+        return v;
+    }
+
+    static void putLong(byte[] b, int off, long v) {
+        for (int i = 7; i >= 0; i--) {
+            b[off + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+    private static boolean isDigits(String s, int end) {
+        for (int i = 0; i < end; i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    public static boolean isUuid(String s) {
+        if (s == null || s.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : Character.digit(c, 16) < 0) return false;
+        }
+        return true;
+    }
+
+    /** Parse the 32 hex digits of a canonical UUID string without allocating. */
+    public static void putUuid(String s, byte[] b, int off) {
+        int p = 0;
+        for (int i = 0; i < 16; i++) {
+            if (s.charAt(p) == '-') p++;
+            int hi = Character.digit(s.charAt(p++), 16);
+            int lo = Character.digit(s.charAt(p++), 16);
+            b[off + i] = (byte) ((hi << 4) | lo);
+        }
+    }
+}
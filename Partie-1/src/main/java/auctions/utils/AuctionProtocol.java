@@ -0,0 +1,96 @@
+package auctions.utils;
+
+/**
+ * Pipe-delimited wire format shared by the seller, buyers and GUI.
+ *
+ *   REQUEST  NEW_AUCTION|auctionId|price|item    GUI -> owning seller
+ *   REQUEST  NEW_AUCTION|price|item              GUI -> seller (legacy)
+ *   INFORM   NEW_AUCTION|auctionId|price|endTimeMs|item  seller -> subscribers
+ *   PROPOSE  BID|auctionId|bidder|amount         buyer/GUI -> seller
+ *   INFORM   BID|auctionId|bidder|amount         seller -> subscribers
+ *   PROPOSE  PROXY|auctionId|bidder|max          buyer -> seller
+ *   INFORM   EXTENDED|auctionId|endTimeMs        seller -> subscribers
+ *   INFORM   CLOSE|auctionId|winner|amount       seller -> subscribers
+ *   REJECT_PROPOSAL  RETRY_AFTER|auctionId|ms    seller -> bidder
+ *
+ * NEW_AUCTION announces the auction's current end time (epoch ms), which
+ * differs from start + duration for auctions restored, handed over or
+ * announced late; announcements without it are still understood.
+ * PROXY registers (or raises) a maximum the seller bids on the buyer's
+ * behalf; see {@link auctions.models.ProxyBook}. EXTENDED announces a
+ * soft-close extension (epoch milliseconds) and CLOSE is the seller's
+ * final word on an auction; the winner is empty if nobody bid.
+ * RETRY_AFTER turns away a bid or proxy the seller had no room for; the
+ * bidder should wait at least that long before bidding again. Its auction
+ * id is empty when the seller shed a text message without parsing it.
+ *
+ * The GUI picks the id (a UUID) of an auction it starts, so it can send the
+ * request to the seller that owns it; see {@link ShardRouter}. Without an
+ * id the receiving seller picks one. A legacy BID|bidder|amount without an
+ * auction id is routed by the seller to its most recently started auction.
+ *
+ * This text form is the fallback; agents that advertise it use the binary
+ * encoding of {@link AuctionCodec} instead.
+ */
+public final class AuctionProtocol {
+    public static final String NEW_AUCTION = "NEW_AUCTION";
+    public static final String BID         = "BID";
+    public static final String PROXY       = "PROXY";
+    public static final String EXTENDED    = "EXTENDED";
+    public static final String CLOSE       = "CLOSE";
+    public static final String RETRY_AFTER = "RETRY_AFTER";
+
+    private AuctionProtocol() {}
+
+    public static String newAuctionRequest(double price, String item) {
+        return NEW_AUCTION + "|" + price + "|" + item;
+    }
+
+    public static String newAuctionRequest(String auctionId, double price, String item) {
+        return NEW_AUCTION + "|" + auctionId + "|" + price + "|" + item;
+    }
+
+    public static String newAuction(String auctionId, double price, long endTimeMs, String item) {
+        return NEW_AUCTION + "|" + auctionId + "|" + price + "|" + endTimeMs + "|" + item;
+    }
+
+    public static String bid(String auctionId, String bidder, double amount) {
+        return BID + "|" + auctionId + "|" + bidder + "|" + amount;
+    }
+
+    public static String proxy(String auctionId, String bidder, double max) {
+        return PROXY + "|" + auctionId + "|" + bidder + "|" + max;
+    }
+
+    public static String extended(String auctionId, long endTimeMs) {
+        return EXTENDED + "|" + auctionId + "|" + endTimeMs;
+    }
+
+    public static String close(String auctionId, String winner, double amount) {
+        return CLOSE + "|" + auctionId + "|" + (winner != null ? winner : "") + "|" + amount;
+    }
+
+    public static String retryAfter(String auctionId, long ms) {
+        return RETRY_AFTER + "|" + (auctionId != null ? auctionId : "") + "|" + ms;
+    }
+
+    /** The wait asked for by a RETRY_AFTER|auctionId|ms reply, or -1 if it is not one. */
+    public static long retryAfterMs(String content) {
+        if (content == null || !content.startsWith(RETRY_AFTER + "|")) return -1;
+        String[] parts = split(content, 3);
+        try {
+            return parts.length == 3 ? Long.parseLong(parts[2]) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Split a message into at most four fields; the last one keeps any '|'. */
+    public static String[] split(String content) {
+        return split(content, 4);
+    }
+
+    public static String[] split(String content, int fields) {
+        return content.split("\\|", fields);
+    }
+}
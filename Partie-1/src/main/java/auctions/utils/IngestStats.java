@@ -0,0 +1,69 @@
+package auctions.utils;
+
+/**
+ * Counters for the seller's batched mailbox drain: how deep the mailbox
+ * was, how many messages each activation took, and how many bid
+ * broadcasts batching saved.
+ */
+public class IngestStats {
+    private long batches;
+    private long messages;
+    private long maxBatch;
+    private long bidsReceived;
+    private long bidsAccepted;
+    private long broadcasts;
+    private long proxiesReceived;
+    private long proxyRaises;
+    private int  lastMailboxDepth;
+    private int  maxMailboxDepth;
+
+    /** Record one activation that drained {@code size} messages, leaving {@code remaining}. */
+    public void recordBatch(int size, int remaining) {
+        batches++;
+        messages += size;
+        maxBatch = Math.max(maxBatch, size);
+        int depth = size + remaining;
+        lastMailboxDepth = depth;
+        maxMailboxDepth  = Math.max(maxMailboxDepth, depth);
+    }
+
+    public void recordBid(boolean accepted) {
+        bidsReceived++;
+        if (accepted) bidsAccepted++;
+    }
+
+    public void recordProxy() {
+        proxiesReceived++;
+    }
+
+    /** A proxy resolution that moved the price. */
+    public void recordProxyRaise() {
+        proxyRaises++;
+    }
+
+    public void recordBroadcast() {
+        broadcasts++;
+    }
+
+    public long getBatches()         { return batches; }
+    public long getMessages()        { return messages; }
+    public long getMaxBatch()        { return maxBatch; }
+    public double getAverageBatch()  { return batches == 0 ? 0 : (double) messages / batches; }
+    public long getBidsReceived()    { return bidsReceived; }
+    public long getBidsAccepted()    { return bidsAccepted; }
+    public long getBroadcasts()      { return broadcasts; }
+    public long getProxiesReceived() { return proxiesReceived; }
+    public long getProxyRaises()     { return proxyRaises; }
+    /** Price changes that never needed their own broadcast. */
+    public long getSuperseded()      { return bidsAccepted + proxyRaises - broadcasts; }
+    public int getLastMailboxDepth() { return lastMailboxDepth; }
+    public int getMaxMailboxDepth()  { return maxMailboxDepth; }
+
+    @Override
+    public String toString() {
+        return String.format("ingest: %d batches (avg %.1f, max %d), mailbox depth %d (max %d), "
+                + "bids %d received / %d accepted, proxies %d received / %d raises, %d broadcast",
+            batches, getAverageBatch(), maxBatch, lastMailboxDepth, maxMailboxDepth,
+            bidsReceived, bidsAccepted, proxiesReceived, proxyRaises, broadcasts);
+    }
+}
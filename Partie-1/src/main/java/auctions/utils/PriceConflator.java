@@ -0,0 +1,70 @@
+package auctions.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Conflation stage between auction state and subscribers.
+ *
+ * Price changes are offered by auction id; instead of being sent right
+ * away they are remembered until the next {@link #drain}, which the owner
+ * calls once per interval. An auction therefore produces at most one
+ * update per interval, and the publisher reads its latest price/bidder at
+ * drain time. With an interval of 0 every offer is published immediately.
+ *
+ * Not thread-safe: used from the owning agent's thread only.
+ */
+public class PriceConflator {
+    private final long intervalMs;
+    private final Set<String> pending = new LinkedHashSet<>();
+
+    private long offered;
+    private long published;
+
+    public PriceConflator(long intervalMs) {
+        this.intervalMs = Math.max(0, intervalMs);
+    }
+
+    /**
+     * Record that an auction changed. Returns true if the caller should
+     * publish it right now (conflation disabled), false if it was queued.
+     */
+    public boolean offer(String auctionId) {
+        offered++;
+        if (intervalMs == 0) {
+            published++;
+            return true;
+        }
+        pending.add(auctionId);
+        return false;
+    }
+
+    /** Hand every auction that changed since the last drain to {@code publish}. */
+    public void drain(Consumer<String> publish) {
+        if (pending.isEmpty()) return;
+        for (String auctionId : pending) {
+            publish.accept(auctionId);
+        }
+        published += pending.size();
+        pending.clear();
+    }
+
+    /** Forget a pending update, e.g. because a final event supersedes it. */
+    public boolean discard(String auctionId) {
+        return pending.remove(auctionId);
+    }
+
+    public long getIntervalMs()  { return intervalMs; }
+    public boolean isEnabled()   { return intervalMs > 0; }
+    public int getPending()      { return pending.size(); }
+    public long getOffered()     { return offered; }
+    public long getPublished()   { return published; }
+
+    @Override
+    public String toString() {
+        return String.format("conflation every %d ms: %d updates offered, %d published (%.1f%% saved)",
+            intervalMs, offered, published,
+            offered == 0 ? 0.0 : 100.0 * (offered - published) / offered);
+    }
+}
@@ -0,0 +1,160 @@
+package auctions.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import jade.core.AID;
+
+/**
+ * Which seller owns an auction: consistent hashing of the auction id over
+ * the sellers in an {@link AgentDirectory}.
+ *
+ * Every seller is placed on a 64-bit ring at {@code vnodes} points derived
+ * from its name; an auction belongs to the first point at or after the hash
+ * of its id. Buyers, GUIs and sellers build the same ring from the same DF
+ * membership, so they agree on the owner without asking anyone, and a
+ * seller joining or leaving only moves about 1/n of the auctions.
+ *
+ * The ring is an immutable pair of sorted arrays, rebuilt only when the
+ * directory changes; a lookup is one hash and a binary search.
+ */
+public class ShardRouter {
+    public static final int DEFAULT_VNODES = 128;
+
+    private final AgentDirectory sellers;
+    private final int vnodes;
+    private volatile Ring ring = Ring.EMPTY;
+    private long builtForVersion = -1;
+    private long rebuilds;
+
+    public ShardRouter(AgentDirectory sellers, int vnodes) {
+        this.sellers = sellers;
+        this.vnodes  = Math.max(1, vnodes);
+    }
+
+    public ShardRouter(AgentDirectory sellers) {
+        this(sellers, DEFAULT_VNODES);
+    }
+
+    /** Owner of {@code auctionId}, or null while no seller is known. */
+    public AID route(String auctionId) {
+        return current().owner(auctionId);
+    }
+
+    /** The ring for the current membership; rebuilt here if it changed. */
+    public synchronized Ring current() {
+        long v = sellers.getVersion();
+        if (v != builtForVersion) {
+            ring = Ring.of(sellers.members(), vnodes);
+            builtForVersion = v;
+            rebuilds++;
+        } else {
+            sellers.cachedLookup();
+        }
+        return ring;
+    }
+
+    /** Ring of the current sellers except {@code leaving}, e.g. to hand its auctions off. */
+    public Ring without(AID leaving) {
+        AID[] members = sellers.members();
+        AID[] others = new AID[members.length];
+        int n = 0;
+        for (AID m : members) {
+            if (!m.equals(leaving)) others[n++] = m;
+        }
+        return Ring.of(Arrays.copyOf(others, n), vnodes);
+    }
+
+    public AgentDirectory getSellers() { return sellers; }
+    public int getVnodes()             { return vnodes; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("shard ring: %d sellers x %d points, %d rebuilds",
+            ring.size(), vnodes, rebuilds);
+    }
+
+    /** One immutable ring; safe to share between threads. */
+    public static final class Ring {
+        static final Ring EMPTY = new Ring(new long[0], new AID[0], 0);
+
+        private final long[] points;   // sorted
+        private final AID[] owners;    // owners[i] holds points[i]
+        private final int size;
+
+        private Ring(long[] points, AID[] owners, int size) {
+            this.points = points;
+            this.owners = owners;
+            this.size   = size;
+        }
+
+        /** Ring over {@code members}; their order does not matter. */
+        public static Ring of(AID[] members, int vnodes) {
+            int n = members.length * vnodes;
+            long[] keyed = new long[n];
+            AID[] byIndex = new AID[n];
+            // Sort points and owners together through a parallel index array
+            Integer[] order = new Integer[n];
+            int k = 0;
+            for (AID member : members) {
+                for (int v = 0; v < vnodes; v++) {
+                    keyed[k] = hash(member.getName() + "#" + v);
+                    byIndex[k] = member;
+                    order[k] = k;
+                    k++;
+                }
+            }
+            // Ties between two sellers' points are broken by name, so every agent agrees
+            Arrays.sort(order, (a, b) -> {
+                int c = Long.compareUnsigned(keyed[a], keyed[b]);
+                return c != 0 ? c : byIndex[a].getName().compareTo(byIndex[b].getName());
+            });
+            long[] points = new long[n];
+            AID[] owners = new AID[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = keyed[order[i]];
+                owners[i] = byIndex[order[i]];
+            }
+            return new Ring(points, owners, members.length);
+        }
+
+        /** Owner of {@code key}, or null on an empty ring. */
+        public AID owner(String key) {
+            if (points.length == 0) return null;
+            long h = hash(key);
+            // First point at or after h, wrapping around (unsigned order)
+            int lo = 0, hi = points.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Long.compareUnsigned(points[mid], h) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return owners[lo == points.length ? 0 : lo];
+        }
+
+        public boolean contains(AID member) {
+            for (AID owner : owners) {
+                if (owner.equals(member)) return true;
+            }
+            return false;
+        }
+
+        /** Number of sellers on the ring. */
+        public int size() { return size; }
+    }
+
+    /** 64-bit FNV-1a of the UTF-8 bytes, finished with the MurmurHash3 mixer. */
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
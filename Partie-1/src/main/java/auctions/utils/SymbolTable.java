@@ -0,0 +1,166 @@
+package auctions.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns strings straight from encoded bytes.
+ *
+ * A lookup hashes and compares the raw bytes in place, so decoding a
+ * bidder name or auction id that was seen before allocates nothing.
+ *
+ * The table is bounded by generations: once the current one holds
+ * {@code generationSize} symbols it becomes the previous one and a fresh
+ * table starts. Symbols still in use are carried over on their next
+ * lookup; ids of closed auctions and departed bidders are dropped with
+ * the generation after next. Single-threaded: each agent owns its own table.
+ */
+public class SymbolTable {
+    public static final int DEFAULT_GENERATION = 4096;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int generationSize;
+    private final int initialCapacity;
+    private Table current;
+    private Table previous;
+    private long generations;
+
+    public SymbolTable() {
+        this(DEFAULT_GENERATION);
+    }
+
+    public SymbolTable(int generationSize) {
+        this.generationSize  = Math.max(16, generationSize);
+        this.initialCapacity = Math.min(1024, this.generationSize);
+        this.current         = new Table(initialCapacity);
+    }
+
+    /** Canonical String for {@code len} UTF-8 bytes at {@code off}. */
+    public String internUtf8(byte[] buf, int off, int len) {
+        return intern(buf, off, len, false);
+    }
+
+    /** Canonical UUID string for the 16 raw id bytes at {@code off}. */
+    public String internUuid(byte[] buf, int off) {
+        return intern(buf, off, 16, true);
+    }
+
+    /** Symbols held, in both generations. */
+    public int size() { return current.size + (previous != null ? previous.size : 0); }
+
+    /** Times the current generation filled up and was retired. */
+    public long getGenerations() { return generations; }
+
+    private String intern(byte[] buf, int off, int len, boolean uuid) {
+        int h = hash(buf, off, len);
+        String value = current.get(h, buf, off, len);
+        if (value != null) {
+            return value;
+        }
+        if (previous != null) {
+            value = previous.get(h, buf, off, len);   // still in use: carry it over
+        }
+        if (value == null) {
+            value = uuid ? uuidString(buf, off)
+                         : new String(buf, off, len, StandardCharsets.UTF_8);
+        }
+        if (current.size >= generationSize) {
+            previous = current;
+            current  = new Table(initialCapacity);
+            generations++;
+        }
+        current.put(h, Arrays.copyOfRange(buf, off, off + len), value);
+        return value;
+    }
+
+    /** One generation: open addressing over the raw bytes, grown at half full. */
+    private static final class Table {
+        byte[][] keys;
+        String[] values;
+        int[] hashes;
+        int size;
+
+        Table(int capacity) {
+            int cap = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+            keys   = new byte[cap][];
+            values = new String[cap];
+            hashes = new int[cap];
+        }
+
+        String get(int h, byte[] buf, int off, int len) {
+            int mask = keys.length - 1;
+            for (int i = h & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (hashes[i] == h && SymbolTable.equals(keys[i], buf, off, len)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(int h, byte[] key, String value) {
+            int mask = keys.length - 1;
+            int i = h & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i]   = key;
+            values[i] = value;
+            hashes[i] = h;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            int[] oldHashes = hashes;
+            int cap = oldKeys.length << 1;
+            keys   = new byte[cap][];
+            values = new String[cap];
+            hashes = new int[cap];
+            int mask = cap - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == null) continue;
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i]   = oldKeys[j];
+                values[i] = oldValues[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+    }
+
+    private static int hash(byte[] buf, int off, int len) {
+        int h = 0x811c9dc5;
+        for (int i = off; i < off + len; i++) {
+            h = (h ^ buf[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] buf, int off, int len) {
+        if (key.length != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (key[i] != buf[off + i]) return false;
+        }
+        return true;
+    }
+
+    /** Same text as UUID.toString() for the 16 bytes at off. */
+    private static String uuidString(byte[] buf, int off) {
+        char[] out = new char[36];
+        int p = 0;
+        for (int i = 0; i < 16; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                out[p++] = '-';
+            }
+            int b = buf[off + i] & 0xff;
+            out[p++] = HEX[b >>> 4];
+            out[p++] = HEX[b & 0x0f];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,267 @@
+package auctions.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hierarchical timing wheel shared by every agent in the JVM.
+ *
+ * One daemon thread advances the wheel a tick at a time and only touches
+ * the bucket that is due, so idle timers cost nothing. Level 0 holds the
+ * next {@code 256} ticks; each higher level holds 64 buckets that are
+ * cascaded down when the level below wraps. Scheduling and cancelling are
+ * lock-free for callers (they go through queues drained by the wheel
+ * thread) and O(1); a cancelled timer is unlinked from its bucket directly.
+ *
+ * Callbacks run on the wheel thread and must be short; agents should
+ * just post a message to themselves (see {@link jade.core.Agent#postMessage}).
+ */
+public class TimerWheel {
+    private static final int L0_BITS = 8;
+    private static final int LN_BITS = 6;
+    private static final int LEVELS  = 4;
+
+    private static volatile TimerWheel shared;
+
+    private final long tickMs;
+    private final Bucket[][] wheel = new Bucket[LEVELS][];
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private long tick;   // ticks processed so far; wheel thread only
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong fired     = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public TimerWheel(long tickMs, String name) {
+        if (tickMs < 1) throw new IllegalArgumentException("tickMs must be >= 1");
+        this.tickMs = tickMs;
+        for (int level = 0; level < LEVELS; level++) {
+            int slots = 1 << (level == 0 ? L0_BITS : LN_BITS);
+            wheel[level] = new Bucket[slots];
+            for (int i = 0; i < slots; i++) {
+                wheel[level][i] = new Bucket();
+            }
+        }
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** The JVM-wide wheel (10 ms ticks), started on first use. */
+    public static TimerWheel shared() {
+        TimerWheel w = shared;
+        if (w == null) {
+            synchronized (TimerWheel.class) {
+                w = shared;
+                if (w == null) {
+                    shared = w = new TimerWheel(10, "timer-wheel");
+                }
+            }
+        }
+        return w;
+    }
+
+    /** Run {@code task} on the wheel thread after about {@code delayMs}. */
+    public Timeout schedule(long delayMs, Runnable task) {
+        long deadline = elapsedMs() + Math.max(0, delayMs);
+        Timeout t = new Timeout(this, task, deadline);
+        additions.add(t);
+        scheduled.incrementAndGet();
+        return t;
+    }
+
+    // === Schedule helpers ===
+
+    /** {@code delayMs} spread uniformly by +/- {@code fraction}. */
+    public static long jittered(long delayMs, double fraction) {
+        double spread = delayMs * fraction;
+        return Math.max(0, Math.round(delayMs + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * spread));
+    }
+
+    /** Exponential backoff: base * 2^attempt, capped, with +/- 20% jitter. */
+    public static long backoff(long baseMs, int attempt, long maxMs) {
+        long delay = baseMs << Math.min(Math.max(attempt, 0), 30);
+        return jittered(Math.min(Math.max(delay, baseMs), maxMs), 0.2);
+    }
+
+    // === Wheel thread ===
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private void run() {
+        while (true) {
+            long nextTickAt = (tick + 1) * tickMs;
+            long sleep = nextTickAt - elapsedMs();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            // Catch up on every tick that is due
+            long now = elapsedMs();
+            while ((tick + 1) * tickMs <= now) {
+                processCancellations();
+                processAdditions();
+                advance();
+            }
+        }
+    }
+
+    private void processAdditions() {
+        Timeout t;
+        while ((t = additions.poll()) != null) {
+            if (t.state.get() == Timeout.PENDING) {
+                place(t, tick + 1);
+            }
+        }
+    }
+
+    private void processCancellations() {
+        Timeout t;
+        while ((t = cancellations.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+            }
+        }
+    }
+
+    /** First tick at or after the deadline, so nothing fires early. */
+    private long dueTick(Timeout t) {
+        return (t.deadlineMs + tickMs - 1) / tickMs;
+    }
+
+    /** Put a timer in the bucket of the lowest level that covers its deadline. */
+    private void place(Timeout t, long earliest) {
+        long due = Math.max(dueTick(t), earliest);
+        int shift = 0;
+        for (int level = 0; level < LEVELS; level++) {
+            Bucket[] buckets = wheel[level];
+            long slot = due >>> shift;
+            long span = slot - (tick >>> shift);
+            if (span < buckets.length || level == LEVELS - 1) {
+                // The top level clamps; such timers are re-placed when cascaded
+                slot = Math.min(slot, (tick >>> shift) + buckets.length - 1);
+                buckets[(int) (slot & (buckets.length - 1))].add(t);
+                return;
+            }
+            shift += level == 0 ? L0_BITS : LN_BITS;
+        }
+    }
+
+    private void advance() {
+        tick++;
+        // Cascade higher levels whose bucket boundary was just crossed
+        int levelShift = L0_BITS;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << levelShift) - 1)) != 0) break;
+            Bucket b = wheel[level][(int) ((tick >>> levelShift) & (wheel[level].length - 1))];
+            Timeout t = b.drain();
+            while (t != null) {
+                Timeout next = t.next;
+                t.next = t.prev = null;
+                place(t, tick);
+                t = next;
+            }
+            levelShift += LN_BITS;
+        }
+
+        Bucket due = wheel[0][(int) (tick & (wheel[0].length - 1))];
+        Timeout t = due.drain();
+        while (t != null) {
+            Timeout next = t.next;
+            t.next = t.prev = null;
+            if (dueTick(t) > tick) {
+                place(t, tick + 1);   // clamped into this bucket from far away; not due yet
+            } else if (t.state.compareAndSet(Timeout.PENDING, Timeout.FIRED)) {
+                fired.incrementAndGet();
+                try {
+                    t.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("[TIMER] Task failed: " + e);
+                }
+            }
+            t = next;
+        }
+    }
+
+    public long getScheduled() { return scheduled.get(); }
+    public long getFired()     { return fired.get(); }
+    public long getCancelled() { return cancelled.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("timer wheel (%d ms ticks): %d scheduled, %d fired, %d cancelled",
+            tickMs, getScheduled(), getFired(), getCancelled());
+    }
+
+    /** Doubly linked bucket; wheel thread only. */
+    private static final class Bucket {
+        private Timeout head;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = null;
+            t.next = head;
+            if (head != null) head.prev = t;
+            head = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.bucket != this) return;
+            if (t.prev != null) t.prev.next = t.next; else head = t.next;
+            if (t.next != null) t.next.prev = t.prev;
+            t.next = t.prev = null;
+            t.bucket = null;
+        }
+
+        /** Detach and return the whole chain. */
+        Timeout drain() {
+            Timeout h = head;
+            head = null;
+            for (Timeout t = h; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            return h;
+        }
+    }
+
+    /** Handle to one scheduled task. */
+    public static final class Timeout {
+        static final int PENDING = 0, FIRED = 1, CANCELLED = 2;
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadlineMs;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Bucket links, owned by the wheel thread
+        private Timeout prev, next;
+        private Bucket bucket;
+
+        Timeout(TimerWheel wheel, Runnable task, long deadlineMs) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineMs = deadlineMs;
+        }
+
+        /** O(1); returns false if the task already ran or was cancelled. */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            wheel.cancelled.incrementAndGet();
+            wheel.cancellations.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() { return state.get() == CANCELLED; }
+        public boolean isExpired()   { return state.get() == FIRED; }
+    }
+}
@@ -0,0 +1,287 @@
+package auctions.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Recovery, torn-tail handling and segment rollover of {@link BidJournal}. */
+class BidJournalTest {
+    private static final String AUCTION = UUID.randomUUID().toString();
+    private static final int RECORDS_PER_SEGMENT = 4;
+    private static final long SEGMENT = RECORDS_PER_SEGMENT * BidJournal.RECORD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversEveryRecordAndAppendsAfterThem() throws IOException {
+        try (BidJournal journal = open()) {
+            assertEquals(0, journal.recover(0, null));
+            journal.append(JournalRecord.NEW_AUCTION, AUCTION, 100_00, 60_000, "Lamp");
+            appendBids(journal, 1, 5);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            assertEquals(6, journal.recover(0, r -> replayed.add(describe(r))));
+            assertEquals(7, journal.getNextSeq());
+            assertEquals(7, journal.append(JournalRecord.CLOSE, AUCTION, 105_00, 0, "bidder5"));
+        }
+        assertEquals("1 NEW_AUCTION Lamp 10000 60000", replayed.get(0));
+        assertEquals("6 BID bidder5 10500 0", replayed.get(5));
+        assertEquals(7, countRecords());
+    }
+
+    @Test
+    void replaysOnlyRecordsFromTheGivenSequence() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 10);
+        }
+        List<Long> seqs = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(7, r -> seqs.add(r.getSeq()));
+            assertEquals(11, journal.getNextSeq());
+        }
+        assertEquals(List.of(7L, 8L, 9L, 10L), seqs);
+    }
+
+    @Test
+    void rollsOverToANewSegmentWhenFull() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 10);
+            assertEquals(3, journal.getSegmentsOpened());
+        }
+        assertEquals(List.of("segment-00000000000000000001.log", "segment-00000000000000000005.log",
+            "segment-00000000000000000009.log"), files(".log"));
+
+        List<Long> seqs = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(0, r -> seqs.add(r.getSeq()));
+            // Appending continues in the partly used last segment
+            appendBids(journal, 11, 13);
+        }
+        assertEquals(10, seqs.size());
+        assertEquals(1L, seqs.get(0));
+        assertEquals(10L, seqs.get(9));
+        assertEquals(4, files(".log").size());
+        assertEquals(13, countRecords());
+    }
+
+    @Test
+    void stopsAtACorruptTailAndOverwritesIt() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 7);
+        }
+        // Flip one byte of seq 7, the last record: its CRC no longer matches
+        corrupt("segment-00000000000000000005.log", 2, 40);
+
+        List<Long> seqs = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(0, r -> seqs.add(r.getSeq()));
+            assertEquals(7, journal.getNextSeq());
+            assertEquals(7, journal.append(JournalRecord.BID, AUCTION, 300_00, 0, "retry"));
+        }
+        assertEquals(6, seqs.size());
+
+        List<String> names = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(7, r -> names.add(r.getName()));
+        }
+        assertEquals(List.of("retry"), names);
+    }
+
+    @Test
+    void stopsAtATornRecordThatBreaksTheSequence() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 3);
+        }
+        // A record with a valid CRC but the wrong sequence number, as from a stale page
+        Path segment = dir.resolve("segment-00000000000000000001.log");
+        byte[] record = readRecord(segment, 0);
+        writeRecord(segment, 2, record);
+
+        try (BidJournal journal = open()) {
+            assertEquals(2, journal.recover(0, r -> { }));
+            assertEquals(3, journal.getNextSeq());
+        }
+    }
+
+    @Test
+    void setsLaterSegmentsAsideWhenAnOlderOneIsDamaged() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 10);
+        }
+        corrupt("segment-00000000000000000001.log", 1, 40);
+
+        List<Long> seqs = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(0, r -> seqs.add(r.getSeq()));
+            assertEquals(2, journal.getNextSeq());
+        }
+        assertEquals(List.of(1L), seqs);
+        assertEquals(List.of("segment-00000000000000000005.log.orphan",
+            "segment-00000000000000000009.log.orphan"), files(".orphan"));
+    }
+
+    @Test
+    void keepsCoveredSegmentsUntilAskedToDeleteThem() throws IOException {
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 10);
+            assertEquals(0, journal.deleteCovered(3));
+            assertEquals(1, journal.deleteCovered(7));
+        }
+        assertEquals(List.of("segment-00000000000000000005.log", "segment-00000000000000000009.log"),
+            files(".log"));
+
+        List<Long> seqs = new ArrayList<>();
+        try (BidJournal journal = open()) {
+            journal.recover(8, r -> seqs.add(r.getSeq()));
+            assertEquals(11, journal.getNextSeq());
+        }
+        assertEquals(List.of(8L, 9L, 10L), seqs);
+    }
+
+    @Test
+    void readsOneAuctionsBidsPageByPage() throws IOException {
+        String other = UUID.randomUUID().toString();
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            journal.append(JournalRecord.NEW_AUCTION, AUCTION, 100_00, 60_000, "Lamp");
+            for (int i = 1; i <= 5; i++) {
+                journal.append(JournalRecord.BID, AUCTION, (100 + i) * 100L, 0, "bidder" + i);
+                journal.append(JournalRecord.BID, other, i * 100L, 0, "elsewhere");
+            }
+            journal.append(JournalRecord.CLOSE, AUCTION, 105_00, 0, "bidder5");
+
+            // Readable while the journal is open for appending
+            List<JournalRecord> page = BidJournal.readBids(dir, AUCTION, 1, Long.MAX_VALUE, 3);
+            assertEquals(List.of("bidder5", "bidder4", "bidder3"), names(page));
+            assertEquals(10_500, page.get(0).getCents());
+
+            long before = page.get(page.size() - 1).getSeq();
+            assertEquals(List.of("bidder2", "bidder1"), names(BidJournal.readBids(dir, AUCTION, 1, before, 3)));
+        }
+        assertEquals(5, BidJournal.readBids(dir, other, 0, Long.MAX_VALUE, 10).size());
+        assertEquals(0, BidJournal.readBids(dir, UUID.randomUUID().toString(), 0, Long.MAX_VALUE, 10).size());
+    }
+
+    @Test
+    void readsOnlyTheSegmentsOfTheAuctionsRange() throws IOException {
+        String later = UUID.randomUUID().toString();
+        try (BidJournal journal = open()) {
+            journal.recover(0, null);
+            appendBids(journal, 1, 8);   // seqs 1-8 fill the first two segments
+            journal.append(JournalRecord.NEW_AUCTION, later, 100_00, 60_000, "Vase");   // seq 9
+            journal.append(JournalRecord.BID, later, 101_00, 0, "first");
+            journal.append(JournalRecord.BID, later, 102_00, 0, "second");
+            journal.append(JournalRecord.CLOSE, later, 102_00, 0, "second");           // seq 12
+            appendBids(journal, 13, 16);
+        }
+        // Segments before the auction's first record and after its last must not be opened:
+        // replace them with directories, which fail any read
+        for (String segment : List.of("segment-00000000000000000001.log", "segment-00000000000000000005.log",
+                "segment-00000000000000000013.log")) {
+            Files.delete(dir.resolve(segment));
+            Files.createDirectory(dir.resolve(segment));
+        }
+        assertEquals(List.of("second", "first"), names(BidJournal.readBids(dir, later, 9, 13, 10)));
+        // The newest page starts inside the segment and stops at the given end
+        assertEquals(List.of("first"), names(BidJournal.readBids(dir, later, 10, 11, 10)));
+        assertThrows(IOException.class, () -> BidJournal.readBids(dir, later, 0, 13, 10));
+    }
+
+    @Test
+    void rejectsSegmentSizesItCannotMap() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> new BidJournal(dir, 2048L << 20, SyncPolicy.BATCH, 100));
+        assertTrue(e.getMessage().contains("out of range"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new BidJournal(dir, 0, SyncPolicy.BATCH, 100));
+        assertThrows(IllegalArgumentException.class, () -> new BidJournal(dir, -1L << 20, SyncPolicy.BATCH, 100));
+    }
+
+    private BidJournal open() throws IOException {
+        return new BidJournal(dir, SEGMENT, SyncPolicy.BATCH, 100);
+    }
+
+    /** Bids from bidder{@code from} to bidder{@code to}, one dollar apart. */
+    private static void appendBids(BidJournal journal, int from, int to) throws IOException {
+        for (int i = from; i <= to; i++) {
+            journal.append(JournalRecord.BID, AUCTION, (100 + i) * 100L, 0, "bidder" + i);
+        }
+        journal.commit();
+    }
+
+    private static List<String> names(List<JournalRecord> records) {
+        List<String> names = new ArrayList<>();
+        for (JournalRecord r : records) {
+            names.add(r.getName());
+        }
+        return names;
+    }
+
+    private static String describe(JournalRecord r) {
+        String type = r.getType() == JournalRecord.NEW_AUCTION ? "NEW_AUCTION" : "BID";
+        return r.getSeq() + " " + type + " " + r.getName() + " " + r.getCents() + " " + r.getAux();
+    }
+
+    private void corrupt(String segment, int record, int offset) throws IOException {
+        Path path = dir.resolve(segment);
+        byte[] bytes = readRecord(path, record);
+        bytes[offset] ^= 0x5a;
+        writeRecord(path, record, bytes);
+    }
+
+    private static byte[] readRecord(Path segment, int record) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(BidJournal.RECORD_SIZE);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ch.read(buf, (long) record * BidJournal.RECORD_SIZE);
+        }
+        return buf.array();
+    }
+
+    private static void writeRecord(Path segment, int record, byte[] bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(bytes), (long) record * BidJournal.RECORD_SIZE);
+        }
+    }
+
+    private long countRecords() throws IOException {
+        long[] n = new long[1];
+        try (BidJournal journal = open()) {
+            journal.recover(0, r -> n[0]++);
+        }
+        return n[0];
+    }
+
+    private List<String> files(String suffix) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + suffix)) {
+            for (Path p : ds) {
+                names.add(p.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
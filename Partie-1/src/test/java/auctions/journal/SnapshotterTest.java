@@ -0,0 +1,81 @@
+package auctions.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import auctions.models.Auction;
+
+/** Snapshots keep the journal they cover unless pruning is asked for. */
+class SnapshotterTest {
+    private static final long SEGMENT = 4 * BidJournal.RECORD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsCoveredSegmentsByDefault() throws IOException {
+        Auction auction = journalTenRecords();
+        auction.setFirstJournalSeq(1);
+        try (BidJournal journal = new BidJournal(dir, SEGMENT, SyncPolicy.BATCH, 100)) {
+            journal.recover(0, null);
+            Snapshotter snapshotter = new Snapshotter(dir);
+            assertTrue(snapshotter.snapshot(List.of(auction), 10, journal));
+            snapshotter.close();
+            assertEquals(0, snapshotter.getLastSegmentsDeleted());
+        }
+        assertEquals(3, count("segment-*.log"));
+        assertEquals(1, count("snapshot-*.snap"));
+
+        Map<String, Auction> restored = new HashMap<>();
+        assertEquals(10, new Snapshotter(dir).restore(restored));
+        assertEquals(auction.getEndTime(), restored.get(auction.getId()).getEndTime());
+        assertEquals(1, restored.get(auction.getId()).getFirstJournalSeq());
+    }
+
+    @Test
+    void prunesCoveredSegmentsWhenAsked() throws IOException {
+        Auction auction = journalTenRecords();
+        try (BidJournal journal = new BidJournal(dir, SEGMENT, SyncPolicy.BATCH, 100)) {
+            journal.recover(0, null);
+            Snapshotter snapshotter = new Snapshotter(dir, true);
+            assertTrue(snapshotter.snapshot(List.of(auction), 10, journal));
+            snapshotter.close();
+            assertEquals(2, snapshotter.getLastSegmentsDeleted());
+        }
+        assertEquals(1, count("segment-*.log"));
+    }
+
+    /** One auction and nine bids, over three 4-record segments. */
+    private Auction journalTenRecords() throws IOException {
+        Auction auction = new Auction("Lamp", 100.0, 100.0);
+        try (BidJournal journal = new BidJournal(dir, SEGMENT, SyncPolicy.BATCH, 100)) {
+            journal.recover(0, null);
+            journal.append(JournalRecord.NEW_AUCTION, auction.getId(), 100_00, auction.getEndTime(), "Lamp");
+            for (int i = 1; i <= 9; i++) {
+                journal.append(JournalRecord.BID, auction.getId(), (100 + i) * 100L, 0, "bidder" + i);
+            }
+        }
+        return auction;
+    }
+
+    private int count(String glob) throws IOException {
+        int n = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : ds) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,47 @@
+package auctions.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import jade.lang.acl.ACLMessage;
+
+/** Text decoding of {@link AuctionCodec}, malformed numbers included. */
+class AuctionCodecTest {
+    private static final String AUCTION = UUID.randomUUID().toString();
+
+    private final AuctionCodec codec = new AuctionCodec();
+
+    @Test
+    void decodesTextBids() {
+        assertEquals(AuctionCodec.TYPE_BID, codec.decode(propose("BID|" + AUCTION + "|alice|12.5")));
+        assertEquals(AUCTION, codec.bid().getAuctionId());
+        assertEquals("alice", codec.bid().getBidder());
+        assertEquals(1250, codec.bid().getAmountCents());
+        assertEquals(1, codec.getTextDecoded());
+    }
+
+    @Test
+    void countsMalformedNumbersAsUnknown() {
+        assertEquals(AuctionCodec.TYPE_UNKNOWN, codec.decode(propose("BID|" + AUCTION + "|x|abc")));
+        assertEquals(AuctionCodec.TYPE_UNKNOWN, codec.decode(propose("PROXY|" + AUCTION + "|x|")));
+        assertEquals(AuctionCodec.TYPE_UNKNOWN, codec.decode(propose("BID|" + AUCTION + "|x|Infinity")));
+        assertEquals(AuctionCodec.TYPE_UNKNOWN, codec.decode(propose("EXTENDED|" + AUCTION + "|soon")));
+        assertEquals(AuctionCodec.TYPE_UNKNOWN,
+            codec.decode(propose("NEW_AUCTION|" + AUCTION + "|1.0|99999999999999999999|Lamp")));
+        assertEquals(5, codec.getMalformed());
+        assertEquals(0, codec.getTextDecoded());
+
+        // The codec keeps working after them
+        assertEquals(AuctionCodec.TYPE_PROXY, codec.decode(propose("PROXY|" + AUCTION + "|bob|20")));
+        assertEquals(2000, codec.bid().getAmountCents());
+    }
+
+    private static ACLMessage propose(String content) {
+        ACLMessage msg = new ACLMessage(ACLMessage.PROPOSE);
+        msg.setContent(content);
+        return msg;
+    }
+}
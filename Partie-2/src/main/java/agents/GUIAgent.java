@@ -1,5 +1,7 @@
 package agents;
 
+import auctions.launcher.Readiness;
+import auctions.metrics.AgentMetrics;
 import gui.MultiCriteriaBuyerFrame;
 import jade.core.AID;
 import jade.core.Agent;
@@ -8,9 +10,11 @@ import jade.lang.acl.ACLMessage;
 
 public class GUIAgent extends Agent {
     private MultiCriteriaBuyerFrame gui;
+    private AgentMetrics metrics;
 
     @Override
     protected void setup() {
+        metrics = new AgentMetrics(this);
         gui = new MultiCriteriaBuyerFrame();
         gui.setVisible(true);
         gui.appendLog("GUI Agent started");
@@ -20,11 +24,12 @@ public class GUIAgent extends Agent {
         gui.addMigrateContainerListener(e -> sendToBuyer("MIGRATE_CONTAINER:NewContainer"));
         gui.addMigratePlatformListener(e -> sendToBuyer("MIGRATE_PLATFORM:192.168.56.2"));
 
-        addBehaviour(new CyclicBehaviour(this) {
+        addBehaviour(metrics.timed("display", new CyclicBehaviour(this) {
             @Override
             public void action() {
                 ACLMessage msg = receive();
                 if (msg != null) {
+                    metrics.received(msg);
                     try {
                         String content = msg.getContent();
                         if (content == null) return;
@@ -57,16 +62,22 @@ public class GUIAgent extends Agent {
                     block();
                 }
             }
-        });
-        
+        }));
+
+        Readiness.ready(this);
     }
 
     private void sendToBuyer(String content) {
         ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
         msg.addReceiver(new AID("buyer", AID.ISLOCALNAME));
         msg.setContent(content);
-        send(msg);
+        metrics.send(msg);
         gui.setStatus("Sent request: " + content); // Update status after sending
     }
+
+    @Override
+    protected void takeDown() {
+        metrics.close();
+    }
     
 }
\ No newline at end of file
@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import auctions.launcher.Readiness;
+import auctions.metrics.AgentMetrics;
+import auctions.metrics.Histogram;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.core.behaviours.OneShotBehaviour;
@@ -15,15 +18,20 @@ import jade.lang.acl.ACLMessage;
 public class MultiCriteriaBuyerAgent extends Agent {
     private final List<String> sellers = Arrays.asList("seller1", "seller2", "seller3");
     private final Map<String, double[]> offers = new HashMap<>();
-    private final double wQuality = 0.4, wPrice = 0.4, wDelivery = 0.2;
+    private final OfferScorer scorer = new OfferScorer(0.4, 0.4, 0.2);   // quality, price, delivery
+    // Not serializable: closed before a migration and recreated after it
+    private transient AgentMetrics metrics;
+    private transient Histogram evaluation;
 
     @Override
     protected void setup() {
-        addBehaviour(new CyclicBehaviour(this) {
+        openMetrics();
+        addBehaviour(metrics.timed("negotiation", new CyclicBehaviour(this) {
             @Override
             public void action() {
                 ACLMessage msg = receive();
                 if (msg != null) {
+                    metrics.received(msg);
                     String content = msg.getContent();
                     if ("REQUEST_OFFERS".equals(content)) {
                         startNegotiation();
@@ -36,14 +44,36 @@ public class MultiCriteriaBuyerAgent extends Agent {
                     block();
                 }
             }
-        });
+        }));
+
+        Readiness.ready(this);
+    }
+
+    private void openMetrics() {
+        metrics = new AgentMetrics(this);
+        evaluation = metrics.histogram("buyer_offer_evaluation_seconds", "Time to score and announce the offers of one round.");
+    }
+
+    @Override
+    protected void beforeMove() {
+        metrics.close();
+    }
+
+    @Override
+    protected void afterMove() {
+        openMetrics();
+    }
+
+    @Override
+    protected void takeDown() {
+        metrics.close();
     }
 
     private void startNegotiation() {
         offers.clear();
         ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
         sellers.forEach(s -> cfp.addReceiver(new jade.core.AID(s, jade.core.AID.ISLOCALNAME)));
-        send(cfp);
+        metrics.send(cfp);
         addBehaviour(new WakerBehaviour(this, 2000) {
             protected void onWake() {
                 evaluateOffers();
@@ -52,11 +82,11 @@ public class MultiCriteriaBuyerAgent extends Agent {
     }
 
     private void recordOffer(ACLMessage msg) {
-        String[] parts = msg.getContent().split(";");
-        double price = Double.parseDouble(parts[0]);
-        double quality = Double.parseDouble(parts[1]);
-        double delivery = Double.parseDouble(parts[2]);
-        offers.put(msg.getSender().getLocalName(), new double[]{price, quality, delivery});
+        double[] offer = OfferScorer.parseOffer(msg.getContent());
+        double price = offer[0];
+        double quality = offer[1];
+        double delivery = offer[2];
+        offers.put(msg.getSender().getLocalName(), offer);
         sendGUI("Received offer from " + msg.getSender().getLocalName() + ": Price=" + price + ", Quality=" + quality + ", Delivery=" + delivery);
     }
     
@@ -67,15 +97,8 @@ public class MultiCriteriaBuyerAgent extends Agent {
             return;
         }
 
-        // Find min/max for proper normalization
-        double minP = Double.MAX_VALUE, maxP = 0;
-        double minQ = Double.MAX_VALUE, maxQ = 0;
-        double minD = Double.MAX_VALUE, maxD = 0;
-        for (double[] v : offers.values()) {
-            minP = Math.min(minP, v[0]); maxP = Math.max(maxP, v[0]);
-            minQ = Math.min(minQ, v[1]); maxQ = Math.max(maxQ, v[1]);
-            minD = Math.min(minD, v[2]); maxD = Math.max(maxD, v[2]);
-        }
+        long t0 = System.nanoTime();
+        scorer.fit(offers.values());
 
         sendGUI("CLEAR_OFFERS");
 
@@ -88,12 +111,7 @@ public class MultiCriteriaBuyerAgent extends Agent {
             double price = e.getValue()[0];
             double quality = e.getValue()[1];
             double delivery = e.getValue()[2];
-
-            // Normalize: price lower=better, quality higher=better, delivery lower=better
-            double np = (maxP == minP) ? 1.0 : (maxP - price) / (maxP - minP);
-            double nq = (maxQ == minQ) ? 1.0 : (quality - minQ) / (maxQ - minQ);
-            double nd = (maxD == minD) ? 1.0 : (maxD - delivery) / (maxD - minD);
-            double score = wQuality * nq + wPrice * np + wDelivery * nd;
+            double score = scorer.score(e.getValue());
 
             // Send structured offer data to GUI (Locale.US to ensure dots for decimals)
             sendGUI(String.format(Locale.US, "OFFER|%s|%.2f|%.1f|%.1f|%.3f", e.getKey(), price, quality, delivery, score));
@@ -109,12 +127,13 @@ public class MultiCriteriaBuyerAgent extends Agent {
         if (best != null) {
             ACLMessage acc = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
             acc.addReceiver(new jade.core.AID(best, jade.core.AID.ISLOCALNAME));
-            send(acc);
+            metrics.send(acc);
             sendGUI(String.format(Locale.US, "WINNER|%s|%.3f", best, bestScore));
             sendGUI("Best supplier: " + best + " (score=" + String.format(Locale.US, "%.3f", bestScore) + ")");
         } else {
             sendGUI("No valid offers to evaluate.");
         }
+        evaluation.recordSince(t0);
     }
 
     private void handleMigration(String content) {
@@ -165,6 +184,6 @@ public class MultiCriteriaBuyerAgent extends Agent {
         ACLMessage m = new ACLMessage(ACLMessage.INFORM);
         m.addReceiver(new jade.core.AID("gui", jade.core.AID.ISLOCALNAME));
         m.setContent(msg);
-        send(m);
+        metrics.send(m);
     }
 }
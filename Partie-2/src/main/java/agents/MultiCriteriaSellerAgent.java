@@ -3,6 +3,8 @@ package agents;
 import java.util.Locale;
 import java.util.Random;
 
+import auctions.launcher.Readiness;
+import auctions.metrics.AgentMetrics;
 import jade.core.AID;
 import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
@@ -10,20 +12,25 @@ import jade.lang.acl.ACLMessage;
 
 public class MultiCriteriaSellerAgent extends Agent {
     private final Random random = new Random();
+    private AgentMetrics metrics;
 
     @Override
     protected void setup() {
-        addBehaviour(new CyclicBehaviour(this) {
+        metrics = new AgentMetrics(this);
+        addBehaviour(metrics.timed("offers", new CyclicBehaviour(this) {
             @Override
             public void action() {
                 ACLMessage msg = receive();
+                metrics.received(msg);
                 if (msg != null && msg.getPerformative() == ACLMessage.CFP) {
                     sendOffer(msg.getSender());
                 } else {
                     block();
                 }
             }
-        });
+        }));
+
+        Readiness.ready(this);
     }
 
     private void sendOffer(AID buyer) {
@@ -35,6 +42,11 @@ public class MultiCriteriaSellerAgent extends Agent {
         ACLMessage offer = new ACLMessage(ACLMessage.PROPOSE);
         offer.addReceiver(buyer);
         offer.setContent(content);
-        send(offer);
+        metrics.send(offer);
+    }
+
+    @Override
+    protected void takeDown() {
+        metrics.close();
     }
 }
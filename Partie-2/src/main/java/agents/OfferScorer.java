@@ -0,0 +1,59 @@
+package agents;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Weighted multi-criteria score of supplier offers {price, quality, delivery}.
+ *
+ * Each criterion is normalised to 0..1 over the offers being compared
+ * (lower price and delivery are better, higher quality is better), so
+ * {@link #fit} must see all of them before {@link #score} is called.
+ * Kept apart from the agent so it can be benchmarked without JADE;
+ * serializable because it moves with the agent on migration.
+ */
+public class OfferScorer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double wQuality, wPrice, wDelivery;
+    private double minP, maxP, minQ, maxQ, minD, maxD;
+
+    public OfferScorer(double wQuality, double wPrice, double wDelivery) {
+        this.wQuality = wQuality;
+        this.wPrice = wPrice;
+        this.wDelivery = wDelivery;
+    }
+
+    /** Parse a seller's "price;quality;delivery" offer. */
+    public static double[] parseOffer(String content) {
+        String[] parts = content.split(";");
+        return new double[]{
+            Double.parseDouble(parts[0]),
+            Double.parseDouble(parts[1]),
+            Double.parseDouble(parts[2])};
+    }
+
+    /** Find min/max of each criterion for proper normalization. */
+    public void fit(Collection<double[]> offers) {
+        minP = Double.MAX_VALUE; maxP = 0;
+        minQ = Double.MAX_VALUE; maxQ = 0;
+        minD = Double.MAX_VALUE; maxD = 0;
+        for (double[] v : offers) {
+            minP = Math.min(minP, v[0]); maxP = Math.max(maxP, v[0]);
+            minQ = Math.min(minQ, v[1]); maxQ = Math.max(maxQ, v[1]);
+            minD = Math.min(minD, v[2]); maxD = Math.max(maxD, v[2]);
+        }
+    }
+
+    public double score(double[] offer) {
+        double price = offer[0];
+        double quality = offer[1];
+        double delivery = offer[2];
+
+        // Normalize: price lower=better, quality higher=better, delivery lower=better
+        double np = (maxP == minP) ? 1.0 : (maxP - price) / (maxP - minP);
+        double nq = (maxQ == minQ) ? 1.0 : (quality - minQ) / (maxQ - minQ);
+        double nd = (maxD == minD) ? 1.0 : (maxD - delivery) / (maxD - minD);
+        return wQuality * nq + wPrice * np + wDelivery * nd;
+    }
+}
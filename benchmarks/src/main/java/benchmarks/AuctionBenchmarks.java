@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import auctions.models.Auction;
+import auctions.models.Bid;
+
+/**
+ * {@link Auction#applyBid}: the seller's hot path for every bid.
+ * Bids alternate between a rising one (new leader) and a stale one
+ * (rejected), as in a busy auction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuctionBenchmarks {
+    private Auction auction;
+    private Bid rising;
+    private Bid stale;
+    private double price;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        auction = new Auction("Benchmark item", 100.0, 0);
+        rising = new Bid(auction.getId(), "buyer1", 100.0);
+        stale = new Bid(auction.getId(), "buyer2", 50.0);
+        price = 100.0;
+    }
+
+    @Benchmark
+    public boolean applyRisingBid() {
+        price += 1;
+        rising.setAmount(price);
+        return auction.applyBid(rising);
+    }
+
+    @Benchmark
+    public boolean applyStaleBid() {
+        return auction.applyBid(stale);
+    }
+}
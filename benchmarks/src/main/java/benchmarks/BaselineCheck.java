@@ -0,0 +1,153 @@
+package benchmarks;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Runs the benchmarks with the GC profiler and compares them with the
+ * checked-in baseline.json.
+ *
+ * Allocation per operation (gc.alloc.rate.norm) hardly depends on the
+ * machine, so a rise of more than 10% (and 16 bytes) fails the check.
+ * Throughput does, so a drop below 70% of the baseline is only reported,
+ * unless strict=true. update=true writes the new results into the baseline,
+ * keeping the entries of benchmarks that were not run.
+ *
+ * Arguments (key=value): baseline (file), include (benchmark regex),
+ * update, strict, forks, iterations, timeS.
+ *
+ * Usage: java -jar target/auction-benchmarks-1.0.0-jar-with-dependencies.jar [update=true]
+ * For the standard JMH runner: java -cp &lt;that jar&gt; org.openjdk.jmh.Main -prof gc
+ */
+public class BaselineCheck {
+    private static final double MAX_ALLOC_RISE = 1.10;
+    private static final double ALLOC_SLACK_BYTES = 16;
+    private static final double MIN_THROUGHPUT = 0.70;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> config = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) config.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        Path file = Paths.get(config.getOrDefault("baseline", "baseline.json"));
+        boolean update = Boolean.parseBoolean(config.getOrDefault("update", "false"));
+        boolean strict = Boolean.parseBoolean(config.getOrDefault("strict", "false"));
+        int iterations = Integer.parseInt(config.getOrDefault("iterations", "3"));
+        int seconds = Integer.parseInt(config.getOrDefault("timeS", "2"));
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(config.getOrDefault("include", "benchmarks\\..*Benchmarks"))
+            .addProfiler(GCProfiler.class)
+            .forks(Integer.parseInt(config.getOrDefault("forks", "1")))
+            .warmupIterations(iterations)
+            .warmupTime(TimeValue.seconds(seconds))
+            .measurementIterations(iterations)
+            .measurementTime(TimeValue.seconds(seconds));
+        Map<String, double[]> current = summarize(new Runner(options.build()).run());
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        if (update || !Files.exists(file)) {
+            write(gson, file, current);
+            System.out.println("[BENCH] Baseline written to " + file.toAbsolutePath());
+            return;
+        }
+
+        JsonObject baseline;
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            baseline = gson.fromJson(r, JsonObject.class).getAsJsonObject("results");
+        }
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, double[]> e : current.entrySet()) {
+            JsonElement base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.println("[BENCH] " + e.getKey() + ": not in the baseline");
+                continue;
+            }
+            double baseOps = base.getAsJsonObject().get("opsPerSec").getAsDouble();
+            double baseAlloc = base.getAsJsonObject().get("allocBytesPerOp").getAsDouble();
+            double ops = e.getValue()[0];
+            double alloc = e.getValue()[1];
+            System.out.printf("[BENCH] %-60s %,14.0f ops/s (%5.0f%%) %10.1f B/op (baseline %.1f)%n",
+                e.getKey(), ops, 100 * ops / baseOps, alloc, baseAlloc);
+            if (alloc > baseAlloc * MAX_ALLOC_RISE + ALLOC_SLACK_BYTES) {
+                failures.add(String.format("%s allocates %.1f B/op, baseline %.1f", e.getKey(), alloc, baseAlloc));
+            }
+            if (ops < baseOps * MIN_THROUGHPUT) {
+                String msg = String.format("%s at %.0f%% of baseline throughput", e.getKey(), 100 * ops / baseOps);
+                if (strict) failures.add(msg);
+                else System.out.println("[BENCH] Warning: " + msg);
+            }
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(f -> System.err.println("[BENCH] Regression: " + f));
+            System.exit(1);
+        }
+        System.out.println("[BENCH] No regression against " + file);
+    }
+
+    /** Benchmark (with its parameters) -> {ops/s, bytes allocated per op}. */
+    private static Map<String, double[]> summarize(Collection<RunResult> results) {
+        Map<String, double[]> out = new TreeMap<>();
+        for (RunResult run : results) {
+            String name = run.getParams().getBenchmark().replace("benchmarks.", "");
+            for (String key : run.getParams().getParamsKeys()) {
+                name += "[" + key + "=" + run.getParams().getParam(key) + "]";
+            }
+            Result<?> alloc = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            out.put(name, new double[] {
+                run.getPrimaryResult().getScore(), alloc != null ? alloc.getScore() : Double.NaN});
+        }
+        return out;
+    }
+
+    private static void write(Gson gson, Path file, Map<String, double[]> current) throws Exception {
+        Map<String, Object> results = new TreeMap<>();
+        if (Files.exists(file)) {
+            try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, JsonElement> e
+                        : gson.fromJson(r, JsonObject.class).getAsJsonObject("results").entrySet()) {
+                    results.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, double[]> e : current.entrySet()) {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("opsPerSec", Math.round(e.getValue()[0]));
+            r.put("allocBytesPerOp", Math.round(e.getValue()[1] * 10) / 10.0);
+            results.put(e.getKey(), r);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("timestamp", Instant.now().toString());
+        out.put("java", System.getProperty("java.version"));
+        out.put("processors", Runtime.getRuntime().availableProcessors());
+        out.put("results", results);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(out, w);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import auctions.gui.BidHistoryTableModel;
+
+/**
+ * Inserting into the bid history model behind BidHistoryPanel, with the
+ * ring buffer already full so every insert also drops the oldest row.
+ * No table is attached, so this is the model's own cost, without Swing
+ * repaints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BidHistoryBenchmarks {
+    private BidHistoryTableModel model;
+    private double amount;
+
+    @Setup
+    public void setup() {
+        model = new BidHistoryTableModel();
+        for (int i = 0; i < model.getCapacity(); i++) {
+            model.add("buyer" + (i % 10), 100 + i, "12:00:00");
+        }
+        amount = 100 + model.getCapacity();
+    }
+
+    @Benchmark
+    public int addBid() {
+        amount += 1;
+        model.add("buyer7", amount, "12:00:01");
+        return model.getRowCount();
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import auctions.log.EventLog;
+import auctions.log.LogEvent;
+
+/**
+ * Cost on the agent thread of one bid line: the printf SellerAgent used
+ * to do (into a discarding stream, so only formatting and the stream lock
+ * count) against queueing the event in the {@link EventLog}. The log's
+ * writer cannot keep up with a tight loop, so part of the events are
+ * dropped; a drop costs the agent about as much as a queued event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventLogBenchmarks {
+    private PrintStream out;
+    private EventLog log;
+    private Path dir;
+
+    @Setup
+    public void setup() throws IOException {
+        out = new PrintStream(OutputStream.nullOutputStream());
+        dir = Files.createTempDirectory("event-log-bench");
+        log = new EventLog(dir.resolve("events.log"), 1 << 16, 64 << 20, 2, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        log.close();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public void printfBid() {
+        out.printf("[Seller] New high bid on \"%s\" by %s: $%.2f%n", "Vintage Watch", "buyer42", 1234.5);
+    }
+
+    @Benchmark
+    public boolean logBid() {
+        return log.log(LogEvent.BID_ACCEPTED, "seller1", "Vintage Watch", "buyer42", 123450, 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void printfBid4Threads() {
+        printfBid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean logBid4Threads() {
+        return logBid();
+    }
+}
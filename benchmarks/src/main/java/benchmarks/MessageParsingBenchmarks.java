@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import agents.OfferScorer;
+import auctions.utils.AuctionCodec;
+import auctions.utils.AuctionProtocol;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Parsing of the message formats the agents receive: pipe-separated text
+ * (SellerAgent bids, BuyerAgent and GUIAgent updates, both through
+ * {@link AuctionCodec}), the binary encoding, and Partie-2's semicolon
+ * offers and pipe-separated GUI lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MessageParsingBenchmarks {
+    private static final String AUCTION_ID = "3f2b6c1e-9a4d-4e7b-8c2a-5d6e7f809a1b";
+
+    private final AuctionCodec codec = new AuctionCodec();
+    private String textBid;
+    private ACLMessage textMessage;
+    private ACLMessage binaryMessage;
+    private String offer;
+    private String guiOffer;
+
+    @Setup
+    public void setup() {
+        textBid = AuctionProtocol.bid(AUCTION_ID, "buyer42", 1234.5);
+        textMessage = new ACLMessage(ACLMessage.INFORM);
+        textMessage.setContent(textBid);
+        binaryMessage = new ACLMessage(ACLMessage.INFORM);
+        AuctionCodec.setContent(binaryMessage, AuctionCodec.encodeBid(AUCTION_ID, "buyer42", 123450), null);
+        offer = "1234.56;7.5;12.0";
+        guiOffer = "OFFER|seller3|1234.56|7.5|12.0|0.734";
+    }
+
+    /** SellerAgent's text bid: split, then the amount. */
+    @Benchmark
+    public double splitTextBid() {
+        String[] p = AuctionProtocol.split(textBid);
+        return Double.parseDouble(p[3]);
+    }
+
+    @Benchmark
+    public int decodeTextBid() {
+        return codec.decode(textMessage);
+    }
+
+    @Benchmark
+    public int decodeBinaryBid() {
+        return codec.decode(binaryMessage);
+    }
+
+    /** MultiCriteriaBuyerAgent's "price;quality;delivery". */
+    @Benchmark
+    public double[] parseSemicolonOffer() {
+        return OfferScorer.parseOffer(offer);
+    }
+
+    /** Same split and parses as Partie-2's GUIAgent does inline for an OFFER line. */
+    @Benchmark
+    public void parseGuiOffer(Blackhole bh) {
+        String[] p = guiOffer.split("\\|");
+        bh.consume(p[1]);
+        bh.consume(Double.parseDouble(p[2]));
+        bh.consume(Double.parseDouble(p[3]));
+        bh.consume(Double.parseDouble(p[4]));
+        bh.consume(Double.parseDouble(p[5]));
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import agents.OfferScorer;
+
+/**
+ * The scoring pass of MultiCriteriaBuyerAgent.evaluateOffers: fit the
+ * min/max of each criterion, then score every offer and keep the best.
+ * Three offers is the shipped setup; 1k and 1M show how it scales.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OfferScoringBenchmarks {
+    @Param({"3", "1000", "1000000"})
+    public int offers;
+
+    private final OfferScorer scorer = new OfferScorer(0.4, 0.4, 0.2);
+    // Keyed by seller name, as in the agent
+    private final Map<String, double[]> bySeller = new LinkedHashMap<>();
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(42);
+        bySeller.clear();
+        for (int i = 0; i < offers; i++) {
+            bySeller.put("seller" + i, new double[] {
+                500 + rng.nextInt(1000), 1 + rng.nextInt(10), 1 + rng.nextInt(30)});
+        }
+    }
+
+    @Benchmark
+    public String evaluateOffers() {
+        scorer.fit(bySeller.values());
+        String best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, double[]> e : bySeller.entrySet()) {
+            double score = scorer.score(e.getValue());
+            if (score > bestScore) {
+                bestScore = score;
+                best = e.getKey();
+            }
+        }
+        return best;
+    }
+}
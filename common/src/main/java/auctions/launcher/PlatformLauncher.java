@@ -0,0 +1,162 @@
+package auctions.launcher;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+
+/**
+ * Brings up the containers and agents of a {@link Topology} in this JVM.
+ *
+ * The agents of a group are created and started in parallel, then the
+ * launcher waits for each to call {@link Readiness#ready} before starting
+ * the next group, so sellers are registered before buyers look for them
+ * without any sleep. Any failure (bad class, container, start-up error,
+ * agent not ready in time) is reported and shuts the platform down.
+ */
+public class PlatformLauncher {
+    private final Topology topology;
+    private final Map<String, AgentContainer> containers = new HashMap<>();
+    private AgentContainer mainContainer;
+
+    public PlatformLauncher(Topology topology) {
+        this.topology = topology;
+    }
+
+    /** Start everything; returns the number of agents started. */
+    public int launch() throws Exception {
+        long t0 = System.nanoTime();
+        startContainers();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, topology.startThreads));
+        int started = 0;
+        try {
+            for (Topology.AgentSpec group : topology.agents) {
+                started += startGroup(group, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("[LAUNCH] %d agents in %d containers up in %d ms%n",
+            started, containers.size(), (System.nanoTime() - t0) / 1_000_000);
+        return started;
+    }
+
+    private void startContainers() {
+        Runtime rt = Runtime.instance();
+        for (Topology.ContainerSpec c : topology.containers) {
+            if (!c.main) continue;
+            Profile p = new ProfileImpl(true);
+            p.setParameter(Profile.MAIN_HOST, c.host);
+            p.setParameter(Profile.MAIN_PORT, String.valueOf(c.port));
+            p.setParameter(Profile.CONTAINER_NAME, c.name);
+            mainContainer = rt.createMainContainer(p);
+            if (mainContainer == null) throw new IllegalStateException("Main container " + c.name + " did not start");
+            containers.put(c.name, mainContainer);
+        }
+        Topology.ContainerSpec main = topology.containers.stream().filter(c -> c.main).findFirst().get();
+        for (Topology.ContainerSpec c : topology.containers) {
+            if (c.main) continue;
+            Profile p = new ProfileImpl(false);
+            p.setParameter(Profile.MAIN_HOST, main.host);
+            p.setParameter(Profile.MAIN_PORT, String.valueOf(main.port));
+            p.setParameter(Profile.CONTAINER_NAME, c.name);
+            AgentContainer ac = rt.createAgentContainer(p);
+            if (ac == null) throw new IllegalStateException("Container " + c.name + " did not start");
+            containers.put(c.name, ac);
+        }
+    }
+
+    private int startGroup(Topology.AgentSpec group, ExecutorService pool) throws Exception {
+        long t0 = System.nanoTime();
+        AgentContainer container = group.container != null ? containers.get(group.container) : mainContainer;
+        List<String> names = group.names();
+        List<Object[]> args = group.arguments();
+        Readiness.Group ready = group.awaitReady ? Readiness.expect(names) : null;
+
+        List<Future<?>> starts = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            Object[] a = args.get(i);
+            starts.add(pool.submit(() -> {
+                AgentController ac = container.createNewAgent(name, group.className, a);
+                ac.start();
+                return null;
+            }));
+        }
+        boolean ok = false;
+        try {
+            for (Future<?> f : starts) {
+                f.get();
+            }
+            if (ready != null && !ready.await(topology.readyTimeoutMs)) {
+                throw new IllegalStateException(String.format("%d of %d agents of %s not ready after %d ms: %s",
+                    ready.pending().size(), names.size(), group.name, topology.readyTimeoutMs,
+                    abbreviate(ready.pending())));
+            }
+            ok = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Starting " + group.name + " failed: " + e.getCause(), e.getCause());
+        } finally {
+            if (!ok && ready != null) ready.cancel();
+        }
+        System.out.printf("[LAUNCH] %d x %s (%s) %s in %d ms%n", names.size(), group.name, group.className,
+            ready != null ? "ready" : "started", (System.nanoTime() - t0) / 1_000_000);
+        return names.size();
+    }
+
+    private static String abbreviate(Collection<String> names) {
+        List<String> first = new ArrayList<>();
+        for (String n : names) {
+            if (first.size() == 10) {
+                first.add("...");
+                break;
+            }
+            first.add(n);
+        }
+        return first.toString();
+    }
+
+    /** Stop the whole platform (used when start-up fails). */
+    public void shutdown() {
+        try {
+            if (mainContainer != null) mainContainer.getPlatformController().kill();
+        } catch (Exception e) {
+            System.err.println("[LAUNCH] Platform shutdown failed: " + e);
+        }
+    }
+
+    /**
+     * Launch a topology file, or the bundled {@code /topology.json}. Exits
+     * with status 1 if anything fails to start.
+     */
+    public static void run(String[] args) {
+        PlatformLauncher launcher = null;
+        try {
+            Topology topology = args.length > 0
+                ? Topology.load(Paths.get(args[0]))
+                : Topology.loadResource("/topology.json");
+            System.out.printf("[LAUNCH] Starting %d agents from %s%n", topology.size(),
+                args.length > 0 ? args[0] : "topology.json");
+            launcher = new PlatformLauncher(topology);
+            launcher.launch();
+        } catch (Exception e) {
+            System.err.println("[LAUNCH] FAILED: " + e.getMessage());
+            e.printStackTrace();
+            if (launcher != null) launcher.shutdown();
+            System.exit(1);
+        }
+    }
+}
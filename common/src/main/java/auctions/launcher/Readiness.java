@@ -0,0 +1,67 @@
+package auctions.launcher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jade.core.Agent;
+
+/**
+ * Start-up handshake between the platform launcher and the agents it
+ * starts in this JVM. An agent calls {@link #ready(Agent)} as the last step
+ * of {@code setup()}; the launcher waits on a {@link Group} of names
+ * instead of sleeping. Without a launcher waiting, ready() does nothing.
+ */
+public final class Readiness {
+    private static final Map<String, Group> waiting = new ConcurrentHashMap<>();
+
+    private Readiness() {}
+
+    /** Agents the launcher is about to start and will wait for. */
+    public static final class Group {
+        private final Set<String> pending = ConcurrentHashMap.newKeySet();
+        private final CountDownLatch latch;
+
+        private Group(Collection<String> names) {
+            pending.addAll(names);
+            latch = new CountDownLatch(pending.size());
+        }
+
+        private void arrive(String name) {
+            if (pending.remove(name)) latch.countDown();
+        }
+
+        /** Returns false if some agents were not ready in time. */
+        public boolean await(long timeoutMs) throws InterruptedException {
+            return latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        /** Agents that have not signalled yet. */
+        public Set<String> pending() { return pending; }
+
+        /** Stop waiting, e.g. after a failure. */
+        public void cancel() {
+            for (String name : pending) {
+                waiting.remove(name, this);
+            }
+        }
+    }
+
+    /** Register the names to wait for; call before starting the agents. */
+    public static Group expect(Collection<String> names) {
+        Group g = new Group(names);
+        for (String name : names) {
+            waiting.put(name, g);
+        }
+        return g;
+    }
+
+    /** Signal that {@code agent} has finished its set-up. */
+    public static void ready(Agent agent) {
+        Group g = waiting.remove(agent.getLocalName());
+        if (g != null) g.arrive(agent.getLocalName());
+    }
+}
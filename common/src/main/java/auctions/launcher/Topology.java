@@ -0,0 +1,184 @@
+package auctions.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * What the platform launcher starts, read from JSON:
+ *
+ * <pre>
+ * {
+ *   "containers": [ {"name": "Main-Container", "main": true, "host": "localhost", "port": 1099},
+ *                   {"name": "buyers"} ],
+ *   "agents": [
+ *     {"name": "seller1", "class": "auctions.agents.SellerAgent", "args": ["500.0"]},
+ *     {"name": "buyer%d", "class": "auctions.agents.BuyerAgent", "count": 10000,
+ *      "container": "buyers", "budget": {"min": 800, "max": 1500, "seed": 7},
+ *      "args": ["strategy=fixed"]}
+ *   ],
+ *   "startThreads": 8,
+ *   "readyTimeoutMs": 60000
+ * }
+ * </pre>
+ *
+ * Each agents entry is a group: groups start in file order, the agents of
+ * one group in parallel, and the next group only once every agent of the
+ * previous one is ready. {@code count} expands the name ({@code %d} or a
+ * suffix, from 1). An optional budget (a buyer's) goes first in the
+ * arguments: drawn uniformly from {@code budget}, or taken in turn from
+ * {@code budgets}.
+ * Without containers, one main container on localhost:1099 is used.
+ */
+public class Topology {
+    List<ContainerSpec> containers = new ArrayList<>();
+    List<AgentSpec> agents = new ArrayList<>();
+    int startThreads = 8;
+    long readyTimeoutMs = 60000;
+
+    static class ContainerSpec {
+        String name;
+        boolean main;
+        String host = "localhost";
+        int port = 1099;
+    }
+
+    static class AgentSpec {
+        String name;
+        @SerializedName("class")
+        String className;
+        int count = 1;
+        String container;
+        List<String> args = new ArrayList<>();
+        Budget budget;
+        List<Double> budgets;
+        boolean awaitReady = true;
+
+        /** Agent names of this group. */
+        List<String> names() {
+            List<String> names = new ArrayList<>(count);
+            if (count == 1 && !name.contains("%d")) {
+                names.add(name);
+                return names;
+            }
+            for (int i = 1; i <= count; i++) {
+                names.add(name.contains("%d") ? String.format(name, i) : name + i);
+            }
+            return names;
+        }
+
+        /** Start-up arguments of each agent of this group, budget first if any. */
+        List<Object[]> arguments() {
+            List<Object[]> all = new ArrayList<>(count);
+            Random random = budget != null ? new Random(budget.seed) : null;
+            for (int i = 0; i < count; i++) {
+                List<Object> a = new ArrayList<>(args.size() + 1);
+                if (random != null) {
+                    a.add(String.format(Locale.US, "%.2f", budget.min + random.nextDouble() * (budget.max - budget.min)));
+                } else if (budgets != null && !budgets.isEmpty()) {
+                    a.add(String.format(Locale.US, "%.2f", budgets.get(i % budgets.size())));
+                }
+                a.addAll(args);
+                all.add(a.toArray());
+            }
+            return all;
+        }
+    }
+
+    static class Budget {
+        double min;
+        double max;
+        long seed = 42;
+    }
+
+    public static Topology load(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(in, file.toString());
+        }
+    }
+
+    /** A topology bundled on the classpath, e.g. {@code /topology.json}. */
+    public static Topology loadResource(String name) throws IOException {
+        InputStream in = Topology.class.getResourceAsStream(name);
+        if (in == null) throw new IOException("No topology resource " + name);
+        try (Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(r, name);
+        }
+    }
+
+    /** A topology built in code, e.g. by a benchmark harness. */
+    public static Topology fromJson(String json, String source) throws IOException {
+        return parse(new StringReader(json), source);
+    }
+
+    private static Topology parse(Reader in, String source) throws IOException {
+        Topology t;
+        try {
+            t = new Gson().fromJson(in, Topology.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid topology " + source + ": " + e.getMessage(), e);
+        }
+        if (t == null) throw new IOException("Empty topology " + source);
+        t.validate(source);
+        return t;
+    }
+
+    /** Fail before anything starts rather than halfway through. */
+    private void validate(String source) throws IOException {
+        if (containers.isEmpty()) {
+            ContainerSpec main = new ContainerSpec();
+            main.name = "Main-Container";
+            main.main = true;
+            containers.add(main);
+        }
+        Set<String> containerNames = new HashSet<>();
+        int mains = 0;
+        for (ContainerSpec c : containers) {
+            if (c.name == null) throw new IOException(source + ": container without a name");
+            if (!containerNames.add(c.name)) throw new IOException(source + ": duplicate container " + c.name);
+            if (c.main) mains++;
+        }
+        if (mains != 1) throw new IOException(source + ": exactly one main container expected, found " + mains);
+
+        Set<String> agentNames = new HashSet<>();
+        for (AgentSpec a : agents) {
+            if (a.name == null || a.className == null) {
+                throw new IOException(source + ": agent entries need a name and a class");
+            }
+            if (a.count < 1) throw new IOException(source + ": " + a.name + " has count " + a.count);
+            if (a.container != null && !containerNames.contains(a.container)) {
+                throw new IOException(source + ": " + a.name + " refers to unknown container " + a.container);
+            }
+            try {
+                Class.forName(a.className);
+            } catch (ClassNotFoundException e) {
+                throw new IOException(source + ": " + a.name + " has unknown class " + a.className);
+            }
+            for (String n : a.names()) {
+                if (!agentNames.add(n)) throw new IOException(source + ": duplicate agent name " + n);
+            }
+        }
+    }
+
+    /** Total number of agents. */
+    public int size() {
+        int n = 0;
+        for (AgentSpec a : agents) n += a.count;
+        return n;
+    }
+}
@@ -0,0 +1,186 @@
+package auctions.metrics;
+
+import java.io.IOException;
+import java.util.function.DoubleSupplier;
+
+import jade.core.Agent;
+import jade.core.behaviours.Behaviour;
+import jade.core.behaviours.WrapperBehaviour;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * One agent's view of the {@link MetricsRegistry#global} registry: every
+ * series it creates carries the agent's {@code agent} label.
+ *
+ * Out of the box it exports the mailbox depth, messages received and sent
+ * per performative (the agent reports them through {@link #received} and
+ * {@link #send}, as JADE's send and receive are final), and the time spent
+ * in {@code action()} of any behaviour added through {@link #timed}. Agents
+ * add their own counters, gauges and histograms on top.
+ *
+ * Create it in {@code setup()} and {@link #close} it in {@code takeDown()}
+ * so the series of a stopped agent disappear and the shared HTTP endpoint
+ * stops with the last agent. It is not serializable: a mobile agent keeps
+ * it in a transient field, closes it before moving and creates a new one
+ * after.
+ */
+public class AgentMetrics {
+    /** Port of the shared /metrics endpoint unless the agent sets metricsPort; 0 disables it. */
+    public static final int DEFAULT_PORT = 9400;
+
+    /** What {@link #directory} exports from a DF-fed directory of agents. */
+    public interface Directory {
+        String getServiceType();
+        int size();
+        long getLastRefreshLagMs();
+        long getLookups();
+        long getRebuilds();
+    }
+
+    private static final String[] PERFORMATIVES = ACLMessage.getAllPerformativeNames();
+
+    private final Agent agent;
+    private final String name;
+    private final MetricsRegistry registry = MetricsRegistry.global();
+    // Per performative, the last slot for unknown ones; filled in on first use
+    private final Counter[] in = new Counter[PERFORMATIVES.length + 1];
+    private final Counter[] out = new Counter[PERFORMATIVES.length + 1];
+    private boolean serving;
+
+    /** Endpoint from -Dauction.metricsHost and -Dauction.metricsPort. */
+    public AgentMetrics(Agent agent) {
+        this(agent, System.getProperty("auction.metricsHost", "localhost"),
+            Integer.getInteger("auction.metricsPort", DEFAULT_PORT));
+    }
+
+    public AgentMetrics(Agent agent, String host, int port) {
+        this.agent = agent;
+        this.name = agent.getLocalName();
+        registry.gauge("agent_mailbox_depth", "Messages waiting in the agent's mailbox.",
+            agent::getCurQueueSize, "agent", name);
+        if (port > 0) {
+            try {
+                MetricsServer.acquire(host, port);
+                serving = true;
+            } catch (IOException e) {
+                System.err.println("[METRICS] " + name + ": /metrics endpoint unavailable: " + e);
+            }
+        }
+    }
+
+    /** Count a message taken from the mailbox; null (nothing received) is ignored. */
+    public void received(ACLMessage msg) {
+        if (msg != null) messages(in, "agent_messages_received_total", "Messages received", msg).inc();
+    }
+
+    /** Send {@code msg} from the agent, counting it once whatever the number of receivers. */
+    public void send(ACLMessage msg) {
+        messages(out, "agent_messages_sent_total", "Messages sent", msg).inc();
+        agent.send(msg);
+    }
+
+    private Counter messages(Counter[] counters, String metric, String help, ACLMessage msg) {
+        int p = msg.getPerformative();
+        int slot = p >= 0 && p < PERFORMATIVES.length ? p : PERFORMATIVES.length;
+        Counter c = counters[slot];
+        if (c == null) {
+            // A race only looks the same series up twice
+            c = registry.counter(metric, help + " by the agent, per performative.", "agent", name,
+                "performative", slot < PERFORMATIVES.length ? PERFORMATIVES[slot] : "UNKNOWN");
+            counters[slot] = c;
+        }
+        return c;
+    }
+
+    /** Wrap {@code b} so the time spent in each of its {@code action()} calls is recorded. */
+    public Behaviour timed(String behaviour, Behaviour b) {
+        return new TimedBehaviour(b, name, behaviour);
+    }
+
+    /**
+     * Looks its histogram up by name rather than holding on to it, so a
+     * behaviour of an agent that moves to another container still
+     * serializes and records into the registry of the JVM it lands in.
+     */
+    private static final class TimedBehaviour extends WrapperBehaviour {
+        private static final long serialVersionUID = 1L;
+
+        private final String agentName;
+        private final String behaviour;
+        private transient Histogram histogram;
+
+        TimedBehaviour(Behaviour b, String agentName, String behaviour) {
+            super(b);
+            this.agentName = agentName;
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public void action() {
+            long t0 = System.nanoTime();
+            try {
+                super.action();
+            } finally {
+                if (histogram == null) {
+                    histogram = MetricsRegistry.global().histogram("agent_behaviour_action_seconds",
+                        "Time spent in one action() call of a behaviour.",
+                        "agent", agentName, "behaviour", behaviour);
+                }
+                histogram.recordSince(t0);
+            }
+        }
+    }
+
+    /** Latency of a DF request such as register or deregister. */
+    public Histogram dfRequest(String op) {
+        return registry.histogram("agent_df_request_seconds",
+            "Round-trip time of a request to the DF.", "agent", name, "op", op);
+    }
+
+    /** Size, notification lag, lookups and rebuilds of a DF-fed directory. */
+    public void directory(Directory directory) {
+        String service = directory.getServiceType();
+        registry.gauge("agent_directory_members", "Agents in the local DF directory.",
+            directory::size, "agent", name, "service", service);
+        registry.gauge("agent_directory_refresh_lag_seconds", "Time the last DF notification waited in the mailbox.",
+            () -> Math.max(0, directory.getLastRefreshLagMs()) / 1000.0, "agent", name, "service", service);
+        registry.counter("agent_directory_lookups_total", "Lookups served from the local directory.",
+            directory::getLookups, "agent", name, "service", service);
+        registry.counter("agent_directory_rebuilds_total", "Directory snapshot rebuilds after membership changes.",
+            directory::getRebuilds, "agent", name, "service", service);
+    }
+
+    public Counter counter(String metric, String help, String... labels) {
+        return registry.counter(metric, help, withAgent(labels));
+    }
+
+    /** A count the agent keeps itself, read on every scrape. */
+    public void counter(String metric, String help, DoubleSupplier value, String... labels) {
+        registry.counter(metric, help, value, withAgent(labels));
+    }
+
+    public Histogram histogram(String metric, String help, String... labels) {
+        return registry.histogram(metric, help, withAgent(labels));
+    }
+
+    public void gauge(String metric, String help, DoubleSupplier value, String... labels) {
+        registry.gauge(metric, help, value, withAgent(labels));
+    }
+
+    private String[] withAgent(String[] labels) {
+        String[] all = new String[labels.length + 2];
+        all[0] = "agent";
+        all[1] = name;
+        System.arraycopy(labels, 0, all, 2, labels.length);
+        return all;
+    }
+
+    /** Remove the agent's series and let go of the shared endpoint. */
+    public void close() {
+        registry.removeAll("agent", name);
+        if (serving) {
+            serving = false;
+            MetricsServer.release();
+        }
+    }
+}
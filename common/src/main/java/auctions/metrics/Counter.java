@@ -0,0 +1,15 @@
+package auctions.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count, striped so that agents and HTTP threads can increment
+ * it at once without contending on one cache line.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void inc()        { value.increment(); }
+    public void add(long n)  { value.add(n); }
+    public long get()        { return value.sum(); }
+}
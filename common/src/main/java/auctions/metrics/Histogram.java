@@ -0,0 +1,109 @@
+package auctions.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in nanoseconds, HDR-style: log-linear buckets,
+ * exact below 16 ns, then 8 per power of two (about 12% precision) up
+ * to about two minutes.
+ *
+ * Each bucket is a {@link LongAdder}, created the first time a value
+ * lands in it, so recording never contends and an idle histogram costs
+ * one small array. Exported as a Prometheus histogram over fixed
+ * {@link #BOUNDS_SECONDS}; a bucket that straddles a bound counts in the
+ * next one up, so the exported latencies err on the slow side.
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 3;                   // 8 buckets per power of two
+    private static final int LINEAR = 2 << SUB_BITS;         // exact below 16
+    private static final int MAX_SHIFT = 33;                 // up to 2^37 ns, about 137 s
+    private static final int BUCKETS = LINEAR + MAX_SHIFT * (1 << SUB_BITS);
+
+    /** Upper bounds ({@code le}) of the exported buckets, in seconds. */
+    public static final double[] BOUNDS_SECONDS = {
+        0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005,
+        0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+        0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        int i = index(v);
+        LongAdder bucket = counts.get(i);
+        if (bucket == null) {
+            counts.compareAndSet(i, null, new LongAdder());
+            bucket = counts.get(i);
+        }
+        bucket.increment();
+        total.increment();
+        sum.add(v);
+    }
+
+    /** Record the time elapsed since {@code startNanos} (a {@link System#nanoTime} value). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    private static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(v) - SUB_BITS);
+        long sub = Math.min(v >>> shift, LINEAR - 1);   // 8..15
+        return LINEAR + (shift - 1) * (1 << SUB_BITS) + (int) (sub - (1 << SUB_BITS));
+    }
+
+    /** Largest value that falls into bucket {@code i}. */
+    private static long upperBound(int i) {
+        if (i < LINEAR) return i;
+        int shift = (i - LINEAR) / (1 << SUB_BITS) + 1;
+        long sub = (i - LINEAR) % (1 << SUB_BITS) + (1 << SUB_BITS);
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /** Value at quantile {@code q} (0..1), in ns: the upper bound of its bucket. */
+    public long percentile(double q) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder c = counts.get(i);
+            if (c != null) seen += c.sum();
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Cumulative counts at each of {@link #BOUNDS_SECONDS}, as Prometheus
+     * wants them, then the +Inf bucket: every value, counted in the same
+     * pass so it is never below the others.
+     */
+    long[] cumulativeCounts() {
+        long[] out = new long[BOUNDS_SECONDS.length + 1];
+        int b = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long ub = upperBound(i);
+            while (b < BOUNDS_SECONDS.length && ub > BOUNDS_SECONDS[b] * 1e9) {
+                out[b++] = seen;
+            }
+            LongAdder c = counts.get(i);
+            if (c != null) seen += c.sum();
+        }
+        while (b < out.length) out[b++] = seen;
+        return out;
+    }
+
+    public long getCount()        { return total.sum(); }
+    public long getSumNanos()     { return sum.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, p50 %.3f ms, p99 %.3f ms",
+            getCount(), percentile(0.50) / 1e6, percentile(0.99) / 1e6);
+    }
+}
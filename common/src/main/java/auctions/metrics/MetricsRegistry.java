@@ -0,0 +1,178 @@
+package auctions.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Named counters, gauges and histograms, rendered in the Prometheus text
+ * exposition format (version 0.0.4).
+ *
+ * Metrics are grouped in families by name; each series of a family has
+ * its own label values, given as name/value pairs. Asking again for the
+ * same name and labels returns the same metric, so callers may look a
+ * series up lazily. One {@link #global} registry serves every agent of
+ * the JVM, each under its own {@code agent} label.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Series> series = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class Series {
+        final String[] labels;
+        final Object metric;   // Counter, Histogram or DoubleSupplier
+
+        Series(String[] labels, Object metric) {
+            this.labels = labels;
+            this.metric = metric;
+        }
+    }
+
+    /** A counter; by convention {@code name} ends in {@code _total}. */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) series(name, help, "counter", labels, new Counter());
+    }
+
+    /** A counter kept by the caller, read on every scrape; replaces any earlier one with the same labels. */
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "counter").series.put(labelText(labels), new Series(labels, value));
+    }
+
+    /** A latency histogram, exported in seconds. */
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) series(name, help, "histogram", labels, new Histogram());
+    }
+
+    /** A gauge read on every scrape; replaces any earlier one with the same labels. */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").series.put(labelText(labels), new Series(labels, value));
+    }
+
+    private Object series(String name, String help, String type, String[] labels, Object fresh) {
+        return family(name, help, type).series
+            .computeIfAbsent(labelText(labels), k -> new Series(labels, fresh)).metric;
+    }
+
+    private Family family(String name, String help, String type) {
+        Family f = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!f.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already a " + f.type + ", not a " + type);
+        }
+        return f;
+    }
+
+    /** Drop every series whose {@code label} is {@code value}, e.g. those of a stopped agent. */
+    public void removeAll(String label, String value) {
+        for (Family f : families.values()) {
+            f.series.values().removeIf(s -> hasLabel(s.labels, label, value));
+        }
+    }
+
+    private static boolean hasLabel(String[] labels, String label, String value) {
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (labels[i].equals(label) && labels[i + 1].equals(value)) return true;
+        }
+        return false;
+    }
+
+    /** Render every series in the text exposition format. */
+    public void writeText(StringBuilder out) {
+        for (Family f : families.values()) {
+            if (f.series.isEmpty()) continue;
+            out.append("# HELP ").append(f.name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(f.name).append(' ').append(f.type).append('\n');
+            for (Map.Entry<String, Series> e : f.series.entrySet()) {
+                Object m = e.getValue().metric;
+                if (m instanceof Counter) {
+                    sample(out, f.name, e.getKey(), null, ((Counter) m).get());
+                } else if (m instanceof Histogram) {
+                    writeHistogram(out, f.name, e.getKey(), (Histogram) m);
+                } else {
+                    sample(out, f.name, e.getKey(), null, value((DoubleSupplier) m));
+                }
+            }
+        }
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, Histogram h) {
+        long[] cumulative = h.cumulativeCounts();
+        String bucket = name + "_bucket";
+        for (int b = 0; b < Histogram.BOUNDS_SECONDS.length; b++) {
+            sample(out, bucket, labels, Double.toString(Histogram.BOUNDS_SECONDS[b]), cumulative[b]);
+        }
+        long count = cumulative[cumulative.length - 1];
+        sample(out, bucket, labels, "+Inf", count);
+        sample(out, name + "_sum", labels, null, h.getSumNanos() / 1e9);
+        sample(out, name + "_count", labels, null, count);
+    }
+
+    private static double value(DoubleSupplier gauge) {
+        try {
+            return gauge.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;   // an agent that is going away must not break the scrape
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String le, double value) {
+        out.append(name);
+        if (!labels.isEmpty() || le != null) {
+            out.append('{').append(labels);
+            if (le != null) {
+                if (!labels.isEmpty()) out.append(',');
+                out.append("le=\"").append(le).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == (long) value) {
+            out.append((long) value);
+        } else if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    /** {@code a="x",b="y"} with Prometheus escaping of the values. */
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels come in name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            String v = labels[i + 1];
+            for (int k = 0; k < v.length(); k++) {
+                char c = v.charAt(k);
+                if (c == '\\' || c == '"') sb.append('\\').append(c);
+                else if (c == '\n') sb.append("\\n");
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+}
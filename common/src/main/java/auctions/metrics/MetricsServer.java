@@ -0,0 +1,83 @@
+package auctions.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a {@link MetricsRegistry} for Prometheus to scrape:
+ *
+ *   GET /metrics   every series in the text exposition format
+ *
+ * All agents of a JVM share one server: the first {@link #acquire} starts
+ * it, later ones reuse it whatever port they ask for, and it stops when the last
+ * user releases it, so it does not keep a finished platform's JVM alive.
+ */
+public final class MetricsServer {
+    private static MetricsServer shared;
+    private static int users;
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private MetricsServer(MetricsRegistry registry, String host, int port) throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    /** The JVM's metrics server for the global registry, started on first use. */
+    public static synchronized MetricsServer acquire(String host, int port) throws IOException {
+        if (shared == null) {
+            shared = new MetricsServer(MetricsRegistry.global(), host, port);
+            System.out.println("[METRICS] Prometheus metrics on http://" + host + ":" + shared.getPort() + "/metrics");
+        }
+        users++;
+        return shared;
+    }
+
+    public static synchronized void release() {
+        if (users > 0 && --users == 0 && shared != null) {
+            shared.server.stop(0);
+            shared.executor.shutdownNow();
+            shared = null;
+        }
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder text = new StringBuilder(8192);
+            registry.writeText(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            ex.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream os = ex.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        } finally {
+            ex.close();
+        }
+    }
+}